@@ -0,0 +1,58 @@
+package com.api.config;
+
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live usage of the upstream connection pools, one per remote address, as registered
+ * by reactor-netty. A pool is saturated when every connection is in use or requests
+ * are queued waiting for one.
+ */
+public class UpstreamPoolMetrics implements ConnectionProvider.MeterRegistrar {
+
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+                                ConnectionPoolMetrics metrics) {
+        pools.put(key(poolName, remoteAddress), metrics);
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        pools.remove(key(poolName, remoteAddress));
+    }
+
+    /**
+     * Current figures of each pool, keyed by pool name and remote address
+     */
+    public Map<String, Map<String, Object>> getPools() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        pools.forEach((key, metrics) -> {
+            Map<String, Object> pool = new LinkedHashMap<>();
+            pool.put("acquired", metrics.acquiredSize());
+            pool.put("idle", metrics.idleSize());
+            pool.put("allocated", metrics.allocatedSize());
+            pool.put("maxConnections", metrics.maxAllocatedSize());
+            pool.put("pendingAcquire", metrics.pendingAcquireSize());
+            pool.put("maxPendingAcquire", metrics.maxPendingAcquireSize());
+            pool.put("saturated", isSaturated(metrics));
+            result.put(key, pool);
+        });
+        return result;
+    }
+
+    static boolean isSaturated(ConnectionPoolMetrics metrics) {
+        return metrics.pendingAcquireSize() > 0 || metrics.acquiredSize() >= metrics.maxAllocatedSize();
+    }
+
+    private static String key(String poolName, SocketAddress remoteAddress) {
+        return poolName + "@" + remoteAddress;
+    }
+}
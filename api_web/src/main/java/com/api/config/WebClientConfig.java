@@ -1,20 +1,110 @@
 package com.api.config;
 
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebClient for the upstream API on a dedicated, tunable reactor-netty transport: a
+ * bounded connection pool with idle and lifetime eviction, gzip responses, TCP
+ * keep-alive, connect/response/read timeouts and a codec memory limit. Pool usage is
+ * reported to {@link UpstreamPoolMetrics}.
+ */
 @Configuration
 public class WebClientConfig {
 
     @Value("${external.api.baseUrl}")
     private String apiBaseUrl;
 
+    // Connection pool
+    @Value("${upstream.http.pool.max-connections:50}")
+    private int maxConnections = 50;
+
+    @Value("${upstream.http.pool.pending-acquire-max-count:200}")
+    private int pendingAcquireMaxCount = 200;
+
+    @Value("${upstream.http.pool.pending-acquire-timeout:10s}")
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+
+    @Value("${upstream.http.pool.max-idle-time:30s}")
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    @Value("${upstream.http.pool.max-life-time:5m}")
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+
+    @Value("${upstream.http.pool.evict-in-background:30s}")
+    private Duration evictInBackground = Duration.ofSeconds(30);
+
+    // Timeouts
+    @Value("${upstream.http.connect-timeout:5s}")
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    // Until the response headers arrive
+    @Value("${upstream.http.response-timeout:30s}")
+    private Duration responseTimeout = Duration.ofSeconds(30);
+
+    // Longest silence between two reads while a body is streamed
+    @Value("${upstream.http.read-timeout:30s}")
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    // Transport options
+    @Value("${upstream.http.compression:true}")
+    private boolean compression = true;
+
+    @Value("${upstream.http.tcp.keep-alive:true}")
+    private boolean tcpKeepAlive = true;
+
+    @Value("${upstream.http.tcp.no-delay:true}")
+    private boolean tcpNoDelay = true;
+
+    // Collections are decoded record by record, so this bounds a single record or by-id response
+    @Value("${upstream.http.max-in-memory-size:2MB}")
+    private DataSize maxInMemorySize = DataSize.ofMegabytes(2);
+
+    @Bean
+    public UpstreamPoolMetrics upstreamPoolMetrics() {
+        return new UpstreamPoolMetrics();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider upstreamConnectionProvider(UpstreamPoolMetrics poolMetrics) {
+        return ConnectionProvider.builder("upstream")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInBackground)
+                .metrics(true, () -> poolMetrics)
+                .build();
+    }
+
     @Bean
-    public WebClient webClient() {
+    public WebClient webClient(ConnectionProvider upstreamConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(upstreamConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, tcpKeepAlive)
+                .option(ChannelOption.TCP_NODELAY, tcpNoDelay)
+                .responseTimeout(responseTimeout)
+                // Sends Accept-Encoding: gzip and inflates the response
+                .compress(compression)
+                .doOnConnected(connection -> connection.addHandlerLast(
+                        new ReadTimeoutHandler(readTimeout.toMillis(), TimeUnit.MILLISECONDS)));
+
         return WebClient.builder()
                 .baseUrl(apiBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes()))
                 .build();
     }
-} 
\ No newline at end of file
+}
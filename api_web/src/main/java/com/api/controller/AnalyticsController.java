@@ -0,0 +1,215 @@
+package com.api.controller;
+
+import com.api.model.Admission;
+import com.api.model.Patient;
+import com.api.service.MaternityBusinessService;
+import com.api.service.OccupancyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parameterised analytics, answered per request from the indices kept with the snapshot
+ */
+@RestController
+@RequestMapping("/api/maternity")
+@Tag(name = "Maternity API", description = "Maternity Ward API endpoints")
+public class AnalyticsController {
+
+    private final MaternityBusinessService businessService;
+    private final OccupancyService occupancyService;
+
+    @Autowired
+    public AnalyticsController(MaternityBusinessService businessService, OccupancyService occupancyService) {
+        this.businessService = businessService;
+        this.occupancyService = occupancyService;
+    }
+
+    @Operation(summary = "Get patients readmitted within a number of days",
+            description = "Returns patients readmitted within the given number of days of a discharge, smallest gap first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of patients",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Patient.class)) }),
+            @ApiResponse(responseCode = "400", description = "Negative window or gap")
+    })
+    @GetMapping("/patients/readmitted-within/{days}")
+    public ResponseEntity<List<Patient>> getPatientsReadmittedWithin(
+            @PathVariable int days,
+            @Parameter(description = "Smallest gap in days to include") @RequestParam(required = false) Integer minGap,
+            @Parameter(description = "Largest gap in days to include") @RequestParam(required = false) Integer maxGap) {
+        return ResponseEntity.ok(businessService.getPatientsReadmittedWithin(days, minGap, maxGap));
+    }
+
+    @Operation(summary = "Get patients with at least k distinct staff",
+            description = "Returns patients with an admission staffed by at least k distinct employees, optionally only counting admissions overlapping a period")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of patients",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Patient.class)) }),
+            @ApiResponse(responseCode = "400", description = "k below 1 or malformed window")
+    })
+    @GetMapping("/patients/with-min-staff/{k}")
+    public ResponseEntity<List<Patient>> getPatientsWithMinStaff(
+            @PathVariable int k,
+            @Parameter(description = "ISO date or date-time the window starts") @RequestParam(required = false) String from,
+            @Parameter(description = "ISO date or date-time to stop before; a plain date includes that day") @RequestParam(required = false) String to) {
+        return ResponseEntity.ok(businessService.getPatientsWithMinStaff(k, from, to));
+    }
+
+    @Operation(summary = "Get admissions per month",
+            description = "Returns the number of admissions in every month from the first to the last admission, in calendar order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved admissions per month")
+    })
+    @GetMapping("/admissions/per-month")
+    public ResponseEntity<Map<String, Integer>> getAdmissionsPerMonth() {
+        return ResponseEntity.ok(businessService.getAdmissionsPerMonth());
+    }
+
+    @Operation(summary = "Get the months with the most admissions",
+            description = "Returns the k busiest months, busiest first; with ties, months sharing the count of the k-th month are included")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the busiest months"),
+            @ApiResponse(responseCode = "400", description = "k below 1")
+    })
+    @GetMapping("/admissions/months/top")
+    public ResponseEntity<Map<String, Integer>> getTopMonths(
+            @Parameter(description = "Number of months") @RequestParam(defaultValue = "3") int k,
+            @Parameter(description = "Include months tied with the k-th") @RequestParam(defaultValue = "false") boolean withTies) {
+        return ResponseEntity.ok(businessService.getTopMonths(k, withTies));
+    }
+
+    @Operation(summary = "Get every month tied for the most admissions",
+            description = "Returns all months sharing the highest number of admissions, earliest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the busiest months")
+    })
+    @GetMapping("/admissions/months/most")
+    public ResponseEntity<Map<String, Integer>> getBusiestMonths() {
+        return ResponseEntity.ok(businessService.getBusiestMonths());
+    }
+
+    @Operation(summary = "Get admissions in a time range",
+            description = "Returns the admissions whose stay overlaps a period, or that were admitted within it, sorted by admission date. "
+                    + "A range is from,to as ISO dates or date-times; to is exclusive, but a plain date includes that day.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of admissions",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Admission.class)) }),
+            @ApiResponse(responseCode = "400", description = "Malformed range or both filters given")
+    })
+    @GetMapping("/admissions")
+    public ResponseEntity<List<Admission>> getAdmissions(
+            @Parameter(description = "Period the stay overlaps, e.g. 2024-01-01,2024-01-31") @RequestParam(required = false) String overlapping,
+            @Parameter(description = "Period the admission falls in, e.g. 2024-01-01,2024-01-31") @RequestParam(required = false) String admittedBetween) {
+        return ResponseEntity.ok(businessService.getAdmissions(overlapping, admittedBetween));
+    }
+
+    @Operation(summary = "Get the ward census",
+            description = "Returns the number of patients on the ward at a point in time, counting patients not yet discharged")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the census"),
+            @ApiResponse(responseCode = "400", description = "Malformed time")
+    })
+    @GetMapping("/census")
+    public ResponseEntity<Map<String, Object>> getCensus(
+            @Parameter(description = "ISO date or date-time, now when omitted") @RequestParam(required = false) String at) {
+        return ResponseEntity.ok(occupancyService.getCensus(at));
+    }
+
+    @Operation(summary = "Get the ward occupancy over time",
+            description = "Returns the number of patients on the ward at every step from from up to, not including, to")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the occupancy series"),
+            @ApiResponse(responseCode = "400", description = "Malformed range or step, or too many points")
+    })
+    @GetMapping("/census/series")
+    public ResponseEntity<Map<String, Integer>> getCensusSeries(
+            @Parameter(description = "ISO date or date-time of the first point") @RequestParam String from,
+            @Parameter(description = "ISO date or date-time to stop before; a plain date includes that day") @RequestParam String to,
+            @Parameter(description = "ISO-8601 duration between points") @RequestParam(defaultValue = "PT1H") String step) {
+        return ResponseEntity.ok(occupancyService.getCensusSeries(from, to, step));
+    }
+
+    @Operation(summary = "Get staff caseloads",
+            description = "Returns the employees with allocations in progress at a point in time and how many, busiest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved caseloads by employee ID"),
+            @ApiResponse(responseCode = "400", description = "Malformed time")
+    })
+    @GetMapping("/employees/caseload")
+    public ResponseEntity<Map<Integer, Integer>> getCaseloads(
+            @Parameter(description = "ISO date or date-time, now when omitted") @RequestParam(required = false) String at) {
+        return ResponseEntity.ok(occupancyService.getCaseloads(at));
+    }
+
+    @Operation(summary = "Get an employee's caseload",
+            description = "Returns the number of the employee's allocations in progress at a point in time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the caseload"),
+            @ApiResponse(responseCode = "400", description = "Malformed time"),
+            @ApiResponse(responseCode = "404", description = "No employee with this ID")
+    })
+    @GetMapping("/employees/{id}/caseload")
+    public ResponseEntity<Map<String, Object>> getCaseload(
+            @PathVariable int id,
+            @Parameter(description = "ISO date or date-time, now when omitted") @RequestParam(required = false) String at) {
+        return ResponseEntity.ofNullable(occupancyService.getCaseload(id, at));
+    }
+
+    @Operation(summary = "Get an employee's weekly allocated hours",
+            description = "Returns the hours allocated to the employee in each week from Monday, concurrent allocations counted separately")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved hours by week start"),
+            @ApiResponse(responseCode = "400", description = "Malformed range or too many weeks"),
+            @ApiResponse(responseCode = "404", description = "No employee with this ID")
+    })
+    @GetMapping("/employees/{id}/weekly-hours")
+    public ResponseEntity<Map<String, Double>> getWeeklyHours(
+            @PathVariable int id,
+            @Parameter(description = "ISO date or date-time in the first week") @RequestParam String from,
+            @Parameter(description = "ISO date or date-time in the last week") @RequestParam String to) {
+        return ResponseEntity.ofNullable(occupancyService.getWeeklyHours(id, from, to));
+    }
+
+    @Operation(summary = "Get the busiest staff",
+            description = "Returns the k employees with the most allocated hours in a period, busiest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved hours by employee ID"),
+            @ApiResponse(responseCode = "400", description = "Malformed range or k below 1")
+    })
+    @GetMapping("/employees/busiest")
+    public ResponseEntity<Map<Integer, Double>> getBusiestEmployees(
+            @Parameter(description = "Number of employees") @RequestParam(defaultValue = "10") int k,
+            @Parameter(description = "ISO date or date-time the period starts") @RequestParam String from,
+            @Parameter(description = "ISO date or date-time to stop before; a plain date includes that day") @RequestParam String to) {
+        return ResponseEntity.ok(occupancyService.getBusiestEmployees(k, from, to));
+    }
+
+    @Operation(summary = "Get a patient cohort",
+            description = "Returns the patients matching a cohort expression combining cohorts with AND, OR, NOT and parentheses, "
+                    + "e.g. readmitted AND multi-staff AND NOT admitted-in:2024. Cohorts: all, never-admitted, readmitted, "
+                    + "readmitted-within:DAYS, multi-staff, min-staff:K, admitted-in:YYYY or admitted-in:YYYY-MM")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of patients",
+                    content = { @Content(mediaType = "application/json", schema = @Schema(implementation = Patient.class)) }),
+            @ApiResponse(responseCode = "400", description = "Malformed expression or unknown cohort")
+    })
+    @GetMapping("/cohorts")
+    public ResponseEntity<List<Patient>> getCohort(
+            @Parameter(description = "Cohort expression") @RequestParam String expr) {
+        return ResponseEntity.ok(businessService.getCohort(expr));
+    }
+}
@@ -0,0 +1,70 @@
+package com.api.controller;
+
+import com.api.model.Admission;
+import com.api.model.Allocation;
+import com.api.model.Employee;
+import com.api.model.Patient;
+import com.api.service.EntityLookupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/maternity")
+@Tag(name = "Maternity API", description = "Maternity Ward API endpoints")
+public class EntityController {
+
+    private final EntityLookupService lookupService;
+
+    @Autowired
+    public EntityController(EntityLookupService lookupService) {
+        this.lookupService = lookupService;
+    }
+
+    @Operation(summary = "Get patient by ID", description = "Returns a single patient from the cached dataset")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Patient found"),
+            @ApiResponse(responseCode = "404", description = "No patient with this ID")
+    })
+    @GetMapping("/patients/{id}")
+    public ResponseEntity<Patient> getPatient(@PathVariable Integer id) {
+        return ResponseEntity.ofNullable(lookupService.getPatient(id));
+    }
+
+    @Operation(summary = "Get admission by ID", description = "Returns a single admission from the cached dataset")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Admission found"),
+            @ApiResponse(responseCode = "404", description = "No admission with this ID")
+    })
+    @GetMapping("/admissions/{id}")
+    public ResponseEntity<Admission> getAdmission(@PathVariable Integer id) {
+        return ResponseEntity.ofNullable(lookupService.getAdmission(id));
+    }
+
+    @Operation(summary = "Get employee by ID", description = "Returns a single employee from the cached dataset")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Employee found"),
+            @ApiResponse(responseCode = "404", description = "No employee with this ID")
+    })
+    @GetMapping("/employees/{id}")
+    public ResponseEntity<Employee> getEmployee(@PathVariable Integer id) {
+        return ResponseEntity.ofNullable(lookupService.getEmployee(id));
+    }
+
+    @Operation(summary = "Get allocation by ID", description = "Returns a single allocation from the cached dataset")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Allocation found"),
+            @ApiResponse(responseCode = "404", description = "No allocation with this ID")
+    })
+    @GetMapping("/allocations/{id}")
+    public ResponseEntity<Allocation> getAllocation(@PathVariable Integer id) {
+        return ResponseEntity.ofNullable(lookupService.getAllocation(id));
+    }
+}
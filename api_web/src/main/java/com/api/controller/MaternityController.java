@@ -1,7 +1,8 @@
 package com.api.controller;
 
 import com.api.model.Patient;
-import com.api.service.MaternityBusinessService;
+import com.api.service.MaterializedResults;
+import com.api.service.MaterializedResultsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -9,24 +10,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.view.RedirectView;
 
-import java.util.List;
-import java.util.Map;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/maternity")
 @Tag(name = "Maternity API", description = "Maternity Ward API endpoints")
 public class MaternityController {
 
-    private final MaternityBusinessService businessService;
+    private final MaterializedResultsService resultsService;
 
     @Autowired
-    public MaternityController(MaternityBusinessService businessService) {
-        this.businessService = businessService;
+    public MaternityController(MaterializedResultsService resultsService) {
+        this.resultsService = resultsService;
     }
     
     @GetMapping
@@ -41,8 +43,8 @@ public class MaternityController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/patients/never-admitted")
-    public List<Patient> getPatientsNeverAdmitted() {
-        return businessService.getPatientsNeverAdmitted();
+    public ResponseEntity<byte[]> getPatientsNeverAdmitted() {
+        return json(MaterializedResults::getPatientsNeverAdmitted);
     }
 
     @Operation(summary = "Get patients readmitted within 7 days", description = "Returns a list of patients who were readmitted within 7 days of discharge")
@@ -52,8 +54,8 @@ public class MaternityController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/patients/readmitted-within-7-days")
-    public List<Patient> getPatientsReadmittedWithin7Days() {
-        return businessService.getPatientsReadmittedWithin7Days();
+    public ResponseEntity<byte[]> getPatientsReadmittedWithin7Days() {
+        return json(MaterializedResults::getPatientsReadmittedWithin7Days);
     }
 
     @Operation(summary = "Get month with most admissions", description = "Returns the month with the highest number of admissions")
@@ -63,8 +65,8 @@ public class MaternityController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/admissions/month-with-most")
-    public Map<String, Integer> getMonthWithMostAdmissions() {
-        return businessService.getMonthWithMostAdmissions();
+    public ResponseEntity<byte[]> getMonthWithMostAdmissions() {
+        return json(MaterializedResults::getMonthWithMostAdmissions);
     }
 
     @Operation(summary = "Get patients with multiple staff", description = "Returns a list of patients who have more than one staff member assigned to them")
@@ -74,7 +76,16 @@ public class MaternityController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/patients/with-multiple-staff")
-    public List<Patient> getPatientsWithMultipleStaff() {
-        return businessService.getPatientsWithMultipleStaff();
+    public ResponseEntity<byte[]> getPatientsWithMultipleStaff() {
+        return json(MaterializedResults::getPatientsWithMultipleStaff);
+    }
+
+    /**
+     * Write a pre-serialized result straight to the response, bypassing Jackson
+     */
+    private ResponseEntity<byte[]> json(Function<MaterializedResults, byte[]> result) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(result.apply(resultsService.getResults()));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.api.controller;
+
+import com.api.config.UpstreamPoolMetrics;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/maternity/upstream")
+@Tag(name = "Upstream", description = "State of the connection to the external maternity API")
+public class UpstreamController {
+
+    private final UpstreamPoolMetrics poolMetrics;
+
+    @Autowired
+    public UpstreamController(UpstreamPoolMetrics poolMetrics) {
+        this.poolMetrics = poolMetrics;
+    }
+
+    @Operation(summary = "Get connection pool usage",
+            description = "Returns the live usage of each upstream connection pool and whether it is saturated")
+    @ApiResponse(responseCode = "200", description = "Pool usage, empty until the first connection is opened")
+    @GetMapping("/pool")
+    public ResponseEntity<Map<String, Map<String, Object>>> getPoolMetrics() {
+        return ResponseEntity.ok(poolMetrics.getPools());
+    }
+}
@@ -0,0 +1,18 @@
+package com.api.exception;
+
+/**
+ * Raised when upstream cannot answer: without calling it while its circuit breaker is
+ * open, or once a call has failed for good
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+
+    public UpstreamUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,12 +1,18 @@
 package com.api.model;
 
-import java.time.LocalDateTime;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Objects;
 
 public class Admission {
     private Integer id;
     private String admissionDate;
     private String dischargeDate;
     private Integer patientID;
+
+    // Epoch seconds of the date strings, filled in when the record is ingested into the cache
+    private long admissionEpoch = EpochSeconds.UNKNOWN;
+    private long dischargeEpoch = EpochSeconds.UNKNOWN;
     
     public Admission() {
     }
@@ -43,6 +49,40 @@ public class Admission {
         this.patientID = patientID;
     }
     
+    @JsonIgnore
+    public long getAdmissionEpoch() {
+        return admissionEpoch;
+    }
+    
+    public void setAdmissionEpoch(long admissionEpoch) {
+        this.admissionEpoch = admissionEpoch;
+    }
+    
+    @JsonIgnore
+    public long getDischargeEpoch() {
+        return dischargeEpoch;
+    }
+    
+    public void setDischargeEpoch(long dischargeEpoch) {
+        this.dischargeEpoch = dischargeEpoch;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Admission that = (Admission) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(admissionDate, that.admissionDate) &&
+                Objects.equals(dischargeDate, that.dischargeDate) &&
+                Objects.equals(patientID, that.patientID);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, admissionDate, dischargeDate, patientID);
+    }
+    
     @Override
     public String toString() {
         return "Admission{" +
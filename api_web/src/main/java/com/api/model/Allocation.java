@@ -1,11 +1,19 @@
 package com.api.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Objects;
+
 public class Allocation {
     private Integer id;
     private Integer admissionID;
     private Integer employeeID;
     private String startTime;
     private String endTime;
+
+    // Epoch seconds of the date strings, filled in when the record is ingested into the cache
+    private long startEpoch = EpochSeconds.UNKNOWN;
+    private long endEpoch = EpochSeconds.UNKNOWN;
     
     public Allocation() {
     }
@@ -50,6 +58,41 @@ public class Allocation {
         this.endTime = endTime;
     }
     
+    @JsonIgnore
+    public long getStartEpoch() {
+        return startEpoch;
+    }
+    
+    public void setStartEpoch(long startEpoch) {
+        this.startEpoch = startEpoch;
+    }
+    
+    @JsonIgnore
+    public long getEndEpoch() {
+        return endEpoch;
+    }
+    
+    public void setEndEpoch(long endEpoch) {
+        this.endEpoch = endEpoch;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Allocation that = (Allocation) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(admissionID, that.admissionID) &&
+                Objects.equals(employeeID, that.employeeID) &&
+                Objects.equals(startTime, that.startTime) &&
+                Objects.equals(endTime, that.endTime);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, admissionID, employeeID, startTime, endTime);
+    }
+    
     @Override
     public String toString() {
         return "Allocation{" +
@@ -1,5 +1,7 @@
 package com.api.model;
 
+import java.util.Objects;
+
 public class Employee {
     private Integer id;
     private String surname;
@@ -32,6 +34,21 @@ public class Employee {
         this.forename = forename;
     }
     
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Employee that = (Employee) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(surname, that.surname) &&
+                Objects.equals(forename, that.forename);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, surname, forename);
+    }
+    
     @Override
     public String toString() {
         return "Employee{" +
@@ -0,0 +1,30 @@
+package com.api.model;
+
+/**
+ * Sentinels of the epoch-second timestamps the cache derives from the upstream date
+ * strings. Every other value is a UTC epoch second.
+ */
+public final class EpochSeconds {
+
+    /**
+     * The record has no such timestamp
+     */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    /**
+     * The record has a timestamp in a format that could not be parsed
+     */
+    public static final long INVALID = Long.MIN_VALUE + 1;
+
+    /**
+     * End of an interval that has not ended yet: no discharge or end time
+     */
+    public static final long OPEN = Long.MAX_VALUE;
+
+    private EpochSeconds() {
+    }
+
+    public static boolean isKnown(long epochSecond) {
+        return epochSecond != UNKNOWN && epochSecond != INVALID && epochSecond != OPEN;
+    }
+}
@@ -1,5 +1,7 @@
 package com.api.model;
 
+import java.util.Objects;
+
 public class Patient {
     private Integer id;
     private String surname;
@@ -41,6 +43,22 @@ public class Patient {
         this.nhsNumber = nhsNumber;
     }
     
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Patient that = (Patient) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(surname, that.surname) &&
+                Objects.equals(forename, that.forename) &&
+                Objects.equals(nhsNumber, that.nhsNumber);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, surname, forename, nhsNumber);
+    }
+    
     @Override
     public String toString() {
         return "Patient{" +
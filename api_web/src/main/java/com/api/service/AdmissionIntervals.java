@@ -0,0 +1,159 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.EpochSeconds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Admissions as half-open [admission, discharge) intervals in epoch seconds, sorted by
+ * admission time, with an implicit max-discharge tree over the sorted array. Admissions
+ * without a usable admission date are left out; one still in hospital ends at
+ * {@link EpochSeconds#OPEN}.
+ * <p>
+ * An admitted-between query is two binary searches over the starts. An overlap query
+ * binary searches the admissions that start before the range ends and then only descends
+ * into subtrees whose latest discharge is after the range starts, so it costs
+ * O(log n + matches) however much history is loaded.
+ */
+final class AdmissionIntervals {
+
+    private static final Comparator<Admission> BY_START = Comparator.comparingLong(Admission::getAdmissionEpoch);
+
+    static final AdmissionIntervals EMPTY = of(Collections.emptyList());
+
+    private final Admission[] admissions;
+    private final long[] starts;
+    // Leaves at [leaves, 2 * leaves) hold the discharges, inner node i the max of 2i and 2i + 1
+    private final long[] maxEnds;
+    private final int leaves;
+
+    private AdmissionIntervals(Admission[] admissions, long[] starts, long[] maxEnds, int leaves) {
+        this.admissions = admissions;
+        this.starts = starts;
+        this.maxEnds = maxEnds;
+        this.leaves = leaves;
+    }
+
+    static AdmissionIntervals of(List<Admission> records) {
+        List<Admission> dated = new ArrayList<>(records.size());
+        for (Admission admission : records) {
+            if (EpochSeconds.isKnown(admission.getAdmissionEpoch())) {
+                dated.add(admission);
+            }
+        }
+        Admission[] admissions = dated.toArray(new Admission[0]);
+        Arrays.sort(admissions, BY_START);
+        return index(admissions);
+    }
+
+    /**
+     * Copy with the outgoing admissions, the instances held here, taken out and the
+     * incoming ones merged in. Only the incoming admissions are sorted; the tree is
+     * rebuilt over the merged array in one linear pass.
+     */
+    AdmissionIntervals patch(Collection<Admission> outgoing, Collection<Admission> incoming) {
+        Set<Admission> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(outgoing);
+        Admission[] added = incoming.stream()
+                .filter(admission -> EpochSeconds.isKnown(admission.getAdmissionEpoch()))
+                .sorted(BY_START)
+                .toArray(Admission[]::new);
+
+        Admission[] merged = new Admission[admissions.length + added.length];
+        int size = 0;
+        int next = 0;
+        for (Admission admission : admissions) {
+            if (removed.contains(admission)) {
+                continue;
+            }
+            while (next < added.length && added[next].getAdmissionEpoch() < admission.getAdmissionEpoch()) {
+                merged[size++] = added[next++];
+            }
+            merged[size++] = admission;
+        }
+        while (next < added.length) {
+            merged[size++] = added[next++];
+        }
+        return index(Arrays.copyOf(merged, size));
+    }
+
+    private static AdmissionIntervals index(Admission[] admissions) {
+        int leaves = Integer.highestOneBit(Math.max(1, admissions.length - 1)) << 1;
+        long[] starts = new long[admissions.length];
+        long[] maxEnds = new long[2 * leaves];
+        Arrays.fill(maxEnds, Long.MIN_VALUE);
+        for (int i = 0; i < admissions.length; i++) {
+            starts[i] = admissions[i].getAdmissionEpoch();
+            long discharge = admissions[i].getDischargeEpoch();
+            // An unparseable discharge cannot overlap anything; it is still admitted-between
+            maxEnds[leaves + i] = discharge == EpochSeconds.INVALID ? Long.MIN_VALUE : discharge;
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            maxEnds[node] = Math.max(maxEnds[2 * node], maxEnds[2 * node + 1]);
+        }
+        return new AdmissionIntervals(admissions, starts, maxEnds, leaves);
+    }
+
+    int size() {
+        return admissions.length;
+    }
+
+    /**
+     * Admissions admitted in [from, to), by admission time
+     */
+    List<Admission> admittedBetween(long from, long to) {
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(
+                Arrays.asList(admissions).subList(firstStartAtLeast(from), firstStartAtLeast(to)));
+    }
+
+    /**
+     * Admissions whose stay overlaps [from, to): admitted before {@code to} and not yet
+     * discharged at {@code from}. Sorted by admission time.
+     */
+    List<Admission> overlapping(long from, long to) {
+        List<Admission> result = new ArrayList<>();
+        if (from < to) {
+            collect(1, 0, leaves, firstStartAtLeast(to), from, result);
+        }
+        return result;
+    }
+
+    // Visit the leaves below the limit in order, pruning subtrees that all end by the given time
+    private void collect(int node, int first, int width, int limit, long endsAfter, List<Admission> result) {
+        if (first >= limit || maxEnds[node] <= endsAfter) {
+            return;
+        }
+        if (width == 1) {
+            result.add(admissions[first]);
+            return;
+        }
+        int half = width >>> 1;
+        collect(2 * node, first, half, limit, endsAfter, result);
+        collect(2 * node + 1, first + half, half, limit, endsAfter, result);
+    }
+
+    private int firstStartAtLeast(long time) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
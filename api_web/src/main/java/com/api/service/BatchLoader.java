@@ -0,0 +1,116 @@
+package com.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects the keys requested within a short window and resolves them with one call
+ * to a batch function, then hands each caller its own result. Concurrent requests for
+ * the same key within a window share one result. The batch function reports an outcome
+ * per key, so a key that failed on its own fails only the callers waiting on that key.
+ */
+public final class BatchLoader<V> {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchLoader.class);
+
+    private final String name;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Function<Set<Integer>, Mono<Map<Integer, Outcome<V>>>> batchFunction;
+
+    private final Object lock = new Object();
+    private Map<Integer, CompletableFuture<V>> pending;
+
+    /**
+     * @param name          used in log messages
+     * @param window        how long to collect keys after the first one arrives
+     * @param maxBatchSize  a batch reaching this size is dispatched without waiting for the window
+     * @param batchFunction resolves a batch of keys; keys missing from its result resolve empty,
+     *                      and if it fails as a whole every key of the batch fails
+     */
+    public BatchLoader(String name, Duration window, int maxBatchSize,
+                       Function<Set<Integer>, Mono<Map<Integer, Outcome<V>>>> batchFunction) {
+        this.name = name;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.batchFunction = batchFunction;
+    }
+
+    /**
+     * Value for the key, resolved together with the other keys requested in the same window
+     */
+    public Mono<V> load(Integer key) {
+        CompletableFuture<V> result;
+        Map<Integer, CompletableFuture<V>> full = null;
+        synchronized (lock) {
+            if (pending == null) {
+                pending = new HashMap<>();
+                Map<Integer, CompletableFuture<V>> batch = pending;
+                Schedulers.parallel().schedule(() -> dispatch(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            result = pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        // Waiters share the future, so one caller cancelling must not cancel it for the others
+        return Mono.fromFuture(result, true);
+    }
+
+    private void dispatch(Map<Integer, CompletableFuture<V>> batch) {
+        synchronized (lock) {
+            if (pending != batch) {
+                return; // Already dispatched because it filled up
+            }
+            pending = null;
+        }
+        log.debug("{}: resolving {} keys in one batch", name, batch.size());
+        Mono.defer(() -> batchFunction.apply(Collections.unmodifiableSet(batch.keySet())))
+                .defaultIfEmpty(Collections.emptyMap())
+                .subscribe(
+                        outcomes -> batch.forEach((key, future) -> {
+                            Outcome<V> outcome = outcomes.get(key);
+                            if (outcome != null && outcome.error != null) {
+                                future.completeExceptionally(outcome.error);
+                            } else {
+                                future.complete(outcome != null ? outcome.value : null);
+                            }
+                        }),
+                        error -> batch.values().forEach(future -> future.completeExceptionally(error)));
+    }
+
+    /**
+     * What the batch function found for one key: its value, possibly null, or the error resolving it failed with
+     */
+    public static final class Outcome<V> {
+        private final V value;
+        private final Throwable error;
+
+        private Outcome(V value, Throwable error) {
+            this.value = value;
+            this.error = error;
+        }
+
+        public static <V> Outcome<V> of(V value) {
+            return new Outcome<>(value, null);
+        }
+
+        public static <V> Outcome<V> failed(Throwable error) {
+            return new Outcome<>(null, error);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.api.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revalidates cached collections as their TTLs expire. The next tick is only scheduled
+ * once the previous refresh has finished, so scheduled refreshes never overlap and a
+ * slow upstream cannot make them pile up.
+ */
+@Component
+public class CacheRefreshScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheRefreshScheduler.class);
+
+    private final DataCacheService cacheService;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-refresh-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${cache.refresh.scheduler.enabled:true}")
+    private boolean enabled = true;
+
+    // Lower bound between two ticks, so collections due at nearly the same time share a refresh
+    @Value("${cache.refresh.scheduler.min-interval:1s}")
+    private Duration minInterval = Duration.ofSeconds(1);
+
+    @Autowired
+    public CacheRefreshScheduler(DataCacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            scheduleNext();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void scheduleNext() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        long delay = Math.max(minInterval.toMillis(), cacheService.millisUntilNextRefresh());
+        executor.schedule(this::tick, delay, TimeUnit.MILLISECONDS);
+    }
+
+    void tick() {
+        Set<DatasetCollection> due = cacheService.getStaleCollections();
+        if (due.isEmpty()) {
+            scheduleNext();
+            return;
+        }
+        log.debug("Revalidating {}", due);
+        cacheService.refreshAsync(due)
+                .doFinally(signal -> scheduleNext())
+                .subscribe(snapshot -> { }, e -> log.warn("Scheduled refresh of {} failed: {}", due, e.toString()));
+    }
+}
@@ -0,0 +1,149 @@
+package com.api.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates a cohort expression over patient bitmaps:
+ * <pre>
+ *     expression := term ( OR term )*
+ *     term       := factor ( AND factor )*
+ *     factor     := NOT factor | ( expression ) | cohort
+ * </pre>
+ * Operators are case-insensitive; a cohort is a name with an optional {@code :argument},
+ * such as {@code readmitted} or {@code admitted-in:2024-03}, resolved by the caller.
+ * Resolved bitmaps are never modified: each operator works on a copy when it needs one.
+ * Expressions come from requests, so their length and nesting are capped to keep the
+ * recursive descent off the end of the stack.
+ */
+final class CohortExpression {
+
+    static final int MAX_TOKENS = 1_000;
+    // Parentheses and NOTs nested inside one another
+    static final int MAX_DEPTH = 64;
+
+    private final List<String> tokens;
+    private final Function<String, BitSet> resolver;
+    private final int universe;
+    private int position;
+    private int depth;
+
+    private CohortExpression(List<String> tokens, Function<String, BitSet> resolver, int universe) {
+        this.tokens = tokens;
+        this.resolver = resolver;
+        this.universe = universe;
+    }
+
+    /**
+     * Patients matching the expression, as a bitmap over {@code universe} patient ordinals
+     */
+    static BitSet evaluate(String expression, Function<String, BitSet> resolver, int universe) {
+        CohortExpression parser = new CohortExpression(tokenize(expression), resolver, universe);
+        BitSet result = parser.expression();
+        if (parser.position < parser.tokens.size()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.tokens.get(parser.position) + "' in cohort expression");
+        }
+        return result;
+    }
+
+    private BitSet expression() {
+        BitSet result = term();
+        while (accept("OR")) {
+            result = copyOf(result);
+            result.or(term());
+        }
+        return result;
+    }
+
+    private BitSet term() {
+        BitSet result = factor();
+        while (accept("AND")) {
+            result = copyOf(result);
+            result.and(factor());
+        }
+        return result;
+    }
+
+    private BitSet factor() {
+        if (accept("NOT")) {
+            BitSet result = copyOf(nested(this::factor));
+            result.flip(0, universe);
+            return result;
+        }
+        if (accept("(")) {
+            BitSet result = nested(this::expression);
+            if (!accept(")")) {
+                throw new IllegalArgumentException("Missing ')' in cohort expression");
+            }
+            return result;
+        }
+        if (position == tokens.size()) {
+            throw new IllegalArgumentException("Cohort expression ends unexpectedly");
+        }
+        String cohort = tokens.get(position);
+        if (cohort.equals(")") || isOperator(cohort)) {
+            throw new IllegalArgumentException("Expected a cohort but found '" + cohort + "'");
+        }
+        position++;
+        return resolver.apply(cohort);
+    }
+
+    private BitSet nested(Supplier<BitSet> operand) {
+        if (++depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Cohort expression nests deeper than " + MAX_DEPTH + " levels");
+        }
+        BitSet result = operand.get();
+        depth--;
+        return result;
+    }
+
+    private boolean accept(String token) {
+        if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isOperator(String token) {
+        String upper = token.toUpperCase(Locale.ROOT);
+        return upper.equals("AND") || upper.equals("OR") || upper.equals("NOT");
+    }
+
+    // Copy before modifying, since the operands may be bitmaps kept with the snapshot
+    private static BitSet copyOf(BitSet bits) {
+        return (BitSet) bits.clone();
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                int start = i;
+                while (i < expression.length() && !Character.isWhitespace(expression.charAt(i))
+                        && expression.charAt(i) != '(' && expression.charAt(i) != ')') {
+                    i++;
+                }
+                tokens.add(expression.substring(start, i));
+            }
+            if (tokens.size() > MAX_TOKENS) {
+                throw new IllegalArgumentException("Cohort expression is longer than " + MAX_TOKENS + " tokens");
+            }
+        }
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Cohort expression is empty");
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,44 @@
+package com.api.service;
+
+import org.springframework.http.HttpHeaders;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Validators of one bulk fetch of a collection: its HTTP ETag and Last-Modified, plus a
+ * content hash as the fallback for upstreams that send neither
+ */
+final class CollectionValidators {
+
+    private final String etag;
+    private final long lastModified;
+    private final byte[] contentHash;
+
+    CollectionValidators(HttpHeaders headers, byte[] contentHash) {
+        this.etag = headers.getETag();
+        this.lastModified = headers.getLastModified();
+        this.contentHash = contentHash;
+    }
+
+    void applyTo(HttpHeaders headers) {
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+        if (lastModified >= 0) {
+            headers.setIfModifiedSince(lastModified);
+        }
+    }
+
+    boolean hasSameContent(CollectionValidators other) {
+        return MessageDigest.isEqual(contentHash, other.contentHash);
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.api.service;
+
+/**
+ * Members grouped by dense group ordinal in compressed sparse row form: the members of
+ * group g are {@code value(start(g))} up to {@code value(end(g) - 1)}, in input order.
+ * Built by a counting pass and a placement pass over primitive arrays.
+ */
+final class CsrIndex {
+
+    private final int[] offsets;
+    private final int[] values;
+
+    private CsrIndex(int[] offsets, int[] values) {
+        this.offsets = offsets;
+        this.values = values;
+    }
+
+    /**
+     * Group members 0..count-1 by {@code groupOf[member]}; members with a negative group are left out
+     */
+    static CsrIndex group(int[] groupOf, int count, int groups) {
+        int[] offsets = new int[groups + 1];
+        for (int member = 0; member < count; member++) {
+            if (groupOf[member] >= 0) {
+                offsets[groupOf[member] + 1]++;
+            }
+        }
+        for (int group = 0; group < groups; group++) {
+            offsets[group + 1] += offsets[group];
+        }
+        int[] next = new int[groups];
+        System.arraycopy(offsets, 0, next, 0, groups);
+        int[] values = new int[offsets[groups]];
+        for (int member = 0; member < count; member++) {
+            if (groupOf[member] >= 0) {
+                values[next[groupOf[member]]++] = member;
+            }
+        }
+        return new CsrIndex(offsets, values);
+    }
+
+    int start(int group) {
+        return offsets[group];
+    }
+
+    int end(int group) {
+        return offsets[group + 1];
+    }
+
+    int value(int position) {
+        return values[position];
+    }
+}
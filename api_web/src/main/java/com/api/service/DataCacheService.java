@@ -5,103 +5,546 @@ import com.api.model.Allocation;
 import com.api.model.Employee;
 import com.api.model.Patient;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 public class DataCacheService {
 
+    private static final Logger log = LoggerFactory.getLogger(DataCacheService.class);
+
     private final MaternityApiService apiService;
-    
-    private final AtomicReference<List<Patient>> patientsCache = new AtomicReference<>();
-    private final AtomicReference<List<Admission>> admissionsCache = new AtomicReference<>();
-    private final AtomicReference<List<Employee>> employeesCache = new AtomicReference<>();
-    private final AtomicReference<List<Allocation>> allocationsCache = new AtomicReference<>();
+    private final SnapshotFileStore snapshotStore;
+
+    // Per-source budgets for a refresh; a source exceeding its budget keeps its cached data
+    @Value("${cache.refresh.timeout.patients:30s}")
+    private Duration patientsTimeout = Duration.ofSeconds(30);
+
+    @Value("${cache.refresh.timeout.admissions:60s}")
+    private Duration admissionsTimeout = Duration.ofSeconds(60);
+
+    @Value("${cache.refresh.timeout.employees:30s}")
+    private Duration employeesTimeout = Duration.ofSeconds(30);
+
+    @Value("${cache.refresh.timeout.allocations:60s}")
+    private Duration allocationsTimeout = Duration.ofSeconds(60);
+
+    // How long each collection may be served before it is revalidated in the background
+    @Value("${cache.ttl.patients:12h}")
+    private Duration patientsTtl = Duration.ofHours(12);
+
+    @Value("${cache.ttl.admissions:1h}")
+    private Duration admissionsTtl = Duration.ofHours(1);
+
+    @Value("${cache.ttl.employees:12h}")
+    private Duration employeesTtl = Duration.ofHours(12);
+
+    @Value("${cache.ttl.allocations:15m}")
+    private Duration allocationsTtl = Duration.ofMinutes(15);
+
+    // Random +/- fraction applied to each TTL so collections do not all expire together
+    @Value("${cache.ttl.jitter:0.1}")
+    private double ttlJitter = 0.1;
+
+    // Delay before retrying a collection whose refresh failed
+    @Value("${cache.refresh.retry-delay:1m}")
+    private Duration retryDelay = Duration.ofMinutes(1);
+
+    // Validation of refreshed data; a snapshot failing it is rejected and the last good one kept
+    @Value("${cache.validation.max-shrink:0.5}")
+    private double validationMaxShrink = 0.5;
+
+    @Value("${cache.validation.min-reference-ratio:0.9}")
+    private double validationMinReferenceRatio = 0.9;
+
+    @Value("${cache.validation.max-parse-error-ratio:0.05}")
+    private double validationMaxParseErrorRatio = 0.05;
+
+    // Delay before refetching rejected collections, doubled for each consecutive rejection up to the maximum
+    @Value("${cache.validation.retry-backoff:30s}")
+    private Duration rejectionBackoff = Duration.ofSeconds(30);
+
+    @Value("${cache.validation.max-retry-backoff:10m}")
+    private Duration maxRejectionBackoff = Duration.ofMinutes(10);
+
+    // How long a request waits for a missing collection to be loaded before giving up
+    @Value("${cache.load.wait-budget:10s}")
+    private Duration loadWaitBudget = Duration.ofSeconds(10);
+
+    // All four collections live in one immutable snapshot so readers never mix refreshes
+    private final AtomicReference<DatasetSnapshot> snapshot = new AtomicReference<>(DatasetSnapshot.empty());
+    private final Object publishLock = new Object();
+    private final List<Consumer<DatasetSnapshot>> snapshotListeners = new CopyOnWriteArrayList<>();
+
+    // At most one load per missing collection; concurrent cache misses share it
+    private final Map<DatasetCollection, CompletableFuture<DatasetSnapshot>> inFlightLoads = new ConcurrentHashMap<>();
+
+    // Epoch millis at which each collection is due for revalidation; absent means due now
+    private final Map<DatasetCollection, Long> nextRefreshAt = new ConcurrentHashMap<>();
+
+    // Consecutive rejected refreshes of each collection, for the retry backoff
+    private final Map<DatasetCollection, Integer> rejections = new ConcurrentHashMap<>();
+
+    // Refresh runs never overlap: requests arriving during a run are merged into one pending run
+    private final Object runLock = new Object();
+    private final EnumSet<DatasetCollection> runningCollections = EnumSet.noneOf(DatasetCollection.class);
+    private final EnumSet<DatasetCollection> pendingCollections = EnumSet.noneOf(DatasetCollection.class);
+    private CompletableFuture<DatasetSnapshot> pendingRun;
 
     @Autowired
-    public DataCacheService(MaternityApiService apiService) {
+    public DataCacheService(MaternityApiService apiService, SnapshotFileStore snapshotStore) {
         this.apiService = apiService;
+        this.snapshotStore = snapshotStore;
     }
 
+    /**
+     * Serve the persisted snapshot straight away when there is one and revalidate it in
+     * the background; only a node without a usable file waits for upstream at startup.
+     */
     @PostConstruct
     public void init() {
-        refreshAllCaches();
+        addSnapshotListener(snapshotStore::save);
+        Optional<DatasetSnapshot> persisted = snapshotStore.load();
+        if (persisted.isPresent()) {
+            snapshot.set(persisted.get());
+            refreshAllCachesAsync().subscribe(refreshed -> { },
+                    e -> log.warn("Revalidating the persisted snapshot failed: {}", e.toString()));
+        } else {
+            refreshAllCaches();
+        }
     }
 
-    // Refresh data cache every 12 hours
-    @Scheduled(fixedRate = 12 * 60 * 60 * 1000)
+    /**
+     * Refresh all collections and wait for the new snapshot to be published
+     */
     public void refreshAllCaches() {
-        refreshPatientsCache();
-        refreshAdmissionsCache();
-        refreshEmployeesCache();
-        refreshAllocationsCache();
+        refreshAllCachesAsync().block();
     }
-    
+
+    public Mono<DatasetSnapshot> refreshAllCachesAsync() {
+        return refreshAsync(EnumSet.allOf(DatasetCollection.class));
+    }
+
     public void refreshPatientsCache() {
-        List<Patient> patients = apiService.getAllPatients();
-        if (patients != null) {
-            patientsCache.set(patients);
-        }
+        refreshAsync(EnumSet.of(DatasetCollection.PATIENTS)).block();
     }
-    
+
     public void refreshAdmissionsCache() {
-        List<Admission> admissions = apiService.getAllAdmissions();
-        if (admissions != null) {
-            admissionsCache.set(admissions);
-        }
+        refreshAsync(EnumSet.of(DatasetCollection.ADMISSIONS)).block();
     }
-    
+
     public void refreshEmployeesCache() {
-        List<Employee> employees = apiService.getAllEmployees();
-        if (employees != null) {
-            employeesCache.set(employees);
-        }
+        refreshAsync(EnumSet.of(DatasetCollection.EMPLOYEES)).block();
     }
-    
+
     public void refreshAllocationsCache() {
-        List<Allocation> allocations = apiService.getAllAllocations();
-        if (allocations != null) {
-            allocationsCache.set(allocations);
+        refreshAsync(EnumSet.of(DatasetCollection.ALLOCATIONS)).block();
+    }
+
+    /**
+     * Refresh the given collections. If a refresh run is in progress the request is merged
+     * into the next run, which starts as soon as the current one finishes.
+     */
+    public Mono<DatasetSnapshot> refreshAsync(Set<DatasetCollection> collections) {
+        return Mono.fromFuture(() -> requestRefresh(collections));
+    }
+
+    private CompletableFuture<DatasetSnapshot> requestRefresh(Set<DatasetCollection> collections) {
+        synchronized (runLock) {
+            pendingCollections.addAll(collections);
+            if (pendingRun == null) {
+                pendingRun = new CompletableFuture<>();
+            }
+            CompletableFuture<DatasetSnapshot> result = pendingRun;
+            if (runningCollections.isEmpty()) {
+                startPendingRun();
+            }
+            return result;
         }
     }
-    
-    public List<Patient> getAllPatients() {
-        List<Patient> patients = patientsCache.get();
-        if (patients == null) {
-            refreshPatientsCache();
-            patients = patientsCache.get();
+
+    // Caller holds runLock
+    private void startPendingRun() {
+        EnumSet<DatasetCollection> collections = EnumSet.copyOf(pendingCollections);
+        CompletableFuture<DatasetSnapshot> completion = pendingRun;
+        pendingCollections.clear();
+        pendingRun = null;
+        runningCollections.addAll(collections);
+        runRefresh(collections)
+                .doFinally(signal -> finishRun())
+                .subscribe(completion::complete, completion::completeExceptionally,
+                        () -> completion.complete(snapshot.get()));
+    }
+
+    private void finishRun() {
+        synchronized (runLock) {
+            runningCollections.clear();
+            if (!pendingCollections.isEmpty()) {
+                startPendingRun();
+            }
         }
-        return patients;
     }
-    
-    public List<Admission> getAllAdmissions() {
-        List<Admission> admissions = admissionsCache.get();
-        if (admissions == null) {
-            refreshAdmissionsCache();
-            admissions = admissionsCache.get();
+
+    /**
+     * Fetch the given collections concurrently and publish them as a single snapshot
+     * once every source has completed. Collections already cached are fetched
+     * conditionally; when none of them changed no new snapshot is built. A source that
+     * fails or exceeds its timeout keeps its data from the current snapshot.
+     */
+    private Mono<DatasetSnapshot> runRefresh(Set<DatasetCollection> collections) {
+        return Mono.defer(() -> {
+            DatasetSnapshot current = snapshot.get();
+            return Mono.zip(
+                            fetch(DatasetCollection.PATIENTS, collections, current, patientsTimeout,
+                                    apiService::fetchPatientsIfChanged, apiService::fetchAllPatients),
+                            fetch(DatasetCollection.ADMISSIONS, collections, current, admissionsTimeout,
+                                    apiService::fetchAdmissionsIfChanged, apiService::fetchAllAdmissions),
+                            fetch(DatasetCollection.EMPLOYEES, collections, current, employeesTimeout,
+                                    apiService::fetchEmployeesIfChanged, apiService::fetchAllEmployees),
+                            fetch(DatasetCollection.ALLOCATIONS, collections, current, allocationsTimeout,
+                                    apiService::fetchAllocationsIfChanged, apiService::fetchAllAllocations))
+                    // Build the indices on a worker thread rather than the HTTP client's event loop
+                    .publishOn(Schedulers.boundedElastic())
+                    .map(sources -> {
+                        // Validators are saved only for records that are live, or identical to live ones
+                        Runnable saveValidators = () -> {
+                            apiService.saveValidators(DatasetCollection.PATIENTS, sources.getT1());
+                            apiService.saveValidators(DatasetCollection.ADMISSIONS, sources.getT2());
+                            apiService.saveValidators(DatasetCollection.EMPLOYEES, sources.getT3());
+                            apiService.saveValidators(DatasetCollection.ALLOCATIONS, sources.getT4());
+                        };
+                        if (!sources.getT1().isModified() && !sources.getT2().isModified()
+                                && !sources.getT3().isModified() && !sources.getT4().isModified()) {
+                            // Nothing changed upstream: keep the current snapshot and its indices
+                            saveValidators.run();
+                            return snapshot.get();
+                        }
+                        return publish(base -> {
+                            DatasetSnapshot.Builder builder = base.toBuilder();
+                            boolean changed = false;
+                            if (sources.getT1().isModified()) {
+                                changed |= apply(base, DatasetCollection.PATIENTS, base.getPatients(),
+                                        base::getPatient, Patient::getId, sources.getT1().getRecords(),
+                                        builder::patients, builder::patients);
+                            }
+                            if (sources.getT2().isModified()) {
+                                changed |= apply(base, DatasetCollection.ADMISSIONS, base.getAdmissions(),
+                                        base::getAdmission, Admission::getId, sources.getT2().getRecords(),
+                                        builder::admissions, builder::admissions);
+                            }
+                            if (sources.getT3().isModified()) {
+                                changed |= apply(base, DatasetCollection.EMPLOYEES, base.getEmployees(),
+                                        base::getEmployee, Employee::getId, sources.getT3().getRecords(),
+                                        builder::employees, builder::employees);
+                            }
+                            if (sources.getT4().isModified()) {
+                                changed |= apply(base, DatasetCollection.ALLOCATIONS, base.getAllocations(),
+                                        base::getAllocation, Allocation::getId, sources.getT4().getRecords(),
+                                        builder::allocations, builder::allocations);
+                            }
+                            return changed ? builder : null;
+                        }, saveValidators);
+                    });
+        });
+    }
+
+    /**
+     * Hand a fetched collection to the builder: in full when it was not loaded before,
+     * otherwise as its delta against the base snapshot so only the affected index
+     * entries are rebuilt. Returns false when the records are identical to the cached ones.
+     */
+    private static <T> boolean apply(DatasetSnapshot base, DatasetCollection collection,
+                                     List<T> current, Function<Integer, T> lookup, Function<T, Integer> idOf,
+                                     List<T> incoming, Consumer<List<T>> replace,
+                                     BiConsumer<List<T>, RecordDelta<T>> patch) {
+        if (!base.isLoaded(collection)) {
+            replace.accept(incoming);
+            return true;
+        }
+        RecordDelta<T> delta = RecordDelta.diff(current, lookup, incoming, idOf);
+        if (delta.isEmpty()) {
+            return false;
         }
-        return admissions;
+        log.debug("Applying {} to {}", delta, collection);
+        patch.accept(incoming, delta);
+        return true;
     }
-    
-    public List<Employee> getAllEmployees() {
-        List<Employee> employees = employeesCache.get();
-        if (employees == null) {
-            refreshEmployeesCache();
-            employees = employeesCache.get();
+
+    /**
+     * Fetch one source; not modified when the cached data should be kept (not requested,
+     * not modified, failed or timed out)
+     */
+    private <T> Mono<FetchResult<T>> fetch(DatasetCollection collection, Set<DatasetCollection> requested,
+                                           DatasetSnapshot current, Duration timeout,
+                                           Supplier<Mono<FetchResult<T>>> ifChanged,
+                                           Supplier<Mono<List<T>>> full) {
+        if (!requested.contains(collection)) {
+            return Mono.just(FetchResult.notModified());
         }
-        return employees;
+        Mono<FetchResult<T>> source = current.isLoaded(collection)
+                ? ifChanged.get()
+                : full.get().map(FetchResult::modified);
+        return source
+                .timeout(timeout)
+                .doOnSuccess(result -> scheduleNextRefresh(collection, ttlOf(collection), ttlJitter))
+                .defaultIfEmpty(FetchResult.notModified())
+                .onErrorResume(e -> {
+                    log.warn("Refreshing {} failed, keeping cached data: {}", collection, e.toString());
+                    scheduleNextRefresh(collection, retryDelay, 0);
+                    return Mono.just(FetchResult.notModified());
+                });
     }
-    
-    public List<Allocation> getAllAllocations() {
-        List<Allocation> allocations = allocationsCache.get();
-        if (allocations == null) {
-            refreshAllocationsCache();
-            allocations = allocationsCache.get();
+
+    private void scheduleNextRefresh(DatasetCollection collection, Duration delay, double jitter) {
+        double factor = 1 + (jitter > 0 ? ThreadLocalRandom.current().nextDouble(-jitter, jitter) : 0);
+        nextRefreshAt.put(collection, System.currentTimeMillis() + (long) (delay.toMillis() * factor));
+    }
+
+    /**
+     * Keep the last good snapshot and refetch the rejected collections in full after a
+     * short backoff, rather than waiting for their TTL
+     */
+    private void reject(Set<DatasetCollection> collections, List<String> problems) {
+        log.warn("Rejected refreshed {}, keeping the last good snapshot: {}", collections, problems);
+        for (DatasetCollection collection : collections) {
+            int attempt = rejections.merge(collection, 1, Integer::sum);
+            long delay = rejectionBackoff.toMillis() << Math.min(attempt - 1, 20);
+            scheduleNextRefresh(collection, Duration.ofMillis(Math.min(delay, maxRejectionBackoff.toMillis())), 0);
+            // Without this a 304 would confirm the rejected content
+            apiService.resetValidators(collection);
         }
-        return allocations;
     }
-} 
\ No newline at end of file
+
+    private Duration ttlOf(DatasetCollection collection) {
+        switch (collection) {
+            case PATIENTS:
+                return patientsTtl;
+            case ADMISSIONS:
+                return admissionsTtl;
+            case EMPLOYEES:
+                return employeesTtl;
+            case ALLOCATIONS:
+                return allocationsTtl;
+            default:
+                throw new IllegalArgumentException("Unknown collection: " + collection);
+        }
+    }
+
+    /**
+     * Collections whose TTL has expired
+     */
+    public Set<DatasetCollection> getStaleCollections() {
+        long now = System.currentTimeMillis();
+        EnumSet<DatasetCollection> stale = EnumSet.noneOf(DatasetCollection.class);
+        for (DatasetCollection collection : DatasetCollection.values()) {
+            if (nextRefreshAt.getOrDefault(collection, 0L) <= now) {
+                stale.add(collection);
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * Milliseconds until the next collection is due for revalidation, zero if one is already due
+     */
+    public long millisUntilNextRefresh() {
+        long now = System.currentTimeMillis();
+        long next = Long.MAX_VALUE;
+        for (DatasetCollection collection : DatasetCollection.values()) {
+            next = Math.min(next, nextRefreshAt.getOrDefault(collection, 0L));
+        }
+        return Math.max(0, next - now);
+    }
+
+    /**
+     * Stale-while-revalidate: start a background refresh of expired collections that are
+     * not already being refreshed, while the caller carries on with the stale data
+     */
+    private void revalidateIfStale(DatasetSnapshot current) {
+        Set<DatasetCollection> stale = getStaleCollections();
+        // Collections that were never loaded are fetched on demand instead
+        stale.removeIf(collection -> !current.isLoaded(collection));
+        if (stale.isEmpty()) {
+            return;
+        }
+        synchronized (runLock) {
+            stale.removeAll(runningCollections);
+            stale.removeAll(pendingCollections);
+        }
+        if (!stale.isEmpty()) {
+            requestRefresh(stale);
+        }
+    }
+
+    /**
+     * Register a stage to run on the refreshing thread after each new snapshot is published
+     */
+    public void addSnapshotListener(Consumer<DatasetSnapshot> listener) {
+        snapshotListeners.add(listener);
+    }
+
+    /**
+     * Derive the next snapshot version from the current one and publish it.
+     * Publishing is serialized so concurrent single-collection refreshes cannot
+     * overwrite each other. A null builder means nothing changed and the current
+     * snapshot is kept, as does a snapshot that fails validation. {@code accepted} runs
+     * once the changes are live, or found identical to the live data; it does not run
+     * when the build fails or validation rejects it. Listeners run after the swap; one
+     * that throws is logged and skipped.
+     */
+    private DatasetSnapshot publish(Function<DatasetSnapshot, DatasetSnapshot.Builder> changes, Runnable accepted) {
+        DatasetSnapshot next;
+        synchronized (publishLock) {
+            DatasetSnapshot current = snapshot.get();
+            DatasetSnapshot.Builder builder = changes.apply(current);
+            if (builder == null) {
+                accepted.run();
+                return current;
+            }
+            next = builder.build();
+            Set<DatasetCollection> changed = SnapshotValidator.changedCollections(current, next);
+            List<String> problems = new SnapshotValidator(validationMaxShrink, validationMinReferenceRatio,
+                    validationMaxParseErrorRatio).validate(current, next);
+            if (!problems.isEmpty()) {
+                reject(changed, problems);
+                return current;
+            }
+            changed.forEach(rejections::remove);
+            snapshot.set(next);
+            accepted.run();
+        }
+        // The snapshot is already live, so a failing stage must not hold up the others or fail the refresh
+        for (Consumer<DatasetSnapshot> listener : snapshotListeners) {
+            try {
+                listener.accept(next);
+            } catch (RuntimeException e) {
+                log.warn("Snapshot listener failed for version {}: {}", next.getVersion(), e.toString());
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Load the missing collections. Each missing collection has at most one load in
+     * flight; collections nobody is loading yet are claimed by this caller and fetched
+     * together in one refresh. Completes once all of them have been loaded.
+     */
+    private CompletableFuture<Void> load(Collection<DatasetCollection> missing) {
+        List<CompletableFuture<DatasetSnapshot>> loads = new ArrayList<>();
+        Map<DatasetCollection, CompletableFuture<DatasetSnapshot>> claimed = new EnumMap<>(DatasetCollection.class);
+        for (DatasetCollection collection : missing) {
+            CompletableFuture<DatasetSnapshot> created = new CompletableFuture<>();
+            CompletableFuture<DatasetSnapshot> existing = inFlightLoads.putIfAbsent(collection, created);
+            if (existing != null) {
+                loads.add(existing);
+            } else {
+                created.whenComplete((result, error) -> inFlightLoads.remove(collection, created));
+                claimed.put(collection, created);
+                loads.add(created);
+            }
+        }
+        // Skip collections loaded by another caller between the miss and claiming the load
+        claimed.entrySet().removeIf(entry -> snapshot.get().isLoaded(entry.getKey())
+                && entry.getValue().complete(snapshot.get()));
+        if (!claimed.isEmpty()) {
+            requestRefresh(claimed.keySet()).whenComplete((result, error) -> claimed.values().forEach(load -> {
+                if (error != null) {
+                    load.completeExceptionally(error);
+                } else {
+                    load.complete(result);
+                }
+            }));
+        }
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Non-blocking variant of a cache miss: the snapshot once the collection has been
+     * loaded, or straight away if it already is
+     */
+    public Mono<DatasetSnapshot> loadAsync(DatasetCollection collection) {
+        return Mono.defer(() -> snapshot.get().isLoaded(collection)
+                ? Mono.just(snapshot.get())
+                : Mono.fromFuture(load(EnumSet.of(collection)), true).then(Mono.fromSupplier(snapshot::get)));
+    }
+
+    /**
+     * Wait, within the load budget, until the missing collections have been loaded
+     */
+    private DatasetSnapshot awaitLoaded(Collection<DatasetCollection> missing) {
+        try {
+            load(missing).get(loadWaitBudget.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Loading {} did not finish within {}", missing, loadWaitBudget);
+        } catch (ExecutionException e) {
+            log.warn("Loading {} failed: {}", missing, e.getCause().toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return snapshot.get();
+    }
+
+    private DatasetSnapshot getLoaded(DatasetCollection collection) {
+        DatasetSnapshot current = snapshot.get();
+        if (current.isLoaded(collection)) {
+            revalidateIfStale(current);
+            return current;
+        }
+        return awaitLoaded(EnumSet.of(collection));
+    }
+
+    /**
+     * The snapshot currently published, without loading missing collections
+     */
+    public DatasetSnapshot getCurrentSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Get a consistent snapshot of all four collections, loading any that are missing
+     */
+    public DatasetSnapshot getSnapshot() {
+        DatasetSnapshot current = snapshot.get();
+        if (current.isFullyLoaded()) {
+            revalidateIfStale(current);
+            return current;
+        }
+        EnumSet<DatasetCollection> missing = EnumSet.noneOf(DatasetCollection.class);
+        for (DatasetCollection collection : DatasetCollection.values()) {
+            if (!current.isLoaded(collection)) {
+                missing.add(collection);
+            }
+        }
+        return awaitLoaded(missing);
+    }
+
+    public List<Patient> getAllPatients() {
+        return getLoaded(DatasetCollection.PATIENTS).getPatients();
+    }
+
+    public List<Admission> getAllAdmissions() {
+        return getLoaded(DatasetCollection.ADMISSIONS).getAdmissions();
+    }
+
+    public List<Employee> getAllEmployees() {
+        return getLoaded(DatasetCollection.EMPLOYEES).getEmployees();
+    }
+
+    public List<Allocation> getAllAllocations() {
+        return getLoaded(DatasetCollection.ALLOCATIONS).getAllocations();
+    }
+}
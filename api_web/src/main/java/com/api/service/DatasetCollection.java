@@ -0,0 +1,24 @@
+package com.api.service;
+
+/**
+ * The four upstream collections mirrored by the data cache.
+ */
+public enum DatasetCollection {
+    PATIENTS("/Patients"),
+    ADMISSIONS("/Admissions"),
+    EMPLOYEES("/Employees"),
+    ALLOCATIONS("/Allocations");
+
+    private final String path;
+
+    DatasetCollection(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Upstream path of the bulk endpoint for this collection
+     */
+    public String getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,613 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.Allocation;
+import com.api.model.Employee;
+import com.api.model.EpochSeconds;
+import com.api.model.Patient;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Immutable, versioned view of the four upstream collections together with the
+ * indices the analytics read. A snapshot is built once per refresh and published
+ * with a single reference swap, so every reader sees one consistent dataset.
+ * <p>
+ * A refresh that only changed a few records derives the next snapshot from the
+ * previous one by applying a {@link RecordDelta}: only the index entries and
+ * derived facts of the affected records are rebuilt, and the sorted indices and
+ * curves are patched by merging the changes in rather than re-sorting. The by-ID maps
+ * and cohort bitmaps are still copied, a flat pass over the collection.
+ */
+public final class DatasetSnapshot {
+
+    // Admissions without a usable admission date sort last
+    static final Comparator<Admission> BY_ADMISSION_DATE = Comparator.comparingLong(
+            admission -> EpochSeconds.isKnown(admission.getAdmissionEpoch())
+                    ? admission.getAdmissionEpoch() : Long.MAX_VALUE);
+
+    private static final DatasetSnapshot EMPTY = new Builder(0).build();
+
+    private final long version;
+    private final Instant createdAt;
+
+    // A null list means the collection has not been loaded yet
+    private final List<Patient> patients;
+    private final List<Admission> admissions;
+    private final List<Employee> employees;
+    private final List<Allocation> allocations;
+
+    private final Map<Integer, Patient> patientsById;
+    private final Map<Integer, Admission> admissionsById;
+    private final Map<Integer, List<Admission>> admissionsByPatient;
+    private final Map<Integer, Employee> employeesById;
+    private final Map<Integer, Allocation> allocationsById;
+    private final Map<Integer, List<Allocation>> allocationsByAdmission;
+    private final AdmissionIntervals admissionIntervals;
+    private final OccupancyCurve occupancy;
+    private final StaffWorkload staffWorkload;
+
+    private final DerivedIndex derived;
+    private final PatientCohorts cohorts;
+
+    private DatasetSnapshot(Builder builder) {
+        this.version = builder.version;
+        this.createdAt = Instant.now();
+        this.patients = builder.patients;
+        this.admissions = builder.admissions;
+        this.employees = builder.employees;
+        this.allocations = builder.allocations;
+        this.patientsById = builder.patientsById;
+        this.admissionsById = builder.admissionsById;
+        this.admissionsByPatient = builder.admissionsByPatient;
+        this.employeesById = builder.employeesById;
+        this.allocationsById = builder.allocationsById;
+        this.allocationsByAdmission = builder.allocationsByAdmission;
+        this.admissionIntervals = builder.admissionIntervals;
+        this.occupancy = builder.occupancy;
+        this.staffWorkload = builder.staffWorkload;
+        // Last, as deriving reads the indices above
+        this.derived = builder.derive(this);
+        this.cohorts = builder.cohorts(this);
+    }
+
+    /**
+     * Snapshot with nothing loaded, used before the first refresh
+     */
+    public static DatasetSnapshot empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder(long version) {
+        return new Builder(version);
+    }
+
+    /**
+     * Start a new version of this snapshot; collections that are not replaced keep
+     * their existing lists and indices.
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isLoaded(DatasetCollection collection) {
+        switch (collection) {
+            case PATIENTS:
+                return patients != null;
+            case ADMISSIONS:
+                return admissions != null;
+            case EMPLOYEES:
+                return employees != null;
+            case ALLOCATIONS:
+                return allocations != null;
+            default:
+                throw new IllegalArgumentException("Unknown collection: " + collection);
+        }
+    }
+
+    public boolean isFullyLoaded() {
+        return patients != null && admissions != null && employees != null && allocations != null;
+    }
+
+    // Collection getters return an empty list for a collection that is not loaded
+
+    public List<Patient> getPatients() {
+        return patients != null ? patients : Collections.emptyList();
+    }
+
+    public List<Admission> getAdmissions() {
+        return admissions != null ? admissions : Collections.emptyList();
+    }
+
+    public List<Employee> getEmployees() {
+        return employees != null ? employees : Collections.emptyList();
+    }
+
+    public List<Allocation> getAllocations() {
+        return allocations != null ? allocations : Collections.emptyList();
+    }
+
+    public Patient getPatient(Integer id) {
+        return patientsById.get(id);
+    }
+
+    public Admission getAdmission(Integer id) {
+        return admissionsById.get(id);
+    }
+
+    public Employee getEmployee(Integer id) {
+        return employeesById.get(id);
+    }
+
+    /**
+     * Admissions of a patient, sorted by admission date
+     */
+    public List<Admission> getAdmissionsForPatient(Integer patientId) {
+        return admissionsByPatient.getOrDefault(patientId, Collections.emptyList());
+    }
+
+    public boolean hasAdmissions(Integer patientId) {
+        return admissionsByPatient.containsKey(patientId);
+    }
+
+    /**
+     * Patient IDs that have at least one admission
+     */
+    public Set<Integer> getAdmittedPatientIds() {
+        return admissionsByPatient.keySet();
+    }
+
+    public Allocation getAllocation(Integer id) {
+        return allocationsById.get(id);
+    }
+
+    public List<Allocation> getAllocationsForAdmission(Integer admissionId) {
+        return allocationsByAdmission.getOrDefault(admissionId, Collections.emptyList());
+    }
+
+    /**
+     * Admissions admitted at or after {@code from} and before {@code to}, in epoch
+     * seconds, sorted by admission date
+     */
+    public List<Admission> getAdmissionsAdmittedBetween(long from, long to) {
+        return admissionIntervals.admittedBetween(from, to);
+    }
+
+    /**
+     * Admissions whose stay overlaps the period from {@code from} up to {@code to}, in
+     * epoch seconds, sorted by admission date; a stay without a discharge is still open
+     */
+    public List<Admission> getAdmissionsOverlapping(long from, long to) {
+        return admissionIntervals.overlapping(from, to);
+    }
+
+    /**
+     * Number of patients on the ward at the given epoch second
+     */
+    public int getCensusAt(long time) {
+        return occupancy.at(time);
+    }
+
+    /**
+     * Number of patients on the ward every {@code step} seconds from {@code from} up to,
+     * not including, {@code to}
+     */
+    public int[] getCensusSeries(long from, long to, long step) {
+        return occupancy.series(from, to, step);
+    }
+
+    /**
+     * Number of the employee's allocations in progress at the given epoch second
+     */
+    public int getCaseloadAt(int employeeId, long time) {
+        return staffWorkload.caseloadAt(employeeId, time);
+    }
+
+    /**
+     * Employees with allocations in progress at the given epoch second and how many,
+     * busiest first
+     */
+    public Map<Integer, Integer> getCaseloadsAt(long time) {
+        return staffWorkload.caseloadsAt(time);
+    }
+
+    /**
+     * Seconds the employee was allocated from {@code from} up to {@code to}, in epoch
+     * seconds, counting concurrent allocations separately
+     */
+    public long getAllocatedSeconds(int employeeId, long from, long to) {
+        return staffWorkload.allocatedSeconds(employeeId, from, to);
+    }
+
+    /**
+     * The k employees with the most allocated seconds from {@code from} up to {@code to},
+     * busiest first
+     */
+    public Map<Integer, Long> getBusiestEmployees(int k, long from, long to) {
+        return staffWorkload.busiest(k, from, to);
+    }
+
+    /**
+     * Patient IDs with a readmission within 7 days of a discharge (F2)
+     */
+    public Set<Integer> getReadmittedPatientIds() {
+        return derived.getReadmittedPatients();
+    }
+
+    /**
+     * Parse errors hit while evaluating readmissions, by patient ID
+     */
+    public Map<Integer, String> getReadmissionErrors() {
+        return derived.getReadmissionErrors();
+    }
+
+    /**
+     * IDs of patients whose smallest gap between a discharge and their next admission is
+     * between {@code minGapDays} and {@code maxGapDays} days inclusive, smallest gap first
+     */
+    public int[] getPatientsReadmittedWithin(int minGapDays, int maxGapDays) {
+        return derived.getReadmissionGaps().idsWithin(minGapDays, maxGapDays);
+    }
+
+    /**
+     * Patient IDs with an admission staffed by more than one employee (F4)
+     */
+    public Set<Integer> getMultiStaffPatientIds() {
+        return derived.getMultiStaffPatients();
+    }
+
+    /**
+     * IDs of patients with an admission staffed by at least {@code minStaff} distinct
+     * employees, fewest staff first
+     */
+    public int[] getPatientsWithMinStaff(int minStaff) {
+        return derived.getPatientsByStaff().idsWithin(minStaff, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Number of distinct employees allocated to the admission, 0 when none
+     */
+    public int getStaffCount(Integer admissionId) {
+        return derived.getStaffByAdmission().getOrDefault(admissionId, 0);
+    }
+
+    /**
+     * Patient cohorts as bitmaps, for set algebra across the analytics
+     */
+    PatientCohorts getCohorts() {
+        return cohorts;
+    }
+
+    /**
+     * Number of admissions per month of admission (F3)
+     */
+    public MonthHistogram getAdmissionsPerMonth() {
+        return derived.getAdmissionsPerMonth();
+    }
+
+    @Override
+    public String toString() {
+        return "DatasetSnapshot{" +
+                "version=" + version +
+                ", patients=" + size(patients) +
+                ", admissions=" + size(admissions) +
+                ", employees=" + size(employees) +
+                ", allocations=" + size(allocations) +
+                '}';
+    }
+
+    private static String size(List<?> list) {
+        return list == null ? "unloaded" : String.valueOf(list.size());
+    }
+
+    /**
+     * Replacing a collection takes ownership of the given list instead of copying it,
+     * so freshly ingested records are stored without a second copy. Callers must not
+     * modify a list after handing it to the builder.
+     * <p>
+     * A collection can be replaced in full, rebuilding its indices, or together with
+     * its delta against the base snapshot, patching only the affected index entries.
+     */
+    public static final class Builder {
+        // One parser per source field, each learning the format that field arrives in
+        private static final FastTimestampParser ADMISSION_DATES = new FastTimestampParser();
+        private static final FastTimestampParser DISCHARGE_DATES = new FastTimestampParser();
+        private static final FastTimestampParser START_TIMES = new FastTimestampParser();
+        private static final FastTimestampParser END_TIMES = new FastTimestampParser();
+
+        private final long version;
+        private List<Patient> patients;
+        private List<Admission> admissions;
+        private List<Employee> employees;
+        private List<Allocation> allocations;
+        private Map<Integer, Patient> patientsById = Collections.emptyMap();
+        private Map<Integer, Admission> admissionsById = Collections.emptyMap();
+        private Map<Integer, List<Admission>> admissionsByPatient = Collections.emptyMap();
+        private Map<Integer, Employee> employeesById = Collections.emptyMap();
+        private Map<Integer, Allocation> allocationsById = Collections.emptyMap();
+        private Map<Integer, List<Allocation>> allocationsByAdmission = Collections.emptyMap();
+        private AdmissionIntervals admissionIntervals = AdmissionIntervals.EMPTY;
+        private OccupancyCurve occupancy = OccupancyCurve.EMPTY;
+        private StaffWorkload staffWorkload = StaffWorkload.EMPTY;
+
+        // Derived facts and cohorts of the base snapshot, or null when they must be computed in full
+        private DerivedIndex baseDerived;
+        private PatientCohorts baseCohorts;
+        private final Set<Integer> affectedPatients = new HashSet<>();
+        private final Set<Integer> affectedAdmissions = new HashSet<>();
+        private final List<Admission> outgoingAdmissions = new ArrayList<>();
+        private final List<Admission> incomingAdmissions = new ArrayList<>();
+        // Patients whose derived facts were re-evaluated, set when deriving
+        private Set<Integer> derivedPatients = Collections.emptySet();
+
+        private Builder(long version) {
+            this.version = version;
+        }
+
+        private Builder(DatasetSnapshot base) {
+            this.version = base.version + 1;
+            this.patients = base.patients;
+            this.admissions = base.admissions;
+            this.employees = base.employees;
+            this.allocations = base.allocations;
+            this.patientsById = base.patientsById;
+            this.admissionsById = base.admissionsById;
+            this.admissionsByPatient = base.admissionsByPatient;
+            this.employeesById = base.employeesById;
+            this.allocationsById = base.allocationsById;
+            this.allocationsByAdmission = base.allocationsByAdmission;
+            this.admissionIntervals = base.admissionIntervals;
+            this.occupancy = base.occupancy;
+            this.staffWorkload = base.staffWorkload;
+            this.baseDerived = base.derived;
+            this.baseCohorts = base.cohorts;
+        }
+
+        public Builder patients(List<Patient> patients) {
+            this.patients = Collections.unmodifiableList(patients);
+            this.patientsById = indexById(this.patients, Patient::getId);
+            this.baseCohorts = null;
+            return this;
+        }
+
+        public Builder patients(List<Patient> patients, RecordDelta<Patient> delta) {
+            this.patients = Collections.unmodifiableList(patients);
+            this.patientsById = patchById(this.patientsById, delta, Patient::getId);
+            // Cohort ordinals are positions in the patient list, so they are assigned afresh
+            this.baseCohorts = null;
+            return this;
+        }
+
+        public Builder admissions(List<Admission> admissions) {
+            normalizeAdmissions(admissions);
+            this.admissions = Collections.unmodifiableList(admissions);
+            this.admissionsById = indexById(this.admissions, Admission::getId);
+
+            Map<Integer, List<Admission>> byPatient = new HashMap<>();
+            for (Admission admission : this.admissions) {
+                byPatient.computeIfAbsent(admission.getPatientID(), k -> new ArrayList<>()).add(admission);
+            }
+            for (Map.Entry<Integer, List<Admission>> entry : byPatient.entrySet()) {
+                entry.getValue().sort(BY_ADMISSION_DATE);
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
+            }
+            this.admissionsByPatient = Collections.unmodifiableMap(byPatient);
+            this.admissionIntervals = AdmissionIntervals.of(this.admissions);
+            this.occupancy = OccupancyCurve.of(this.admissions);
+            this.baseDerived = null;
+            this.baseCohorts = null;
+            return this;
+        }
+
+        public Builder admissions(List<Admission> admissions, RecordDelta<Admission> delta) {
+            normalizeAdmissions(admissions);
+            Map<Integer, Admission> previousById = this.admissionsById;
+            this.admissions = Collections.unmodifiableList(admissions);
+            this.admissionsById = patchById(previousById, delta, Admission::getId);
+            this.admissionsByPatient = patchGroups(this.admissionsByPatient, previousById, delta,
+                    Admission::getId, Admission::getPatientID, BY_ADMISSION_DATE, affectedPatients);
+
+            List<Admission> outgoing = outgoing(delta, previousById, Admission::getId);
+            List<Admission> incoming = incoming(delta);
+            this.admissionIntervals = this.admissionIntervals.patch(outgoing, incoming);
+            this.occupancy = this.occupancy.patch(OccupancyCurve.stays(outgoing), OccupancyCurve.stays(incoming));
+            outgoingAdmissions.addAll(outgoing);
+            incomingAdmissions.addAll(incoming);
+            return this;
+        }
+
+        public Builder employees(List<Employee> employees) {
+            this.employees = Collections.unmodifiableList(employees);
+            this.employeesById = indexById(this.employees, Employee::getId);
+            return this;
+        }
+
+        public Builder employees(List<Employee> employees, RecordDelta<Employee> delta) {
+            this.employees = Collections.unmodifiableList(employees);
+            this.employeesById = patchById(this.employeesById, delta, Employee::getId);
+            return this;
+        }
+
+        public Builder allocations(List<Allocation> allocations) {
+            normalizeAllocations(allocations);
+            this.allocations = Collections.unmodifiableList(allocations);
+
+            Map<Integer, List<Allocation>> byAdmission = new HashMap<>();
+            for (Allocation allocation : this.allocations) {
+                byAdmission.computeIfAbsent(allocation.getAdmissionID(), k -> new ArrayList<>()).add(allocation);
+            }
+            byAdmission.replaceAll((id, list) -> Collections.unmodifiableList(list));
+            this.allocationsById = indexById(this.allocations, Allocation::getId);
+            this.allocationsByAdmission = Collections.unmodifiableMap(byAdmission);
+            this.staffWorkload = StaffWorkload.of(this.allocations);
+            this.baseDerived = null;
+            this.baseCohorts = null;
+            return this;
+        }
+
+        public Builder allocations(List<Allocation> allocations, RecordDelta<Allocation> delta) {
+            normalizeAllocations(allocations);
+            Map<Integer, Allocation> previousById = this.allocationsById;
+            this.allocations = Collections.unmodifiableList(allocations);
+            this.allocationsById = patchById(previousById, delta, Allocation::getId);
+            this.allocationsByAdmission = patchGroups(this.allocationsByAdmission, previousById, delta,
+                    Allocation::getId, Allocation::getAdmissionID, null, affectedAdmissions);
+            this.staffWorkload = this.staffWorkload.patch(outgoing(delta, previousById, Allocation::getId),
+                    incoming(delta));
+            return this;
+        }
+
+        public DatasetSnapshot build() {
+            return new DatasetSnapshot(this);
+        }
+
+        /**
+         * Parse the date strings once, on ingest, so the analytics compare plain longs
+         */
+        private static void normalizeAdmissions(List<Admission> admissions) {
+            for (Admission admission : admissions) {
+                admission.setAdmissionEpoch(ADMISSION_DATES.toEpochSecond(admission.getAdmissionDate(), EpochSeconds.UNKNOWN));
+                admission.setDischargeEpoch(DISCHARGE_DATES.toEpochSecond(admission.getDischargeDate(), EpochSeconds.OPEN));
+            }
+        }
+
+        private static void normalizeAllocations(List<Allocation> allocations) {
+            for (Allocation allocation : allocations) {
+                allocation.setStartEpoch(START_TIMES.toEpochSecond(allocation.getStartTime(), EpochSeconds.UNKNOWN));
+                allocation.setEndEpoch(END_TIMES.toEpochSecond(allocation.getEndTime(), EpochSeconds.OPEN));
+            }
+        }
+
+        private DerivedIndex derive(DatasetSnapshot snapshot) {
+            if (baseDerived == null) {
+                return DerivedIndex.compute(snapshot);
+            }
+            if (affectedPatients.isEmpty() && affectedAdmissions.isEmpty()) {
+                return baseDerived;
+            }
+            // Allocation changes affect the patient of the admission they belong to
+            Set<Integer> patients = new HashSet<>(affectedPatients);
+            for (Integer admissionId : affectedAdmissions) {
+                Admission admission = snapshot.getAdmission(admissionId);
+                if (admission != null) {
+                    patients.add(admission.getPatientID());
+                }
+            }
+            this.derivedPatients = patients;
+            return baseDerived.patch(snapshot, patients, outgoingAdmissions, incomingAdmissions);
+        }
+
+        private PatientCohorts cohorts(DatasetSnapshot snapshot) {
+            if (baseCohorts == null) {
+                return PatientCohorts.of(snapshot);
+            }
+            return derivedPatients.isEmpty() ? baseCohorts : baseCohorts.patch(snapshot, derivedPatients);
+        }
+
+        /**
+         * Base versions of the records the delta removes or changes
+         */
+        private static <T> List<T> outgoing(RecordDelta<T> delta, Map<Integer, T> baseById,
+                                            Function<T, Integer> idOf) {
+            List<T> outgoing = new ArrayList<>(delta.getRemoved());
+            for (T record : delta.getChanged()) {
+                outgoing.add(baseById.get(idOf.apply(record)));
+            }
+            return outgoing;
+        }
+
+        /**
+         * Records the delta adds, and the new versions of those it changes
+         */
+        private static <T> List<T> incoming(RecordDelta<T> delta) {
+            List<T> incoming = new ArrayList<>(delta.getAdded());
+            incoming.addAll(delta.getChanged());
+            return incoming;
+        }
+
+        private static <T> Map<Integer, T> patchById(Map<Integer, T> base, RecordDelta<T> delta,
+                                                     Function<T, Integer> idOf) {
+            Map<Integer, T> index = new HashMap<>(base);
+            for (T record : delta.getRemoved()) {
+                index.remove(idOf.apply(record));
+            }
+            for (T record : delta.getAdded()) {
+                index.put(idOf.apply(record), record);
+            }
+            for (T record : delta.getChanged()) {
+                index.put(idOf.apply(record), record);
+            }
+            return Collections.unmodifiableMap(index);
+        }
+
+        /**
+         * Rebuild only the groups that lost or gained records; every other group keeps
+         * its existing list. The keys of the rebuilt groups are added to {@code touched}.
+         */
+        private static <T> Map<Integer, List<T>> patchGroups(Map<Integer, List<T>> base,
+                                                             Map<Integer, T> baseById,
+                                                             RecordDelta<T> delta,
+                                                             Function<T, Integer> idOf,
+                                                             Function<T, Integer> groupOf,
+                                                             Comparator<T> order,
+                                                             Set<Integer> touched) {
+            Set<Integer> outgoingIds = new HashSet<>();
+            Set<Integer> groups = new HashSet<>();
+            for (T record : delta.getRemoved()) {
+                outgoingIds.add(idOf.apply(record));
+                groups.add(groupOf.apply(record));
+            }
+            for (T record : delta.getChanged()) {
+                Integer id = idOf.apply(record);
+                outgoingIds.add(id);
+                groups.add(groupOf.apply(baseById.get(id)));
+            }
+            Map<Integer, List<T>> incomingByGroup = new HashMap<>();
+            for (List<T> records : Arrays.asList(delta.getAdded(), delta.getChanged())) {
+                for (T record : records) {
+                    incomingByGroup.computeIfAbsent(groupOf.apply(record), k -> new ArrayList<>()).add(record);
+                }
+            }
+            groups.addAll(incomingByGroup.keySet());
+
+            Map<Integer, List<T>> patched = new HashMap<>(base);
+            for (Integer group : groups) {
+                List<T> records = new ArrayList<>();
+                for (T record : base.getOrDefault(group, Collections.emptyList())) {
+                    if (!outgoingIds.contains(idOf.apply(record))) {
+                        records.add(record);
+                    }
+                }
+                records.addAll(incomingByGroup.getOrDefault(group, Collections.emptyList()));
+                if (records.isEmpty()) {
+                    patched.remove(group);
+                } else {
+                    if (order != null) {
+                        records.sort(order);
+                    }
+                    patched.put(group, Collections.unmodifiableList(records));
+                }
+            }
+            touched.addAll(groups);
+            return Collections.unmodifiableMap(patched);
+        }
+
+        private static <T> Map<Integer, T> indexById(List<T> records, Function<T, Integer> idOf) {
+            Map<Integer, T> index = new HashMap<>(records.size() * 2);
+            for (T record : records) {
+                index.put(idOf.apply(record), record);
+            }
+            return Collections.unmodifiableMap(index);
+        }
+    }
+}
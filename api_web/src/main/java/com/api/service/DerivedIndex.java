@@ -0,0 +1,402 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.Allocation;
+import com.api.model.EpochSeconds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Per-patient and per-month facts behind F2–F4, kept with each snapshot. A refresh
+ * that only touches a few admissions or allocations re-evaluates just the affected
+ * patients, merges them into the sorted views and adjusts the month counts instead of
+ * recomputing everything. The per-patient maps are still copied, a flat pass with no
+ * sorting or re-evaluation of the unaffected patients.
+ */
+final class DerivedIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DerivedIndex.class);
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    // Admitted patients from which the per-patient pass of a full computation is split across a fork/join pool
+    static final int PARALLEL_THRESHOLD = 50_000;
+
+    private static final int NO_GAP = -1;
+
+    static final DerivedIndex EMPTY = new DerivedIndex(Collections.emptySet(), Collections.emptyMap(),
+            Collections.emptyMap(), Collections.emptySet(), Collections.emptyMap(), Collections.emptyMap(),
+            new MonthHistogram.Counter()).freeze();
+
+    // F2: patients readmitted within 7 days, and patients whose dates could not be parsed
+    private final Set<Integer> readmittedPatients;
+    private final Map<Integer, String> readmissionErrors;
+    // Smallest whole-day gap between a discharge and the next admission, by patient
+    private final Map<Integer, Integer> readmissionGaps;
+    // The same gaps sorted for window queries, built when the index is frozen
+    private IdsByValue sortedGaps;
+    // F4: patients with an admission that had more than one distinct staff member
+    private final Set<Integer> multiStaffPatients;
+    // Distinct staff per allocated admission, and the most on any one admission by patient
+    private final Map<Integer, Integer> staffByAdmission;
+    private final Map<Integer, Integer> maxStaffByPatient;
+    // Patients sorted by that maximum for threshold queries, built when the index is frozen
+    private IdsByValue patientsByStaff;
+    // F3: admissions per month of admission, counted while deriving and frozen into a histogram
+    private final MonthHistogram.Counter monthCounter;
+    private MonthHistogram admissionsPerMonth;
+
+    private DerivedIndex(Set<Integer> readmittedPatients, Map<Integer, String> readmissionErrors,
+                         Map<Integer, Integer> readmissionGaps,
+                         Set<Integer> multiStaffPatients, Map<Integer, Integer> staffByAdmission,
+                         Map<Integer, Integer> maxStaffByPatient, MonthHistogram.Counter monthCounter) {
+        this.readmittedPatients = readmittedPatients;
+        this.readmissionErrors = readmissionErrors;
+        this.readmissionGaps = readmissionGaps;
+        this.multiStaffPatients = multiStaffPatients;
+        this.staffByAdmission = staffByAdmission;
+        this.maxStaffByPatient = maxStaffByPatient;
+        this.monthCounter = monthCounter;
+    }
+
+    /**
+     * Evaluate every admitted patient and month of the snapshot. Rather than going through
+     * the snapshot's boxed indices patient by patient, patients, admission IDs and
+     * employees are mapped to dense ordinals and admissions-by-patient and
+     * staff-by-admission are grouped into primitive CSR arrays.
+     */
+    static DerivedIndex compute(DatasetSnapshot snapshot) {
+        return compute(snapshot, ForkJoinPool.commonPool(), PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * As {@link #compute(DatasetSnapshot)}; with at least {@code parallelThreshold} admitted
+     * patients, 0 meaning never, sorting and scanning each patient's admissions is
+     * partitioned across the pool by patient ordinal. Every patient's facts land in a slot
+     * of their own, merged into the maps in ordinal order afterwards, so the result is the
+     * same either way.
+     */
+    static DerivedIndex compute(DatasetSnapshot snapshot, ForkJoinPool pool, int parallelThreshold) {
+        DerivedIndex index = new DerivedIndex(new HashSet<>(), new HashMap<>(), new HashMap<>(),
+                new HashSet<>(), new HashMap<>(), new HashMap<>(), new MonthHistogram.Counter());
+
+        Admission[] admissions = snapshot.getAdmissions().toArray(new Admission[0]);
+        IdDictionary patients = new IdDictionary(snapshot.getAdmittedPatientIds().size());
+        IdDictionary admissionIds = new IdDictionary(admissions.length);
+        int[] patientOf = new int[admissions.length];
+        int[] admissionIdOf = new int[admissions.length];
+        for (int i = 0; i < admissions.length; i++) {
+            patientOf[i] = patients.add(admissions[i].getPatientID());
+            admissionIdOf[i] = admissionIds.add(admissions[i].getId());
+            index.countMonth(admissions[i], 1);
+        }
+        int[] distinctStaff = countDistinctStaff(snapshot.getAllocations(), admissionIds, snapshot.getEmployees().size());
+
+        // Each patient's admissions contiguous and sorted by admission date
+        CsrIndex byPatient = CsrIndex.group(patientOf, admissions.length, patients.size());
+        Admission[] grouped = new Admission[admissions.length];
+        for (int position = 0; position < grouped.length; position++) {
+            grouped[position] = admissions[byPatient.value(position)];
+        }
+        int[] gaps = new int[patients.size()];
+        String[] errors = new String[patients.size()];
+        PatientPass pass = new PatientPass(grouped, byPatient, gaps, errors, 0, patients.size(),
+                Math.max(PatientPass.MIN_PARTITION, patients.size() / (pool.getParallelism() * 4)));
+        if (parallelThreshold > 0 && patients.size() >= parallelThreshold && pool.getParallelism() > 1) {
+            pool.invoke(pass);
+        } else {
+            pass.compute();
+        }
+
+        for (int patient = 0; patient < patients.size(); patient++) {
+            Integer patientId = patients.idOf(patient);
+            if (patientId == null) {
+                continue; // Admissions without a patient belong to nobody's readmissions or staff counts
+            }
+            index.recordReadmissions(patientId, gaps[patient], errors[patient]);
+
+            int start = byPatient.start(patient);
+            int end = byPatient.end(patient);
+            int maxStaff = 0;
+            for (int position = start; position < end; position++) {
+                int staff = distinctStaff[admissionIdOf[byPatient.value(position)]];
+                if (staff > 0) {
+                    index.staffByAdmission.put(admissions[byPatient.value(position)].getId(), staff);
+                }
+                maxStaff = Math.max(maxStaff, staff);
+            }
+            index.recordStaff(patientId, maxStaff);
+        }
+        return index.freeze();
+    }
+
+    /**
+     * Sorts each patient's admissions by admission date and scans them for readmissions,
+     * for a range of patient ordinals. Ranges are disjoint in both the admissions and the
+     * result slots they touch, so they can run on any worker.
+     */
+    private static final class PatientPass extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Smallest range of patients worth handing to another worker
+        static final int MIN_PARTITION = 4_096;
+
+        private final Admission[] grouped;
+        private final CsrIndex byPatient;
+        private final int[] gaps;
+        private final String[] errors;
+        private final int from;
+        private final int to;
+        private final int partition;
+
+        PatientPass(Admission[] grouped, CsrIndex byPatient, int[] gaps, String[] errors,
+                    int from, int to, int partition) {
+            this.grouped = grouped;
+            this.byPatient = byPatient;
+            this.gaps = gaps;
+            this.errors = errors;
+            this.from = from;
+            this.to = to;
+            this.partition = partition;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= partition) {
+                for (int patient = from; patient < to; patient++) {
+                    int start = byPatient.start(patient);
+                    int end = byPatient.end(patient);
+                    Arrays.sort(grouped, start, end, DatasetSnapshot.BY_ADMISSION_DATE);
+                    gaps[patient] = scanReadmissions(grouped, start, end, errors, patient);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new PatientPass(grouped, byPatient, gaps, errors, from, middle, partition),
+                    new PatientPass(grouped, byPatient, gaps, errors, middle, to, partition));
+        }
+    }
+
+    /**
+     * Distinct employees allocated to each admission ID ordinal. Employees get dense
+     * ordinals too, so one stamp per employee replaces a set per admission.
+     */
+    private static int[] countDistinctStaff(List<Allocation> allocations, IdDictionary admissionIds,
+                                            int expectedEmployees) {
+        IdDictionary employees = new IdDictionary(expectedEmployees);
+        int[] admissionOf = new int[allocations.size()];
+        int[] employeeOf = new int[allocations.size()];
+        for (int i = 0; i < admissionOf.length; i++) {
+            Allocation allocation = allocations.get(i);
+            admissionOf[i] = admissionIds.ordinalOf(allocation.getAdmissionID());
+            employeeOf[i] = employees.add(allocation.getEmployeeID());
+        }
+
+        CsrIndex byAdmission = CsrIndex.group(admissionOf, admissionOf.length, admissionIds.size());
+        int[] distinctStaff = new int[admissionIds.size()];
+        int[] lastSeenIn = new int[employees.size()];
+        Arrays.fill(lastSeenIn, -1);
+        for (int admission = 0; admission < distinctStaff.length; admission++) {
+            for (int position = byAdmission.start(admission); position < byAdmission.end(admission); position++) {
+                int employee = employeeOf[byAdmission.value(position)];
+                if (lastSeenIn[employee] != admission) {
+                    lastSeenIn[employee] = admission;
+                    distinctStaff[admission]++;
+                }
+            }
+        }
+        return distinctStaff;
+    }
+
+    /**
+     * Copy of this index with the affected patients re-evaluated against the new snapshot
+     * and the month counts moved from the outgoing to the incoming admissions
+     */
+    DerivedIndex patch(DatasetSnapshot snapshot, Set<Integer> affectedPatients,
+                       Collection<Admission> outgoing, Collection<Admission> incoming) {
+        DerivedIndex index = new DerivedIndex(new HashSet<>(readmittedPatients), new HashMap<>(readmissionErrors),
+                new HashMap<>(readmissionGaps), new HashSet<>(multiStaffPatients), new HashMap<>(staffByAdmission),
+                new HashMap<>(maxStaffByPatient), admissionsPerMonth.toCounter());
+        for (Admission admission : outgoing) {
+            index.staffByAdmission.remove(admission.getId());
+        }
+        for (Integer patientId : affectedPatients) {
+            index.readmittedPatients.remove(patientId);
+            index.readmissionErrors.remove(patientId);
+            index.readmissionGaps.remove(patientId);
+            index.multiStaffPatients.remove(patientId);
+            index.maxStaffByPatient.remove(patientId);
+            if (patientId != null && snapshot.hasAdmissions(patientId)) {
+                index.evaluate(snapshot, patientId);
+            }
+        }
+        for (Admission admission : outgoing) {
+            index.countMonth(admission, -1);
+        }
+        for (Admission admission : incoming) {
+            index.countMonth(admission, 1);
+        }
+        DerivedIndex frozen = index.frozenMaps();
+        frozen.sortedGaps = sortedGaps.patch(index.readmissionGaps, affectedPatients);
+        frozen.patientsByStaff = patientsByStaff.patch(index.maxStaffByPatient, affectedPatients);
+        frozen.admissionsPerMonth = index.monthCounter.build();
+        return frozen;
+    }
+
+    Set<Integer> getReadmittedPatients() {
+        return readmittedPatients;
+    }
+
+    Map<Integer, String> getReadmissionErrors() {
+        return readmissionErrors;
+    }
+
+    IdsByValue getReadmissionGaps() {
+        return sortedGaps;
+    }
+
+    Set<Integer> getMultiStaffPatients() {
+        return multiStaffPatients;
+    }
+
+    Map<Integer, Integer> getStaffByAdmission() {
+        return staffByAdmission;
+    }
+
+    IdsByValue getPatientsByStaff() {
+        return patientsByStaff;
+    }
+
+    MonthHistogram getAdmissionsPerMonth() {
+        return admissionsPerMonth;
+    }
+
+    private void evaluate(DatasetSnapshot snapshot, Integer patientId) {
+        // Already sorted by admission date in the snapshot index
+        List<Admission> admissions = snapshot.getAdmissionsForPatient(patientId);
+        evaluateReadmissions(patientId, admissions.toArray(new Admission[0]), 0, admissions.size());
+        int maxStaff = 0;
+        for (Admission admission : admissions) {
+            int staff = distinctStaff(snapshot.getAllocationsForAdmission(admission.getId()));
+            if (staff > 0) {
+                staffByAdmission.put(admission.getId(), staff);
+            } else {
+                staffByAdmission.remove(admission.getId());
+            }
+            maxStaff = Math.max(maxStaff, staff);
+        }
+        recordStaff(patientId, maxStaff);
+    }
+
+    private void recordStaff(Integer patientId, int maxStaff) {
+        if (maxStaff > 0) {
+            maxStaffByPatient.put(patientId, maxStaff);
+        }
+        if (maxStaff > 1) {
+            multiStaffPatients.add(patientId);
+        }
+    }
+
+    private void evaluateReadmissions(Integer patientId, Admission[] sorted, int start, int end) {
+        String[] error = new String[1];
+        int gap = scanReadmissions(sorted, start, end, error, 0);
+        recordReadmissions(patientId, gap, error[0]);
+    }
+
+    private void recordReadmissions(Integer patientId, int gap, String error) {
+        if (error != null) {
+            readmissionErrors.put(patientId, error);
+        }
+        if (gap != NO_GAP) {
+            readmissionGaps.put(patientId, gap);
+            if (gap <= 7) {
+                readmittedPatients.add(patientId);
+            }
+        }
+    }
+
+    /**
+     * The patient's smallest non-negative gap, in whole days truncated like
+     * ChronoUnit.DAYS.between, between a discharge and the next admission, given the
+     * patient's admissions from start to end sorted by admission date; NO_GAP if there is
+     * none. An unparseable date ends the scan; it is an error for F2, stored at
+     * {@code errors[slot]}, unless a readmission within 7 days came before it, which
+     * keeps the answer of scanning pairs until the first match.
+     */
+    private static int scanReadmissions(Admission[] sorted, int start, int end, String[] errors, int slot) {
+        long minGap = Long.MAX_VALUE;
+        for (int i = start; i < end - 1; i++) {
+            Admission current = sorted[i];
+            Admission next = sorted[i + 1];
+
+            // Skip if current record has no discharge date
+            long discharge = current.getDischargeEpoch();
+            if (discharge == EpochSeconds.OPEN) {
+                continue;
+            }
+            String unparseable = discharge == EpochSeconds.INVALID ? current.getDischargeDate()
+                    : next.getAdmissionEpoch() == EpochSeconds.INVALID ? next.getAdmissionDate() : null;
+            if (unparseable != null) {
+                if (minGap > 7) {
+                    errors[slot] = "Unable to parse date: " + unparseable;
+                }
+                break;
+            }
+            long nextAdmission = next.getAdmissionEpoch();
+            if (nextAdmission == EpochSeconds.UNKNOWN) {
+                continue; // Skip records without an admission date
+            }
+
+            long daysBetween = (nextAdmission - discharge) / SECONDS_PER_DAY;
+            if (daysBetween >= 0) {
+                minGap = Math.min(minGap, daysBetween);
+            }
+        }
+        return minGap == Long.MAX_VALUE ? NO_GAP : (int) Math.min(minGap, Integer.MAX_VALUE);
+    }
+
+    private static int distinctStaff(List<Allocation> allocations) {
+        if (allocations.size() < 2) {
+            return allocations.size();
+        }
+        return (int) allocations.stream()
+                .map(Allocation::getEmployeeID)
+                .distinct()
+                .count();
+    }
+
+    private void countMonth(Admission admission, int change) {
+        long admissionEpoch = admission.getAdmissionEpoch();
+        if (admissionEpoch == EpochSeconds.UNKNOWN) {
+            return;
+        }
+        if (admissionEpoch == EpochSeconds.INVALID) {
+            // Skip this record but keep counting the others
+            log.warn("Error parsing date: {}", admission.getAdmissionDate());
+            return;
+        }
+        monthCounter.add(MonthHistogram.monthOrdinal(admissionEpoch), change);
+    }
+
+    private DerivedIndex freeze() {
+        DerivedIndex frozen = frozenMaps();
+        frozen.sortedGaps = IdsByValue.of(readmissionGaps);
+        frozen.patientsByStaff = IdsByValue.of(maxStaffByPatient);
+        frozen.admissionsPerMonth = monthCounter.build();
+        return frozen;
+    }
+
+    private DerivedIndex frozenMaps() {
+        return new DerivedIndex(Collections.unmodifiableSet(readmittedPatients),
+                Collections.unmodifiableMap(readmissionErrors),
+                Collections.unmodifiableMap(readmissionGaps),
+                Collections.unmodifiableSet(multiStaffPatients),
+                Collections.unmodifiableMap(staffByAdmission),
+                Collections.unmodifiableMap(maxStaffByPatient),
+                null);
+    }
+}
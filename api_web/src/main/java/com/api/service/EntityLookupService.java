@@ -0,0 +1,195 @@
+package com.api.service;
+
+import com.api.exception.UpstreamUnavailableException;
+import com.api.model.Admission;
+import com.api.model.Allocation;
+import com.api.model.Employee;
+import com.api.model.Patient;
+import com.api.service.BatchLoader.Outcome;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Single-record lookups answered from the cached snapshot.
+ * <p>
+ * Once a collection is loaded its ID index holds every record upstream had at the
+ * last refresh, so it answers both hits and misses exactly and an unknown ID never
+ * reaches the network; records added upstream since then appear with the next
+ * revalidation. Only while a collection is not loaded yet are lookups read through
+ * to upstream, with IDs upstream reported as missing kept in a bounded negative cache.
+ * <p>
+ * Read-through lookups are batched: IDs requested within a short window are resolved
+ * together, by one bulk fetch of the collection when there are enough of them and by
+ * concurrent single fetches otherwise, and each caller receives its own record. Upstream
+ * has no multi-ID endpoint, so below the bulk threshold the batch still saves duplicate
+ * calls for the same ID but not the calls themselves; an ID that fails fails only its own callers.
+ */
+@Service
+public class EntityLookupService {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityLookupService.class);
+
+    private final DataCacheService cacheService;
+    private final MaternityApiService apiService;
+
+    @Value("${cache.lookup.negative.max-entries:10000}")
+    private int negativeMaxEntries = 10000;
+
+    @Value("${cache.lookup.negative.ttl:5m}")
+    private Duration negativeTtl = Duration.ofMinutes(5);
+
+    // Window in which concurrent read-through lookups are collected into one batch
+    @Value("${cache.lookup.batch.window:2ms}")
+    private Duration batchWindow = Duration.ofMillis(2);
+
+    @Value("${cache.lookup.batch.max-size:500}")
+    private int batchMaxSize = 500;
+
+    // A batch with at least this many IDs loads the whole collection instead of fetching them one by one
+    @Value("${cache.lookup.batch.bulk-threshold:8}")
+    private int bulkThreshold = 8;
+
+    // How long a request waits for its batched read-through lookup before answering 503
+    @Value("${cache.lookup.wait-budget:10s}")
+    private Duration lookupWaitBudget = Duration.ofSeconds(10);
+
+    private BatchLoader<Patient> patientLoader;
+    private BatchLoader<Admission> admissionLoader;
+    private BatchLoader<Employee> employeeLoader;
+    private BatchLoader<Allocation> allocationLoader;
+
+    // Expiry time by collection and ID of lookups upstream answered with 404, least recently used first
+    private final Map<Long, Long> negativeCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > negativeMaxEntries;
+        }
+    };
+
+    @Autowired
+    public EntityLookupService(DataCacheService cacheService, MaternityApiService apiService) {
+        this.cacheService = cacheService;
+        this.apiService = apiService;
+    }
+
+    @PostConstruct
+    public void init() {
+        patientLoader = batchLoader(DatasetCollection.PATIENTS, DatasetSnapshot::getPatient,
+                apiService::fetchPatientById);
+        admissionLoader = batchLoader(DatasetCollection.ADMISSIONS, DatasetSnapshot::getAdmission,
+                apiService::fetchAdmissionById);
+        employeeLoader = batchLoader(DatasetCollection.EMPLOYEES, DatasetSnapshot::getEmployee,
+                apiService::fetchEmployeeById);
+        allocationLoader = batchLoader(DatasetCollection.ALLOCATIONS, DatasetSnapshot::getAllocation,
+                apiService::fetchAllocationById);
+    }
+
+    public Patient getPatient(Integer id) {
+        return lookup(DatasetCollection.PATIENTS, id, DatasetSnapshot::getPatient, patientLoader);
+    }
+
+    public Admission getAdmission(Integer id) {
+        return lookup(DatasetCollection.ADMISSIONS, id, DatasetSnapshot::getAdmission, admissionLoader);
+    }
+
+    public Employee getEmployee(Integer id) {
+        return lookup(DatasetCollection.EMPLOYEES, id, DatasetSnapshot::getEmployee, employeeLoader);
+    }
+
+    public Allocation getAllocation(Integer id) {
+        return lookup(DatasetCollection.ALLOCATIONS, id, DatasetSnapshot::getAllocation, allocationLoader);
+    }
+
+    private <T> T lookup(DatasetCollection collection, Integer id,
+                         BiFunction<DatasetSnapshot, Integer, T> index, BatchLoader<T> loader) {
+        if (id == null) {
+            return null;
+        }
+        DatasetSnapshot snapshot = cacheService.getCurrentSnapshot();
+        if (snapshot.isLoaded(collection)) {
+            return index.apply(snapshot, id);
+        }
+
+        long key = ((long) collection.ordinal() << 32) | (id & 0xFFFFFFFFL);
+        if (isKnownMissing(key)) {
+            return null;
+        }
+        try {
+            T record = loader.load(id).block(lookupWaitBudget);
+            if (record == null) {
+                rememberMissing(key);
+            }
+            return record;
+        } catch (UpstreamUnavailableException e) {
+            // Upstream is known to be down: reported as unavailable rather than as not found
+            throw e;
+        } catch (RuntimeException e) {
+            // Not cached and not reported as not found: a failure says nothing about whether the
+            // record exists, only upstream's 404 does
+            log.warn("Looking up {} {} failed: {}", collection, id, e.toString());
+            throw new UpstreamUnavailableException("Looking up " + collection + " " + id + " failed", e);
+        }
+    }
+
+    private <T> BatchLoader<T> batchLoader(DatasetCollection collection,
+                                           BiFunction<DatasetSnapshot, Integer, T> index,
+                                           Function<Integer, Mono<T>> upstream) {
+        return new BatchLoader<>(collection.name(), batchWindow, batchMaxSize, ids -> {
+            if (ids.size() >= bulkThreshold) {
+                return cacheService.loadAsync(collection).flatMap(snapshot -> {
+                    if (!snapshot.isLoaded(collection)) {
+                        // Must not be mistaken for "not found" and negatively cached
+                        return Mono.error(new IllegalStateException(collection + " could not be loaded"));
+                    }
+                    Map<Integer, Outcome<T>> found = new HashMap<>();
+                    for (Integer id : ids) {
+                        T record = index.apply(snapshot, id);
+                        if (record != null) {
+                            found.put(id, Outcome.of(record));
+                        }
+                    }
+                    return Mono.just(found);
+                });
+            }
+            return Flux.fromIterable(ids)
+                    .flatMap(id -> upstream.apply(id)
+                            .map(Outcome::of)
+                            .onErrorResume(e -> Mono.just(Outcome.failed(e)))
+                            .map(outcome -> Map.entry(id, outcome)))
+                    .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+        });
+    }
+
+    private boolean isKnownMissing(long key) {
+        synchronized (negativeCache) {
+            Long expiresAt = negativeCache.get(key);
+            if (expiresAt == null) {
+                return false;
+            }
+            if (expiresAt < System.currentTimeMillis()) {
+                negativeCache.remove(key);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private void rememberMissing(long key) {
+        synchronized (negativeCache) {
+            negativeCache.put(key, System.currentTimeMillis() + negativeTtl.toMillis());
+        }
+    }
+}
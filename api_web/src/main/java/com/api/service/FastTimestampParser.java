@@ -0,0 +1,144 @@
+package com.api.service;
+
+import com.api.model.EpochSeconds;
+
+/**
+ * Hand-written parser for the ISO-8601 local timestamps upstream sends:
+ * {@code yyyy-MM-ddTHH:mm:ss}, optionally followed by {@code .SSS} and a literal {@code Z}.
+ * <p>
+ * Parsing never throws: a string in none of the formats yields {@link EpochSeconds#INVALID}.
+ * Each instance serves one source, e.g. one field of one collection, and remembers the
+ * format that source used last so it is checked first for the next value. Results match
+ * the {@code DateTimeFormatter} patterns used before, including their smart resolution of
+ * a day-of-month past the end of the month to its last day and of 24:00:00 to the next
+ * midnight; milliseconds are truncated.
+ */
+final class FastTimestampParser {
+
+    enum Format {
+        PLAIN(19, false, false),
+        MILLIS(23, true, false),
+        MILLIS_UTC(24, true, true);
+
+        private final int length;
+        private final boolean millis;
+        private final boolean zulu;
+
+        Format(int length, boolean millis, boolean zulu) {
+            this.length = length;
+            this.millis = millis;
+            this.zulu = zulu;
+        }
+
+        boolean matches(String text) {
+            return text.length() == length
+                    && text.charAt(4) == '-' && text.charAt(7) == '-' && text.charAt(10) == 'T'
+                    && text.charAt(13) == ':' && text.charAt(16) == ':'
+                    && (!millis || text.charAt(19) == '.')
+                    && (!zulu || text.charAt(23) == 'Z');
+        }
+    }
+
+    private static final Format[] FORMATS = Format.values();
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final int DAYS_0000_TO_1970 = 719_528;
+
+    // Format of the last value this source parsed successfully
+    private volatile Format learned = Format.PLAIN;
+
+    /**
+     * UTC epoch second of a timestamp, {@code absent} when there is none and
+     * {@link EpochSeconds#INVALID} when it is in none of the supported formats
+     */
+    long toEpochSecond(String text, long absent) {
+        if (text == null || text.isEmpty()) {
+            return absent;
+        }
+        Format format = learned;
+        if (format.matches(text)) {
+            return parse(text, format);
+        }
+        for (Format candidate : FORMATS) {
+            if (candidate != format && candidate.matches(text)) {
+                long epochSecond = parse(text, candidate);
+                if (epochSecond != EpochSeconds.INVALID) {
+                    learned = candidate;
+                }
+                return epochSecond;
+            }
+        }
+        return EpochSeconds.INVALID;
+    }
+
+    Format getLearnedFormat() {
+        return learned;
+    }
+
+    private static long parse(String text, Format format) {
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        int millis = format.millis ? digits(text, 20, 3) : 0;
+        if ((year | month | day | hour | minute | second | millis) < 0) {
+            return EpochSeconds.INVALID;
+        }
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31 || hour > 24 || minute > 59 || second > 59) {
+            return EpochSeconds.INVALID;
+        }
+        // Like the formatters, 24:00:00 is accepted as midnight of the next day
+        if (hour == 24 && (minute | second | millis) != 0) {
+            return EpochSeconds.INVALID;
+        }
+        day = Math.min(day, lengthOfMonth(year, month));
+        return epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+    }
+
+    /**
+     * Value of {@code count} ASCII digits starting at {@code start}, or -1 if any is not a digit
+     */
+    private static int digits(String text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // Same arithmetic as LocalDate.toEpochDay, for years 0001-9999
+    private static long epochDay(int year, int month, int day) {
+        long total = 365L * year;
+        total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            boolean leap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+            if (!leap) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
@@ -0,0 +1,57 @@
+package com.api.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a conditional bulk fetch: either the freshly parsed records, or a marker
+ * that upstream reported (or hashed to) the same content as the previous fetch. It also
+ * carries the validators of the response, if there was one, for the caller to save
+ * once the records are published.
+ */
+public final class FetchResult<T> {
+
+    private static final FetchResult<?> NOT_MODIFIED = new FetchResult<>(null, null);
+
+    private final List<T> records;
+    private final CollectionValidators validators;
+
+    private FetchResult(List<T> records, CollectionValidators validators) {
+        this.records = records;
+        this.validators = validators;
+    }
+
+    public static <T> FetchResult<T> modified(List<T> records) {
+        return new FetchResult<>(records, null);
+    }
+
+    static <T> FetchResult<T> modified(List<T> records, CollectionValidators validators) {
+        return new FetchResult<>(records, validators);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> FetchResult<T> notModified() {
+        return (FetchResult<T>) NOT_MODIFIED;
+    }
+
+    static <T> FetchResult<T> notModified(CollectionValidators validators) {
+        return new FetchResult<>(null, validators);
+    }
+
+    public boolean isModified() {
+        return records != null;
+    }
+
+    /**
+     * Parsed records, or null when the collection was not modified
+     */
+    public List<T> getRecords() {
+        return records;
+    }
+
+    /**
+     * Validators of the response, or null when there are none to save (e.g. after a 304)
+     */
+    CollectionValidators getValidators() {
+        return validators;
+    }
+}
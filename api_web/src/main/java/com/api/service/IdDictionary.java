@@ -0,0 +1,120 @@
+package com.api.service;
+
+import java.util.Arrays;
+
+/**
+ * Maps upstream IDs to dense ordinals 0..n-1 in order of first appearance, so per-entity
+ * facts can live in plain arrays. Open addressing with linear probing over primitive
+ * arrays: no boxing and no per-entry objects. A null ID gets an ordinal of its own.
+ */
+final class IdDictionary {
+
+    private static final int FREE = -1;
+
+    private int[] keys;
+    // Ordinal of the key in the same slot, FREE for an empty slot
+    private int[] slots;
+    private int[] ids;
+    private int size;
+    private int nullOrdinal = FREE;
+
+    IdDictionary(int expected) {
+        // At most three quarters full
+        int capacity = Integer.highestOneBit(Math.max(4, expected + expected / 3)) << 1;
+        keys = new int[capacity];
+        slots = new int[capacity];
+        Arrays.fill(slots, FREE);
+        ids = new int[Math.max(4, expected)];
+    }
+
+    /**
+     * Ordinal of the ID, assigning the next one if it has none yet
+     */
+    int add(Integer id) {
+        if (id == null) {
+            if (nullOrdinal == FREE) {
+                nullOrdinal = append(0);
+            }
+            return nullOrdinal;
+        }
+        int key = id;
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (slots[slot] != FREE) {
+            if (keys[slot] == key) {
+                return slots[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        int ordinal = append(key);
+        keys[slot] = key;
+        slots[slot] = ordinal;
+        if (size > keys.length - keys.length / 4) {
+            rehash();
+        }
+        return ordinal;
+    }
+
+    /**
+     * Ordinal of the ID, or -1 when it has none
+     */
+    int ordinalOf(Integer id) {
+        if (id == null) {
+            return nullOrdinal;
+        }
+        int key = id;
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (slots[slot] != FREE) {
+            if (keys[slot] == key) {
+                return slots[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return FREE;
+    }
+
+    /**
+     * ID of an ordinal, null for the ordinal of the null ID
+     */
+    Integer idOf(int ordinal) {
+        return ordinal == nullOrdinal ? null : ids[ordinal];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int append(int id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size] = id;
+        return size++;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new int[oldKeys.length * 2];
+        slots = new int[oldKeys.length * 2];
+        Arrays.fill(slots, FREE);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSlots[i] != FREE) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (slots[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                slots[slot] = oldSlots[i];
+            }
+        }
+    }
+
+    // Spread sequential IDs across the table
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,110 @@
+package com.api.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * IDs keyed by a non-negative int, such as each readmitted patient's smallest readmission
+ * gap in days or each patient's largest number of distinct staff, held as two parallel
+ * primitive arrays sorted by value, then ID. A range query is two binary searches and a slice.
+ */
+final class IdsByValue {
+
+    private final int[] values;
+    private final int[] ids;
+
+    private IdsByValue(int[] values, int[] ids) {
+        this.values = values;
+        this.ids = ids;
+    }
+
+    static IdsByValue of(Map<Integer, Integer> valuesById) {
+        // Sort (value, ID) pairs packed into one long each
+        long[] packed = new long[valuesById.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : valuesById.entrySet()) {
+            packed[i++] = pack(entry.getValue(), entry.getKey());
+        }
+        Arrays.sort(packed);
+        int[] values = new int[packed.length];
+        int[] ids = new int[packed.length];
+        for (i = 0; i < packed.length; i++) {
+            values[i] = (int) (packed[i] >>> 32);
+            ids[i] = idOf(packed[i]);
+        }
+        return new IdsByValue(values, ids);
+    }
+
+    /**
+     * Copy with the entries of the changed IDs replaced by their value in
+     * {@code valuesById}, or dropped when it has none. Only the changed entries are
+     * sorted; the others are merged in as they are, so the copy is one linear pass.
+     */
+    IdsByValue patch(Map<Integer, Integer> valuesById, Set<Integer> changedIds) {
+        long[] incoming = new long[changedIds.size()];
+        int added = 0;
+        for (Integer id : changedIds) {
+            Integer value = id != null ? valuesById.get(id) : null;
+            if (value != null) {
+                incoming[added++] = pack(value, id);
+            }
+        }
+        Arrays.sort(incoming, 0, added);
+
+        int[] patchedValues = new int[ids.length + added];
+        int[] patchedIds = new int[ids.length + added];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (changedIds.contains(ids[i])) {
+                continue;
+            }
+            long current = pack(values[i], ids[i]);
+            for (; next < added && incoming[next] < current; next++, size++) {
+                patchedValues[size] = (int) (incoming[next] >>> 32);
+                patchedIds[size] = idOf(incoming[next]);
+            }
+            patchedValues[size] = values[i];
+            patchedIds[size++] = ids[i];
+        }
+        for (; next < added; next++, size++) {
+            patchedValues[size] = (int) (incoming[next] >>> 32);
+            patchedIds[size] = idOf(incoming[next]);
+        }
+        return new IdsByValue(Arrays.copyOf(patchedValues, size), Arrays.copyOf(patchedIds, size));
+    }
+
+    // Values are non-negative and IDs are offset to unsigned, so packed pairs sort by value, then ID
+    private static long pack(int value, int id) {
+        return ((long) value << 32) | (id - (long) Integer.MIN_VALUE);
+    }
+
+    private static int idOf(long packed) {
+        return (int) ((packed & 0xFFFFFFFFL) + Integer.MIN_VALUE);
+    }
+
+    /**
+     * IDs whose value lies within [min, max], smallest value first
+     */
+    int[] idsWithin(int min, int max) {
+        if (min > max) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(ids, firstAtLeast(min), firstAtLeast(max + 1L));
+    }
+
+    private int firstAtLeast(long value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,41 @@
+package com.api.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Latencies of the most recent successful calls, used to pick the hedging delay
+ */
+final class LatencyTracker {
+
+    private final long[] samples;
+    private final int minSamples;
+    private int next;
+    private int count;
+
+    LatencyTracker(int capacity, int minSamples) {
+        this.samples = new long[capacity];
+        this.minSamples = minSamples;
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * 95th percentile of the recorded latencies, or null until enough calls have been seen
+     */
+    Duration p95() {
+        long[] copy;
+        synchronized (this) {
+            if (count < minSamples) {
+                return null;
+            }
+            copy = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(copy);
+        return Duration.ofNanos(copy[(int) Math.ceil(copy.length * 0.95) - 1]);
+    }
+}
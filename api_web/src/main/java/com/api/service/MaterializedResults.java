@@ -0,0 +1,93 @@
+package com.api.service;
+
+import java.util.function.Supplier;
+
+/**
+ * F1–F4 answers for one snapshot version, already serialized to UTF-8 JSON so the
+ * controller can write them without any per-request work. Each answer is materialized
+ * on its own: one that failed keeps its error, which is thrown again whenever it is
+ * read, while the others are still served.
+ */
+public final class MaterializedResults {
+
+    private final long snapshotVersion;
+    private final Answer patientsNeverAdmitted;
+    private final Answer patientsReadmittedWithin7Days;
+    private final Answer monthWithMostAdmissions;
+    private final Answer patientsWithMultipleStaff;
+
+    public MaterializedResults(long snapshotVersion,
+                               byte[] patientsNeverAdmitted,
+                               byte[] patientsReadmittedWithin7Days,
+                               byte[] monthWithMostAdmissions,
+                               byte[] patientsWithMultipleStaff) {
+        this(snapshotVersion, Answer.of(patientsNeverAdmitted), Answer.of(patientsReadmittedWithin7Days),
+                Answer.of(monthWithMostAdmissions), Answer.of(patientsWithMultipleStaff));
+    }
+
+    MaterializedResults(long snapshotVersion,
+                        Answer patientsNeverAdmitted,
+                        Answer patientsReadmittedWithin7Days,
+                        Answer monthWithMostAdmissions,
+                        Answer patientsWithMultipleStaff) {
+        this.snapshotVersion = snapshotVersion;
+        this.patientsNeverAdmitted = patientsNeverAdmitted;
+        this.patientsReadmittedWithin7Days = patientsReadmittedWithin7Days;
+        this.monthWithMostAdmissions = monthWithMostAdmissions;
+        this.patientsWithMultipleStaff = patientsWithMultipleStaff;
+    }
+
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    // The arrays are shared between requests and must not be modified by callers
+
+    public byte[] getPatientsNeverAdmitted() {
+        return patientsNeverAdmitted.get();
+    }
+
+    public byte[] getPatientsReadmittedWithin7Days() {
+        return patientsReadmittedWithin7Days.get();
+    }
+
+    public byte[] getMonthWithMostAdmissions() {
+        return monthWithMostAdmissions.get();
+    }
+
+    public byte[] getPatientsWithMultipleStaff() {
+        return patientsWithMultipleStaff.get();
+    }
+
+    /**
+     * One materialized answer: the serialized JSON, or the error computing it failed with
+     */
+    static final class Answer {
+        private final byte[] json;
+        private final RuntimeException error;
+
+        private Answer(byte[] json, RuntimeException error) {
+            this.json = json;
+            this.error = error;
+        }
+
+        static Answer of(byte[] json) {
+            return new Answer(json, null);
+        }
+
+        static Answer compute(Supplier<byte[]> json) {
+            try {
+                return new Answer(json.get(), null);
+            } catch (RuntimeException e) {
+                return new Answer(null, e);
+            }
+        }
+
+        byte[] get() {
+            if (error != null) {
+                throw error;
+            }
+            return json;
+        }
+    }
+}
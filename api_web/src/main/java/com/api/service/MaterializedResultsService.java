@@ -0,0 +1,139 @@
+package com.api.service;
+
+import com.api.service.MaterializedResults.Answer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Final stage of every cache refresh: computes F1–F4 once per snapshot and keeps
+ * the serialized JSON bytes ready for the controller. An answer that fails is kept
+ * as its error, so requests for it fail the same way without recomputing.
+ * <p>
+ * Materialization is single-flight per snapshot version: requests arriving while the
+ * results for their snapshot are being built, by the refresh or by another request,
+ * wait for that build instead of starting their own.
+ */
+@Service
+public class MaterializedResultsService {
+
+    private final DataCacheService cacheService;
+    private final MaternityBusinessService businessService;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<MaterializedResults> results = new AtomicReference<>();
+
+    // The newest build started, completed once its results are stored
+    private final AtomicReference<Build> building = new AtomicReference<>();
+
+    @Autowired
+    public MaterializedResultsService(DataCacheService cacheService,
+                                      MaternityBusinessService businessService,
+                                      ObjectMapper objectMapper) {
+        this.cacheService = cacheService;
+        this.businessService = businessService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        cacheService.addSnapshotListener(this::onSnapshotPublished);
+    }
+
+    /**
+     * Results for the current snapshot. Normally already materialized by the refresh;
+     * if not (e.g. the first refresh ran before this service existed) they are built once here.
+     */
+    public MaterializedResults getResults() {
+        DatasetSnapshot snapshot = cacheService.getSnapshot();
+        MaterializedResults current = results.get();
+        if (current != null && current.getSnapshotVersion() == snapshot.getVersion()) {
+            return current;
+        }
+        return materializeOnce(snapshot);
+    }
+
+    private void onSnapshotPublished(DatasetSnapshot snapshot) {
+        // Partially loaded snapshots are materialized lazily once the missing collections arrive
+        if (snapshot.isFullyLoaded()) {
+            materializeOnce(snapshot);
+        }
+    }
+
+    /**
+     * Results for the snapshot, or for a newer one, built by whichever caller gets there
+     * first; the others wait for that build
+     */
+    private MaterializedResults materializeOnce(DatasetSnapshot snapshot) {
+        while (true) {
+            Build build = building.get();
+            if (build != null && build.version >= snapshot.getVersion()) {
+                return build.await();
+            }
+            Build mine = new Build(snapshot.getVersion());
+            if (building.compareAndSet(build, mine)) {
+                try {
+                    mine.results.complete(store(materialize(snapshot)));
+                } catch (RuntimeException | Error e) {
+                    // Not kept: the next caller for this version tries again
+                    building.compareAndSet(mine, null);
+                    mine.results.completeExceptionally(e);
+                    throw e;
+                }
+                return mine.results.join();
+            }
+        }
+    }
+
+    MaterializedResults materialize(DatasetSnapshot snapshot) {
+        // Each answer on its own, so unparseable dates failing F2 leave F1, F3 and F4 cached
+        return new MaterializedResults(
+                snapshot.getVersion(),
+                Answer.compute(() -> toJson(businessService.getPatientsNeverAdmitted(snapshot))),
+                Answer.compute(() -> toJson(businessService.getPatientsReadmittedWithin7Days(snapshot))),
+                Answer.compute(() -> toJson(businessService.getMonthWithMostAdmissions(snapshot))),
+                Answer.compute(() -> toJson(businessService.getPatientsWithMultipleStaff(snapshot))));
+    }
+
+    /**
+     * Keep the newest results; an older snapshot finishing late must not replace them
+     */
+    private MaterializedResults store(MaterializedResults candidate) {
+        return results.accumulateAndGet(candidate, (existing, update) ->
+                existing != null && existing.getSnapshotVersion() > update.getSnapshotVersion() ? existing : update);
+    }
+
+    private static final class Build {
+        private final long version;
+        private final CompletableFuture<MaterializedResults> results = new CompletableFuture<>();
+
+        private Build(long version) {
+            this.version = version;
+        }
+
+        private MaterializedResults await() {
+            try {
+                return results.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize materialized result", e);
+        }
+    }
+}
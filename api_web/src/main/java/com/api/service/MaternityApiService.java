@@ -4,98 +4,301 @@ import com.api.model.Admission;
 import com.api.model.Allocation;
 import com.api.model.Employee;
 import com.api.model.Patient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.client.reactive.ClientHttpResponse;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyExtractor;
+import org.springframework.web.reactive.function.BodyExtractors;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class MaternityApiService {
 
+    private static final Logger log = LoggerFactory.getLogger(MaternityApiService.class);
+
     private final WebClient webClient;
+    private final UpstreamResilience resilience;
+
+    // Validators of the last bulk fetch of each collection whose records were published
+    private final Map<DatasetCollection, CollectionValidators> validators = new ConcurrentHashMap<>();
 
-    @Autowired
     public MaternityApiService(WebClient webClient) {
+        this(webClient, new UpstreamResilience());
+    }
+
+    @Autowired
+    public MaternityApiService(WebClient webClient, UpstreamResilience resilience) {
         this.webClient = webClient;
+        this.resilience = resilience;
     }
 
     public List<Patient> getAllPatients() {
-        return webClient.get()
-                .uri("/Patients")
-                .retrieve()
-                .bodyToMono(Patient[].class)
-                .map(Arrays::asList)
-                .onErrorReturn(Collections.emptyList())
+        return fetchAllPatients()
+                .onErrorResume(e -> {
+                    log.warn("Fetching all patients failed, returning an empty list: {}", e.toString());
+                    return Mono.just(Collections.emptyList());
+                })
                 .block();
     }
 
+    /**
+     * Non-blocking fetch of all patients; errors are propagated to the subscriber
+     */
+    public Mono<List<Patient>> fetchAllPatients() {
+        return fetchCollection(DatasetCollection.PATIENTS, Patient.class, false)
+                .map(FetchResult::getRecords);
+    }
+
+    /**
+     * Conditional fetch of all patients, skipping parsing when nothing changed upstream
+     */
+    public Mono<FetchResult<Patient>> fetchPatientsIfChanged() {
+        return fetchCollection(DatasetCollection.PATIENTS, Patient.class, true);
+    }
+
     public Patient getPatientById(Integer id) {
-        return webClient.get()
-                .uri("/Patients/{id}", id)
-                .retrieve()
-                .bodyToMono(Patient.class)
+        return fetchPatientById(id)
                 .onErrorResume(e -> Mono.empty())
                 .block();
     }
 
+    /**
+     * Non-blocking fetch of one patient; empty when upstream does not know the ID, other errors are propagated
+     */
+    public Mono<Patient> fetchPatientById(Integer id) {
+        return fetchById(DatasetCollection.PATIENTS, id, Patient.class);
+    }
+
     public List<Admission> getAllAdmissions() {
-        return webClient.get()
-                .uri("/Admissions")
-                .retrieve()
-                .bodyToMono(Admission[].class)
-                .map(Arrays::asList)
-                .onErrorReturn(Collections.emptyList())
+        return fetchAllAdmissions()
+                .onErrorResume(e -> {
+                    log.warn("Fetching all admissions failed, returning an empty list: {}", e.toString());
+                    return Mono.just(Collections.emptyList());
+                })
                 .block();
     }
 
+    /**
+     * Non-blocking fetch of all admissions; errors are propagated to the subscriber
+     */
+    public Mono<List<Admission>> fetchAllAdmissions() {
+        return fetchCollection(DatasetCollection.ADMISSIONS, Admission.class, false)
+                .map(FetchResult::getRecords);
+    }
+
+    /**
+     * Conditional fetch of all admissions, skipping parsing when nothing changed upstream
+     */
+    public Mono<FetchResult<Admission>> fetchAdmissionsIfChanged() {
+        return fetchCollection(DatasetCollection.ADMISSIONS, Admission.class, true);
+    }
+
     public Admission getAdmissionById(Integer id) {
-        return webClient.get()
-                .uri("/Admissions/{id}", id)
-                .retrieve()
-                .bodyToMono(Admission.class)
+        return fetchAdmissionById(id)
                 .onErrorResume(e -> Mono.empty())
                 .block();
     }
 
+    /**
+     * Non-blocking fetch of one admission; empty when upstream does not know the ID, other errors are propagated
+     */
+    public Mono<Admission> fetchAdmissionById(Integer id) {
+        return fetchById(DatasetCollection.ADMISSIONS, id, Admission.class);
+    }
+
     public List<Employee> getAllEmployees() {
-        return webClient.get()
-                .uri("/Employees")
-                .retrieve()
-                .bodyToMono(Employee[].class)
-                .map(Arrays::asList)
-                .onErrorReturn(Collections.emptyList())
+        return fetchAllEmployees()
+                .onErrorResume(e -> {
+                    log.warn("Fetching all employees failed, returning an empty list: {}", e.toString());
+                    return Mono.just(Collections.emptyList());
+                })
                 .block();
     }
 
+    /**
+     * Non-blocking fetch of all employees; errors are propagated to the subscriber
+     */
+    public Mono<List<Employee>> fetchAllEmployees() {
+        return fetchCollection(DatasetCollection.EMPLOYEES, Employee.class, false)
+                .map(FetchResult::getRecords);
+    }
+
+    /**
+     * Conditional fetch of all employees, skipping parsing when nothing changed upstream
+     */
+    public Mono<FetchResult<Employee>> fetchEmployeesIfChanged() {
+        return fetchCollection(DatasetCollection.EMPLOYEES, Employee.class, true);
+    }
+
     public Employee getEmployeeById(Integer id) {
-        return webClient.get()
-                .uri("/Employees/{id}", id)
-                .retrieve()
-                .bodyToMono(Employee.class)
+        return fetchEmployeeById(id)
                 .onErrorResume(e -> Mono.empty())
                 .block();
     }
 
+    /**
+     * Non-blocking fetch of one employee; empty when upstream does not know the ID, other errors are propagated
+     */
+    public Mono<Employee> fetchEmployeeById(Integer id) {
+        return fetchById(DatasetCollection.EMPLOYEES, id, Employee.class);
+    }
+
     public List<Allocation> getAllAllocations() {
-        return webClient.get()
-                .uri("/Allocations")
-                .retrieve()
-                .bodyToMono(Allocation[].class)
-                .map(Arrays::asList)
-                .onErrorReturn(Collections.emptyList())
+        return fetchAllAllocations()
+                .onErrorResume(e -> {
+                    log.warn("Fetching all allocations failed, returning an empty list: {}", e.toString());
+                    return Mono.just(Collections.emptyList());
+                })
                 .block();
     }
 
+    /**
+     * Non-blocking fetch of all allocations; errors are propagated to the subscriber
+     */
+    public Mono<List<Allocation>> fetchAllAllocations() {
+        return fetchCollection(DatasetCollection.ALLOCATIONS, Allocation.class, false)
+                .map(FetchResult::getRecords);
+    }
+
+    /**
+     * Conditional fetch of all allocations, skipping parsing when nothing changed upstream
+     */
+    public Mono<FetchResult<Allocation>> fetchAllocationsIfChanged() {
+        return fetchCollection(DatasetCollection.ALLOCATIONS, Allocation.class, true);
+    }
+
     public Allocation getAllocationById(Integer id) {
-        return webClient.get()
-                .uri("/Allocations/{id}", id)
-                .retrieve()
-                .bodyToMono(Allocation.class)
+        return fetchAllocationById(id)
                 .onErrorResume(e -> Mono.empty())
                 .block();
     }
-} 
\ No newline at end of file
+
+    /**
+     * Non-blocking fetch of one allocation; empty when upstream does not know the ID, other errors are propagated
+     */
+    public Mono<Allocation> fetchAllocationById(Integer id) {
+        return fetchById(DatasetCollection.ALLOCATIONS, id, Allocation.class);
+    }
+
+    private <T> Mono<T> fetchById(DatasetCollection collection, Integer id, Class<T> type) {
+        return resilience.byId(webClient.get()
+                .uri(collection.getPath() + "/{id}", id)
+                .retrieve()
+                .bodyToMono(type)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty()));
+    }
+
+    /**
+     * Remember the validators of a fetch once its records have been published (or found
+     * identical to the published ones), so the next conditional fetch can skip them.
+     * Saving them any earlier would let a 304 confirm content that was never served.
+     */
+    public void saveValidators(DatasetCollection collection, FetchResult<?> result) {
+        if (result.getValidators() != null) {
+            validators.put(collection, result.getValidators());
+        }
+    }
+
+    /**
+     * Forget the validators of a collection so the next conditional fetch downloads it in full
+     */
+    public void resetValidators(DatasetCollection collection) {
+        validators.remove(collection);
+    }
+
+    /**
+     * Fetch a whole collection. When conditional, the request carries the ETag and
+     * Last-Modified validators saved with {@link #saveValidators}, and a 304 is reported
+     * as not modified without reading a body. The validators of this response come back
+     * with the result and are not used until the caller saves them.
+     * <p>
+     * The JSON array is decoded as a stream: the WebClient's Jackson decoder tokenizes
+     * each DataBuffer with Jackson's non-blocking parser as it arrives and emits one
+     * record at a time, so parsing overlaps network I/O, the codec's in-memory limit
+     * applies per record rather than per payload, and the raw payload is never held
+     * in memory. The content hash is computed over the same buffers on the way through;
+     * a body identical to the previous one is still reported as not modified, so the
+     * cache skips rebuilding its indices.
+     * <p>
+     * Each attempt sends a fresh request under the upstream resilience policy, so a
+     * retried download starts a new digest and never mixes buffers of two responses.
+     */
+    private <T> Mono<FetchResult<T>> fetchCollection(DatasetCollection collection, Class<T> elementType,
+                                                     boolean conditional) {
+        CollectionValidators previous = conditional ? validators.get(collection) : null;
+        return resilience.bulk(webClient.get()
+                .uri(collection.getPath())
+                .headers(headers -> {
+                    if (previous != null) {
+                        previous.applyTo(headers);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return response.releaseBody().thenReturn(FetchResult.<T>notModified());
+                    }
+                    if (response.statusCode().isError()) {
+                        return response.createError();
+                    }
+                    HttpHeaders responseHeaders = response.headers().asHttpHeaders();
+                    MessageDigest digest = CollectionValidators.newDigest();
+                    return response.body(streamRecords(elementType, digest, resilience))
+                            .collect(ArrayList<T>::new, List::add)
+                            .map(records -> {
+                                CollectionValidators current =
+                                        new CollectionValidators(responseHeaders, digest.digest());
+                                boolean unchanged = previous != null && previous.hasSameContent(current);
+                                return unchanged
+                                        ? FetchResult.<T>notModified(current)
+                                        : FetchResult.modified(records, current);
+                            });
+                }));
+    }
+
+    /**
+     * Body extractor that decodes the JSON array element by element with the client's
+     * configured codecs while feeding every buffer into the content digest; a stalled
+     * body fails after the resilience policy's idle timeout
+     */
+    private static <T> BodyExtractor<Flux<T>, ClientHttpResponse> streamRecords(Class<T> elementType,
+                                                                                MessageDigest digest,
+                                                                                UpstreamResilience resilience) {
+        return (response, context) -> {
+            Flux<DataBuffer> body = resilience.idle(response.getBody()).doOnNext(buffer -> {
+                try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                    while (chunks.hasNext()) {
+                        digest.update(chunks.next());
+                    }
+                }
+            });
+            ReactiveHttpInputMessage hashingMessage = new ReactiveHttpInputMessage() {
+                @Override
+                public HttpHeaders getHeaders() {
+                    return response.getHeaders();
+                }
+
+                @Override
+                public Flux<DataBuffer> getBody() {
+                    return body;
+                }
+            };
+            return BodyExtractors.toFlux(elementType).extract(hashingMessage, context);
+        };
+    }
+}
@@ -1,201 +1,343 @@
 package com.api.service;
 
 import com.api.model.Admission;
-import com.api.model.Allocation;
 import com.api.model.Patient;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.time.Month;
+import java.time.LocalDate;
+import java.time.Year;
 import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 
 @Service
 public class MaternityBusinessService {
 
-    private final MaternityApiService apiService;
     private final DataCacheService cacheService;
-    
-    // Define multiple date formatters to handle different date formats
-    private static final DateTimeFormatter[] DATE_FORMATTERS = {
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS")
-    };
+
+    // Patient lists at least this long are filtered in parallel; 0 keeps everything sequential
+    @Value("${analytics.parallel.threshold:100000}")
+    private int parallelThreshold = 100_000;
+
+    // Workers of a dedicated pool for parallel filtering; 0 uses the common fork/join pool
+    @Value("${analytics.parallel.pool-size:0}")
+    private int parallelPoolSize = 0;
+
+    private volatile ForkJoinPool dedicatedPool;
 
     @Autowired
-    public MaternityBusinessService(MaternityApiService apiService, DataCacheService cacheService) {
-        this.apiService = apiService;
+    public MaternityBusinessService(DataCacheService cacheService) {
         this.cacheService = cacheService;
     }
 
-    /**
-     * Try to parse a date string using multiple formats
-     */
-    private LocalDateTime parseDateTime(String dateString) {
-        if (dateString == null || dateString.isEmpty()) {
-            return null;
-        }
-        
-        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-            try {
-                return LocalDateTime.parse(dateString, formatter);
-            } catch (DateTimeParseException e) {
-                // Try the next format
-            }
+    @PreDestroy
+    public void stop() {
+        if (dedicatedPool != null) {
+            dedicatedPool.shutdown();
         }
-        
-        throw new IllegalArgumentException("Unable to parse date: " + dateString);
     }
 
     /**
      * F1 - Get a list of patients who have never been admitted
      */
     public List<Patient> getPatientsNeverAdmitted() {
-        List<Patient> allPatients = cacheService.getAllPatients();
-        List<Admission> allAdmissions = cacheService.getAllAdmissions();
-        
-        // Get IDs of all patients who have been admitted
-        Set<Integer> admittedPatientIds = allAdmissions.stream()
-                .map(Admission::getPatientID)
-                .collect(Collectors.toSet());
-        
-        // Filter out patients who have never been admitted
-        return allPatients.stream()
-                .filter(patient -> !admittedPatientIds.contains(patient.getId()))
-                .collect(Collectors.toList());
+        return getPatientsNeverAdmitted(cacheService.getSnapshot());
+    }
+
+    public List<Patient> getPatientsNeverAdmitted(DatasetSnapshot snapshot) {
+        // Patients without an entry in the admissions-by-patient index were never admitted
+        return filterPatients(snapshot, patient -> !snapshot.hasAdmissions(patient.getId()));
     }
 
     /**
      * F2 - Get a list of patients who were readmitted within 7 days after discharge
      */
     public List<Patient> getPatientsReadmittedWithin7Days() {
-        List<Admission> allAdmissions = cacheService.getAllAdmissions();
-        List<Patient> allPatients = cacheService.getAllPatients();
-        Map<Integer, List<Admission>> admissionsByPatient = new HashMap<>();
-        
-        // Group admission records by patient ID
-        for (Admission admission : allAdmissions) {
-            admissionsByPatient.computeIfAbsent(admission.getPatientID(), k -> new ArrayList<>()).add(admission);
+        return getPatientsReadmittedWithin7Days(cacheService.getSnapshot());
+    }
+
+    public List<Patient> getPatientsReadmittedWithin7Days(DatasetSnapshot snapshot) {
+        // Readmissions are evaluated per patient when the snapshot is built
+        if (!snapshot.getReadmissionErrors().isEmpty()) {
+            throw new IllegalArgumentException(snapshot.getReadmissionErrors().values().iterator().next());
         }
+        Set<Integer> readmittedPatientIds = snapshot.getReadmittedPatientIds();
         
-        // Find patient IDs of those who were readmitted
-        Set<Integer> readmittedPatientIds = new HashSet<>();
-        
-        for (Map.Entry<Integer, List<Admission>> entry : admissionsByPatient.entrySet()) {
-            List<Admission> patientAdmissions = entry.getValue();
-            if (patientAdmissions.size() < 2) {
-                continue; // Skip patients with fewer than 2 admissions
-            }
-            
-            // Sort by admission date
-            patientAdmissions.sort(Comparator.comparing(Admission::getAdmissionDate));
-            
-            for (int i = 0; i < patientAdmissions.size() - 1; i++) {
-                Admission current = patientAdmissions.get(i);
-                Admission next = patientAdmissions.get(i + 1);
-                
-                // Skip if current record has no discharge date
-                if (current.getDischargeDate() == null || current.getDischargeDate().isEmpty()) {
-                    continue;
-                }
-                
-                LocalDateTime dischargeDate = parseDateTime(current.getDischargeDate());
-                LocalDateTime nextAdmissionDate = parseDateTime(next.getAdmissionDate());
-                
-                if (dischargeDate == null || nextAdmissionDate == null) {
-                    continue; // Skip records with unparseable dates
-                }
-                
-                long daysBetween = ChronoUnit.DAYS.between(dischargeDate, nextAdmissionDate);
-                
-                if (daysBetween >= 0 && daysBetween <= 7) {
-                    readmittedPatientIds.add(current.getPatientID());
-                    break; // Found a match for this patient, no need to check further
-                }
+        // Get patient details by IDs
+        return filterPatients(snapshot, patient -> readmittedPatientIds.contains(patient.getId()));
+    }
+
+    /**
+     * Patients readmitted within the given number of days after a discharge, optionally
+     * restricted to gaps between minGap and maxGap days, smallest gap first
+     */
+    public List<Patient> getPatientsReadmittedWithin(int days, Integer minGap, Integer maxGap) {
+        return getPatientsReadmittedWithin(cacheService.getSnapshot(), days, minGap, maxGap);
+    }
+
+    public List<Patient> getPatientsReadmittedWithin(DatasetSnapshot snapshot, int days, Integer minGap, Integer maxGap) {
+        int lower = minGap != null ? minGap : 0;
+        int upper = maxGap != null ? Math.min(days, maxGap) : days;
+        if (days < 0 || lower < 0) {
+            throw new IllegalArgumentException("Days and gaps must not be negative");
+        }
+        // Same failure as F2 when dates could not be parsed
+        if (!snapshot.getReadmissionErrors().isEmpty()) {
+            throw new IllegalArgumentException(snapshot.getReadmissionErrors().values().iterator().next());
+        }
+
+        // Answered from the gaps precomputed with the snapshot, already sorted
+        int[] patientIds = snapshot.getPatientsReadmittedWithin(lower, upper);
+        List<Patient> result = new ArrayList<>(patientIds.length);
+        for (int patientId : patientIds) {
+            Patient patient = snapshot.getPatient(patientId);
+            if (patient != null) {
+                result.add(patient);
             }
         }
-        
-        // Get patient details by IDs
-        return allPatients.stream()
-                .filter(patient -> readmittedPatientIds.contains(patient.getId()))
-                .collect(Collectors.toList());
+        return result;
     }
 
     /**
      * F3 - Determine which month had the highest number of admissions
      */
     public Map<String, Integer> getMonthWithMostAdmissions() {
-        List<Admission> allAdmissions = cacheService.getAllAdmissions();
-        
-        // Count admissions by month
-        Map<YearMonth, Integer> admissionsByMonth = new HashMap<>();
-        
-        for (Admission admission : allAdmissions) {
-            if (admission.getAdmissionDate() != null && !admission.getAdmissionDate().isEmpty()) {
-                try {
-                    LocalDateTime admissionDate = parseDateTime(admission.getAdmissionDate());
-                    if (admissionDate != null) {
-                        YearMonth yearMonth = YearMonth.of(admissionDate.getYear(), admissionDate.getMonth());
-                        admissionsByMonth.merge(yearMonth, 1, Integer::sum);
-                    }
-                } catch (Exception e) {
-                    // Log error but continue processing other records
-                    System.err.println("Error parsing date: " + admission.getAdmissionDate() + " - " + e.getMessage());
-                }
-            }
-        }
-        
-        // Find the month with the highest number of admissions
-        Optional<Map.Entry<YearMonth, Integer>> maxEntry = admissionsByMonth.entrySet().stream()
-                .max(Map.Entry.comparingByValue());
+        return getMonthWithMostAdmissions(cacheService.getSnapshot());
+    }
+
+    public Map<String, Integer> getMonthWithMostAdmissions(DatasetSnapshot snapshot) {
+        // Admissions are counted by month when the snapshot is built; earliest month wins a tie
+        MonthHistogram histogram = snapshot.getAdmissionsPerMonth();
         
         Map<String, Integer> result = new HashMap<>();
-        if (maxEntry.isPresent()) {
-            YearMonth maxMonth = maxEntry.get().getKey();
-            int count = maxEntry.get().getValue();
-            result.put(maxMonth.toString(), count);
+        if (!histogram.isEmpty()) {
+            YearMonth maxMonth = histogram.getBusiestMonths().get(0);
+            result.put(maxMonth.toString(), histogram.getMaxCount());
         }
         
         return result;
     }
 
+    /**
+     * Admissions for every month from the first to the last admission, in calendar order
+     */
+    public Map<String, Integer> getAdmissionsPerMonth() {
+        return byMonthName(cacheService.getSnapshot().getAdmissionsPerMonth().toMap());
+    }
+
+    /**
+     * The k months with the most admissions, busiest first; with ties, months sharing
+     * the count of the k-th month are included too
+     */
+    public Map<String, Integer> getTopMonths(int k, boolean withTies) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+        return byMonthName(cacheService.getSnapshot().getAdmissionsPerMonth().top(k, withTies));
+    }
+
+    /**
+     * Every month tied for the highest number of admissions
+     */
+    public Map<String, Integer> getBusiestMonths() {
+        MonthHistogram histogram = cacheService.getSnapshot().getAdmissionsPerMonth();
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (YearMonth month : histogram.getBusiestMonths()) {
+            result.put(month.toString(), histogram.getMaxCount());
+        }
+        return result;
+    }
+
+    private static Map<String, Integer> byMonthName(Map<YearMonth, Integer> counts) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        counts.forEach((month, count) -> result.put(month.toString(), count));
+        return result;
+    }
+
+    /**
+     * Admissions filtered by at most one time range given as "from,to": those whose stay
+     * overlaps it, or those admitted within it. All admissions when neither is given.
+     */
+    public List<Admission> getAdmissions(String overlapping, String admittedBetween) {
+        if (overlapping != null && admittedBetween != null) {
+            throw new IllegalArgumentException("Use either overlapping or admittedBetween, not both");
+        }
+        DatasetSnapshot snapshot = cacheService.getSnapshot();
+        if (overlapping != null) {
+            long[] range = TimeArguments.parseRange(overlapping);
+            return snapshot.getAdmissionsOverlapping(range[0], range[1]);
+        }
+        if (admittedBetween != null) {
+            long[] range = TimeArguments.parseRange(admittedBetween);
+            return snapshot.getAdmissionsAdmittedBetween(range[0], range[1]);
+        }
+        return snapshot.getAdmissions();
+    }
+
     /**
      * F4 - Get a list of patients who have more than one staff member assigned
      */
     public List<Patient> getPatientsWithMultipleStaff() {
-        List<Admission> allAdmissions = cacheService.getAllAdmissions();
-        List<Patient> allPatients = cacheService.getAllPatients();
-        List<Allocation> allAllocations = cacheService.getAllAllocations();
-        
-        // Count different staff members assigned to each admission
-        Map<Integer, Set<Integer>> staffByAdmission = new HashMap<>();
-        
-        for (Allocation allocation : allAllocations) {
-            staffByAdmission.computeIfAbsent(allocation.getAdmissionID(), k -> new HashSet<>())
-                    .add(allocation.getEmployeeID());
-        }
-        
-        // Find admission IDs with multiple staff
-        Set<Integer> multiStaffAdmissionIds = staffByAdmission.entrySet().stream()
-                .filter(entry -> entry.getValue().size() > 1)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
-        
-        // Find patient IDs corresponding to these admissions
-        Set<Integer> multiStaffPatientIds = allAdmissions.stream()
-                .filter(admission -> multiStaffAdmissionIds.contains(admission.getId()))
-                .map(Admission::getPatientID)
-                .collect(Collectors.toSet());
+        return getPatientsWithMultipleStaff(cacheService.getSnapshot());
+    }
+
+    public List<Patient> getPatientsWithMultipleStaff(DatasetSnapshot snapshot) {
+        // Patients whose admissions have more than one distinct staff member
+        Set<Integer> multiStaffPatientIds = snapshot.getMultiStaffPatientIds();
         
         // Return detailed information for these patients
-        return allPatients.stream()
-                .filter(patient -> multiStaffPatientIds.contains(patient.getId()))
-                .collect(Collectors.toList());
+        return filterPatients(snapshot, patient -> multiStaffPatientIds.contains(patient.getId()));
+    }
+
+    /**
+     * Patients with an admission staffed by at least k distinct employees, by patient ID.
+     * With a time window, only admissions whose stay overlaps it are considered.
+     */
+    public List<Patient> getPatientsWithMinStaff(int k, String from, String to) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+        if ((from == null) != (to == null)) {
+            throw new IllegalArgumentException("A time window needs both from and to");
+        }
+        DatasetSnapshot snapshot = cacheService.getSnapshot();
+
+        int[] patientIds;
+        if (from == null) {
+            // Threshold search over the per-patient staff counts kept with the snapshot
+            patientIds = snapshot.getPatientsWithMinStaff(k);
+        } else {
+            long[] range = TimeArguments.parseRange(from, to);
+            patientIds = snapshot.getAdmissionsOverlapping(range[0], range[1]).stream()
+                    .filter(admission -> admission.getPatientID() != null
+                            && snapshot.getStaffCount(admission.getId()) >= k)
+                    .mapToInt(Admission::getPatientID)
+                    .distinct()
+                    .toArray();
+        }
+        Arrays.sort(patientIds);
+
+        List<Patient> result = new ArrayList<>(patientIds.length);
+        for (int patientId : patientIds) {
+            Patient patient = snapshot.getPatient(patientId);
+            if (patient != null) {
+                result.add(patient);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Patients in the cohort described by an expression such as
+     * {@code readmitted AND multi-staff AND NOT admitted-in:2024}, in snapshot order.
+     * Cohorts: all, never-admitted (F1), readmitted (F2), readmitted-within:DAYS,
+     * multi-staff (F4), min-staff:K, and admitted-in:YYYY or admitted-in:YYYY-MM.
+     */
+    public List<Patient> getCohort(String expression) {
+        DatasetSnapshot snapshot = cacheService.getSnapshot();
+        PatientCohorts cohorts = snapshot.getCohorts();
+        BitSet result = CohortExpression.evaluate(expression, cohort -> resolveCohort(snapshot, cohort), cohorts.size());
+        return cohorts.patients(result);
+    }
+
+    private BitSet resolveCohort(DatasetSnapshot snapshot, String cohort) {
+        PatientCohorts cohorts = snapshot.getCohorts();
+        int colon = cohort.indexOf(':');
+        String name = (colon < 0 ? cohort : cohort.substring(0, colon)).toLowerCase(Locale.ROOT);
+        String argument = colon < 0 ? null : cohort.substring(colon + 1);
+        switch (name) {
+            case "all":
+                return cohorts.all();
+            case "never-admitted":
+                return cohorts.neverAdmitted();
+            case "readmitted":
+                requireReadmissionsParsed(snapshot);
+                return cohorts.readmitted();
+            case "readmitted-within":
+                requireReadmissionsParsed(snapshot);
+                return cohorts.of(snapshot.getPatientsReadmittedWithin(0, cohortNumber(cohort, argument)));
+            case "multi-staff":
+                return cohorts.multiStaff();
+            case "min-staff":
+                return cohorts.of(snapshot.getPatientsWithMinStaff(Math.max(1, cohortNumber(cohort, argument))));
+            case "admitted-in":
+                long[] range = cohortPeriod(cohort, argument);
+                return cohorts.of(snapshot.getAdmissionsAdmittedBetween(range[0], range[1]).stream()
+                        .filter(admission -> admission.getPatientID() != null)
+                        .mapToInt(Admission::getPatientID)
+                        .toArray());
+            default:
+                throw new IllegalArgumentException("Unknown cohort: " + cohort);
+        }
+    }
+
+    // Same failure as F2 when dates could not be parsed
+    private static void requireReadmissionsParsed(DatasetSnapshot snapshot) {
+        if (!snapshot.getReadmissionErrors().isEmpty()) {
+            throw new IllegalArgumentException(snapshot.getReadmissionErrors().values().iterator().next());
+        }
+    }
+
+    private static int cohortNumber(String cohort, String argument) {
+        try {
+            int value = Integer.parseInt(argument);
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Cohort needs a non-negative number: " + cohort);
+    }
+
+    // Epoch seconds of the year or month named by the argument
+    private static long[] cohortPeriod(String cohort, String argument) {
+        if (argument == null) {
+            throw new IllegalArgumentException("Cohort needs a year or month such as 2024 or 2024-03: " + cohort);
+        }
+        try {
+            if (argument.length() == 4) {
+                Year year = Year.parse(argument);
+                return new long[] { epochSecond(year.atDay(1)), epochSecond(year.plusYears(1).atDay(1)) };
+            }
+            YearMonth month = YearMonth.parse(argument);
+            return new long[] { epochSecond(month.atDay(1)), epochSecond(month.plusMonths(1).atDay(1)) };
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cohort needs a year or month such as 2024 or 2024-03: " + cohort);
+        }
+    }
+
+    private static long epochSecond(LocalDate date) {
+        return date.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Patients of the snapshot matching the predicate, in snapshot order; partitioned across
+     * a fork/join pool for large snapshots
+     */
+    private List<Patient> filterPatients(DatasetSnapshot snapshot, Predicate<Patient> keep) {
+        return PartitionedFilter.filter(snapshot.getPatients(), keep, parallelThreshold, pool());
+    }
+
+    private ForkJoinPool pool() {
+        if (parallelPoolSize <= 0) {
+            return ForkJoinPool.commonPool();
+        }
+        ForkJoinPool pool = dedicatedPool;
+        if (pool == null) {
+            synchronized (this) {
+                if (dedicatedPool == null) {
+                    dedicatedPool = new ForkJoinPool(parallelPoolSize);
+                }
+                pool = dedicatedPool;
+            }
+        }
+        return pool;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,195 @@
+package com.api.service;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admissions per month of admission as a primitive {@code int[]} indexed by month
+ * ordinal ({@code year * 12 + month - 1}) relative to the first month with admissions.
+ * Immutable; built and patched through {@link Counter} while the snapshot is derived.
+ */
+public final class MonthHistogram {
+
+    static final MonthHistogram EMPTY = new MonthHistogram(0, new int[0]);
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final int firstMonth;
+    private final int[] counts;
+    private final int maxCount;
+
+    private MonthHistogram(int firstMonth, int[] counts) {
+        this.firstMonth = firstMonth;
+        this.counts = counts;
+        int max = 0;
+        for (int count : counts) {
+            max = Math.max(max, count);
+        }
+        this.maxCount = max;
+    }
+
+    public boolean isEmpty() {
+        return counts.length == 0;
+    }
+
+    public int getCount(YearMonth month) {
+        int index = ordinal(month) - firstMonth;
+        return index >= 0 && index < counts.length ? counts[index] : 0;
+    }
+
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    /**
+     * Every month from the first to the last with admissions, including months without any
+     */
+    public Map<YearMonth, Integer> toMap() {
+        Map<YearMonth, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            result.put(month(firstMonth + i), counts[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Months with at least one admission
+     */
+    public Map<YearMonth, Integer> toNonEmptyMap() {
+        Map<YearMonth, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                result.put(month(firstMonth + i), counts[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All months sharing the highest count, earliest first
+     */
+    public List<YearMonth> getBusiestMonths() {
+        if (maxCount == 0) {
+            return Collections.emptyList();
+        }
+        List<YearMonth> result = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == maxCount) {
+                result.add(month(firstMonth + i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The k months with the most admissions, busiest first and earliest first among equal
+     * counts. With ties, months sharing the count of the k-th month are included as well.
+     */
+    public Map<YearMonth, Integer> top(int k, boolean withTies) {
+        // Rank as packed longs: descending count in the high half, month index in the low half
+        long[] ranked = new long[counts.length];
+        int size = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                ranked[size++] = ((long) (Integer.MAX_VALUE - counts[i]) << 32) | i;
+            }
+        }
+        Arrays.sort(ranked, 0, size);
+
+        Map<YearMonth, Integer> result = new LinkedHashMap<>();
+        int lastCount = -1;
+        for (int r = 0; r < size; r++) {
+            int index = (int) ranked[r];
+            int count = counts[index];
+            if (r >= k && !(withTies && count == lastCount)) {
+                break;
+            }
+            result.put(month(firstMonth + index), count);
+            lastCount = count;
+        }
+        return result;
+    }
+
+    Counter toCounter() {
+        return new Counter(firstMonth, Arrays.copyOf(counts, counts.length));
+    }
+
+    /**
+     * Month ordinal of a UTC epoch second, without creating any date objects
+     */
+    static int monthOrdinal(long epochSecond) {
+        // Civil-from-days conversion on the proleptic Gregorian calendar, eras of 400 years
+        long days = Math.floorDiv(epochSecond, SECONDS_PER_DAY) + 719_468;
+        long era = Math.floorDiv(days, 146_097);
+        long dayOfEra = days - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 12 + month - 1);
+    }
+
+    static int ordinal(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static YearMonth month(int ordinal) {
+        return YearMonth.of(Math.floorDiv(ordinal, 12), Math.floorMod(ordinal, 12) + 1);
+    }
+
+    /**
+     * Mutable counts that grow to cover whichever months are added
+     */
+    static final class Counter {
+        private int firstMonth;
+        private int[] counts;
+
+        Counter() {
+            this(0, new int[0]);
+        }
+
+        private Counter(int firstMonth, int[] counts) {
+            this.firstMonth = firstMonth;
+            this.counts = counts;
+        }
+
+        void add(int monthOrdinal, int change) {
+            if (counts.length == 0) {
+                firstMonth = monthOrdinal;
+                counts = new int[1];
+            } else if (monthOrdinal < firstMonth) {
+                int[] grown = new int[counts.length + firstMonth - monthOrdinal];
+                System.arraycopy(counts, 0, grown, firstMonth - monthOrdinal, counts.length);
+                counts = grown;
+                firstMonth = monthOrdinal;
+            } else if (monthOrdinal - firstMonth >= counts.length) {
+                counts = Arrays.copyOf(counts, monthOrdinal - firstMonth + 1);
+            }
+            counts[monthOrdinal - firstMonth] += change;
+        }
+
+        /**
+         * Histogram trimmed to the months from the first to the last with admissions
+         */
+        MonthHistogram build() {
+            int start = 0;
+            int end = counts.length;
+            while (start < end && counts[start] == 0) {
+                start++;
+            }
+            while (end > start && counts[end - 1] == 0) {
+                end--;
+            }
+            if (start == end) {
+                return EMPTY;
+            }
+            return new MonthHistogram(firstMonth + start, Arrays.copyOfRange(counts, start, end));
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.EpochSeconds;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Occupancy as a step function: the distinct start and end times in epoch seconds,
+ * ascending, each with the number of intervals in progress from that time until the next
+ * one, and the occupancy integrated up to that time. Built by one sweep over the sorted
+ * events; an interval counts from its start up to, not including, its end, and one
+ * without an end is still in progress. Used for the ward census, where the intervals are
+ * stays, and for staff caseloads, where they are allocations.
+ */
+final class OccupancyCurve {
+
+    static final OccupancyCurve EMPTY = new OccupancyCurve(new long[0], new int[0], new long[0]);
+
+    private final long[] times;
+    private final int[] occupancy;
+    // Occupancy integrated over time, in interval-seconds, up to each step
+    private final long[] area;
+
+    private OccupancyCurve(long[] times, int[] occupancy, long[] area) {
+        this.times = times;
+        this.occupancy = occupancy;
+        this.area = area;
+    }
+
+    /**
+     * Ward occupancy; stays with an unknown or unparseable date are left out
+     */
+    static OccupancyCurve of(List<Admission> admissions) {
+        return stays(admissions).sweep();
+    }
+
+    static Intervals stays(Collection<Admission> admissions) {
+        Intervals stays = new Intervals(admissions.size());
+        for (Admission admission : admissions) {
+            stays.add(admission.getAdmissionEpoch(), admission.getDischargeEpoch());
+        }
+        return stays;
+    }
+
+    /**
+     * Copy with the removed intervals taken out and the added ones put in. The step
+     * changes of this curve are merged with the events of the two sets of intervals,
+     * which is linear in the steps with only the changes sorted; steps left
+     * without any change are dropped, as they change no answer.
+     */
+    OccupancyCurve patch(Intervals removed, Intervals added) {
+        // Net change in occupancy by time, over the changed intervals only
+        TreeMap<Long, Integer> events = new TreeMap<>();
+        removed.addEvents(events, -1);
+        added.addEvents(events, 1);
+        Iterator<Map.Entry<Long, Integer>> pending = events.entrySet().iterator();
+        Map.Entry<Long, Integer> event = pending.hasNext() ? pending.next() : null;
+
+        long[] patchedTimes = new long[times.length + events.size()];
+        int[] patchedOccupancy = new int[patchedTimes.length];
+        long[] patchedArea = new long[patchedTimes.length];
+        int steps = 0;
+        int inProgress = 0;
+        int step = 0;
+        while (step < times.length || event != null) {
+            long time = event == null || (step < times.length && times[step] <= event.getKey())
+                    ? times[step] : event.getKey();
+            int change = 0;
+            if (step < times.length && times[step] == time) {
+                change += occupancy[step] - (step > 0 ? occupancy[step - 1] : 0);
+                step++;
+            }
+            if (event != null && event.getKey() == time) {
+                change += event.getValue();
+                event = pending.hasNext() ? pending.next() : null;
+            }
+            if (change == 0) {
+                continue;
+            }
+            if (steps > 0) {
+                patchedArea[steps] = patchedArea[steps - 1]
+                        + patchedOccupancy[steps - 1] * (time - patchedTimes[steps - 1]);
+            }
+            inProgress += change;
+            patchedTimes[steps] = time;
+            patchedOccupancy[steps] = inProgress;
+            steps++;
+        }
+        if (steps == 0) {
+            return EMPTY;
+        }
+        return new OccupancyCurve(Arrays.copyOf(patchedTimes, steps), Arrays.copyOf(patchedOccupancy, steps),
+                Arrays.copyOf(patchedArea, steps));
+    }
+
+    boolean isEmpty() {
+        return times.length == 0;
+    }
+
+    /**
+     * Start and end times collected for one sweep; intervals with an unknown or
+     * unparseable time, or that end before they start, are left out
+     */
+    static final class Intervals {
+        private long[] starts;
+        private long[] ends;
+        private int started;
+        private int ended;
+
+        Intervals(int capacity) {
+            starts = new long[capacity];
+            ends = new long[capacity];
+        }
+
+        void add(long start, long end) {
+            if (!EpochSeconds.isKnown(start) || end == EpochSeconds.INVALID || end <= start) {
+                return;
+            }
+            if (started == starts.length) {
+                starts = Arrays.copyOf(starts, Math.max(8, started * 2));
+                ends = Arrays.copyOf(ends, starts.length);
+            }
+            starts[started++] = start;
+            if (end != EpochSeconds.OPEN) {
+                ends[ended++] = end;
+            }
+        }
+
+        // Adds sign to the occupancy change at each start and takes it off at each end
+        private void addEvents(Map<Long, Integer> events, int sign) {
+            for (int i = 0; i < started; i++) {
+                events.merge(starts[i], sign, Integer::sum);
+            }
+            for (int i = 0; i < ended; i++) {
+                events.merge(ends[i], -sign, Integer::sum);
+            }
+        }
+
+        OccupancyCurve sweep() {
+            if (started == 0) {
+                return EMPTY;
+            }
+            Arrays.sort(starts, 0, started);
+            Arrays.sort(ends, 0, ended);
+
+            // Merge both event streams, one step per distinct time
+            long[] times = new long[started + ended];
+            int[] occupancy = new int[started + ended];
+            long[] area = new long[started + ended];
+            int steps = 0;
+            int inProgress = 0;
+            int s = 0;
+            int e = 0;
+            while (s < started || e < ended) {
+                long time = e == ended || (s < started && starts[s] < ends[e]) ? starts[s] : ends[e];
+                if (steps > 0) {
+                    area[steps] = area[steps - 1] + occupancy[steps - 1] * (time - times[steps - 1]);
+                }
+                while (s < started && starts[s] == time) {
+                    inProgress++;
+                    s++;
+                }
+                while (e < ended && ends[e] == time) {
+                    inProgress--;
+                    e++;
+                }
+                times[steps] = time;
+                occupancy[steps] = inProgress;
+                steps++;
+            }
+            return new OccupancyCurve(Arrays.copyOf(times, steps), Arrays.copyOf(occupancy, steps),
+                    Arrays.copyOf(area, steps));
+        }
+    }
+
+    /**
+     * Intervals in progress at the given time
+     */
+    int at(long time) {
+        int step = lastStepAtOrBefore(time);
+        return step < 0 ? 0 : occupancy[step];
+    }
+
+    /**
+     * Intervals in progress at {@code from}, {@code from + step}, ... up to, not including, {@code to}
+     */
+    int[] series(long from, long to, long step) {
+        int points = from < to ? (int) ((to - from - 1) / step + 1) : 0;
+        int[] result = new int[points];
+        int current = lastStepAtOrBefore(from);
+        long time = from;
+        for (int i = 0; i < points; i++, time += step) {
+            // Sample times ascend, so walk forward from the previous step instead of searching again
+            while (current + 1 < times.length && times[current + 1] <= time) {
+                current++;
+            }
+            result[i] = current < 0 ? 0 : occupancy[current];
+        }
+        return result;
+    }
+
+    /**
+     * Total seconds covered by the intervals between {@code from} and {@code to}, counting
+     * overlapping intervals separately
+     */
+    long secondsBetween(long from, long to) {
+        return from < to ? areaBefore(to) - areaBefore(from) : 0;
+    }
+
+    private long areaBefore(long time) {
+        int step = lastStepAtOrBefore(time);
+        return step < 0 ? 0 : area[step] + occupancy[step] * (time - times[step]);
+    }
+
+    private int lastStepAtOrBefore(long time) {
+        int low = 0;
+        int high = times.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+}
@@ -0,0 +1,149 @@
+package com.api.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Occupancy over time: the ward census from the stays and staff caseloads and hours from
+ * the allocations, answered from the occupancy curves kept with the snapshot
+ */
+@Service
+public class OccupancyService {
+
+    private final DataCacheService cacheService;
+
+    @Value("${census.series.max-points:10000}")
+    private int maxSeriesPoints = 10_000;
+
+    @Autowired
+    public OccupancyService(DataCacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    /**
+     * Number of patients on the ward at the given ISO date or date-time, or now when none
+     * is given. Patients not yet discharged count as on the ward.
+     */
+    public Map<String, Object> getCensus(String at) {
+        long time = TimeArguments.parseTimeOrNow(at);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("at", TimeArguments.formatTime(time));
+        result.put("patients", cacheService.getSnapshot().getCensusAt(time));
+        return result;
+    }
+
+    /**
+     * Number of patients on the ward at every step from {@code from} up to, not including,
+     * {@code to}; a plain date as {@code to} includes that day. The step is an ISO-8601
+     * duration such as PT1H.
+     */
+    public Map<String, Integer> getCensusSeries(String from, String to, String step) {
+        long start = TimeArguments.parseTime(from, false);
+        long end = TimeArguments.parseTime(to, true);
+        long stepSeconds;
+        try {
+            stepSeconds = Duration.parse(step).getSeconds();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Unable to parse step: " + step);
+        }
+        if (stepSeconds < 1) {
+            throw new IllegalArgumentException("Step must be at least one second");
+        }
+        if (start > end || (end - start - 1) / stepSeconds >= maxSeriesPoints) {
+            throw new IllegalArgumentException("Series must run forwards and have at most " + maxSeriesPoints + " points");
+        }
+
+        int[] census = cacheService.getSnapshot().getCensusSeries(start, end, stepSeconds);
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < census.length; i++) {
+            result.put(TimeArguments.formatTime(start + i * stepSeconds), census[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Employees with allocations in progress at the given ISO date or date-time, or now,
+     * and how many, busiest first
+     */
+    public Map<Integer, Integer> getCaseloads(String at) {
+        return cacheService.getSnapshot().getCaseloadsAt(TimeArguments.parseTimeOrNow(at));
+    }
+
+    /**
+     * Number of the employee's allocations in progress at the given time, or now; null
+     * when there is no such employee
+     */
+    public Map<String, Object> getCaseload(int employeeId, String at) {
+        DatasetSnapshot snapshot = cacheService.getSnapshot();
+        if (snapshot.getEmployee(employeeId) == null) {
+            return null;
+        }
+        long time = TimeArguments.parseTimeOrNow(at);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("employeeId", employeeId);
+        result.put("at", TimeArguments.formatTime(time));
+        result.put("patients", snapshot.getCaseloadAt(employeeId, time));
+        return result;
+    }
+
+    /**
+     * Hours the employee was allocated in each week, Monday to Monday, from the week
+     * containing {@code from} to the one containing {@code to}; null when there is no such
+     * employee. Concurrent allocations count separately and open ones keep counting.
+     */
+    public Map<String, Double> getWeeklyHours(int employeeId, String from, String to) {
+        DatasetSnapshot snapshot = cacheService.getSnapshot();
+        if (snapshot.getEmployee(employeeId) == null) {
+            return null;
+        }
+        LocalDate firstWeek = weekStart(TimeArguments.parseTime(from, false));
+        LocalDate lastWeek = weekStart(TimeArguments.parseTime(to, true) - 1);
+        if (firstWeek.isAfter(lastWeek) || firstWeek.plusWeeks(maxSeriesPoints).isBefore(lastWeek.plusWeeks(1))) {
+            throw new IllegalArgumentException("Weeks must run forwards and number at most " + maxSeriesPoints);
+        }
+
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (LocalDate week = firstWeek; !week.isAfter(lastWeek); week = week.plusWeeks(1)) {
+            long start = week.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            long seconds = snapshot.getAllocatedSeconds(employeeId, start, start + 7 * 86_400L);
+            result.put(week.toString(), hours(seconds));
+        }
+        return result;
+    }
+
+    /**
+     * The k employees with the most allocated hours between {@code from} and {@code to},
+     * busiest first
+     */
+    public Map<Integer, Double> getBusiestEmployees(int k, String from, String to) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+        long[] range = TimeArguments.parseRange(from, to);
+        Map<Integer, Double> result = new LinkedHashMap<>();
+        cacheService.getSnapshot().getBusiestEmployees(k, range[0], range[1])
+                .forEach((employeeId, seconds) -> result.put(employeeId, hours(seconds)));
+        return result;
+    }
+
+    private static LocalDate weekStart(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC).toLocalDate()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    // Hours to two decimal places
+    private static double hours(long seconds) {
+        return Math.round(seconds / 36.0) / 100.0;
+    }
+}
@@ -0,0 +1,77 @@
+package com.api.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Filters a random-access list by splitting it into index ranges that a fork/join pool
+ * filters concurrently, then joins the partial results in list order, so the result is
+ * the same as filtering sequentially. Lists shorter than the threshold are filtered on
+ * the calling thread.
+ */
+final class PartitionedFilter {
+
+    // Smallest range worth handing to another worker
+    private static final int MIN_PARTITION = 4_096;
+
+    private PartitionedFilter() {
+    }
+
+    /**
+     * Records matching the predicate, in list order; a threshold of 0 or less always
+     * filters sequentially
+     */
+    static <T> List<T> filter(List<T> records, Predicate<? super T> keep, int threshold, ForkJoinPool pool) {
+        if (threshold <= 0 || records.size() < threshold || pool.getParallelism() < 2) {
+            return filterRange(records, keep, 0, records.size());
+        }
+        // A few partitions per worker, so a slow one does not hold up the rest
+        int partition = Math.max(MIN_PARTITION, records.size() / (pool.getParallelism() * 4));
+        return pool.invoke(new FilterTask<>(records, keep, 0, records.size(), partition));
+    }
+
+    private static <T> List<T> filterRange(List<T> records, Predicate<? super T> keep, int from, int to) {
+        List<T> result = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            T record = records.get(i);
+            if (keep.test(record)) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    private static final class FilterTask<T> extends RecursiveTask<List<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> records;
+        private final Predicate<? super T> keep;
+        private final int from;
+        private final int to;
+        private final int partition;
+
+        FilterTask(List<T> records, Predicate<? super T> keep, int from, int to, int partition) {
+            this.records = records;
+            this.keep = keep;
+            this.from = from;
+            this.to = to;
+            this.partition = partition;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (to - from <= partition) {
+                return filterRange(records, keep, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            FilterTask<T> right = new FilterTask<>(records, keep, middle, to, partition);
+            right.fork();
+            List<T> result = new FilterTask<>(records, keep, from, middle, partition).compute();
+            result.addAll(right.join());
+            return result;
+        }
+    }
+}
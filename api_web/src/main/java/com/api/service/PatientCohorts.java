@@ -0,0 +1,144 @@
+package com.api.service;
+
+import com.api.model.Patient;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Patient cohorts as bitmaps over dense patient ordinals, the positions of the patients
+ * in the snapshot. The fixed cohorts behind F1, F2 and F4 are built with the snapshot;
+ * parameterised ones are turned into bitmaps from the snapshot's indices when asked for.
+ * Callers must not modify the bitmaps returned.
+ */
+final class PatientCohorts {
+
+    private final List<Patient> patients;
+    private final Map<Integer, Integer> ordinals;
+    private final BitSet all;
+    private final BitSet neverAdmitted;
+    private final BitSet readmitted;
+    private final BitSet multiStaff;
+
+    private PatientCohorts(PatientCohorts base, BitSet neverAdmitted, BitSet readmitted, BitSet multiStaff) {
+        this.patients = base.patients;
+        this.ordinals = base.ordinals;
+        this.all = base.all;
+        this.neverAdmitted = neverAdmitted;
+        this.readmitted = readmitted;
+        this.multiStaff = multiStaff;
+    }
+
+    private PatientCohorts(DatasetSnapshot snapshot) {
+        this.patients = snapshot.getPatients();
+        this.ordinals = new HashMap<>(patients.size() * 4 / 3 + 1);
+        this.all = new BitSet(patients.size());
+        this.neverAdmitted = new BitSet(patients.size());
+        for (int ordinal = 0; ordinal < patients.size(); ordinal++) {
+            Integer id = patients.get(ordinal).getId();
+            ordinals.putIfAbsent(id, ordinal);
+            all.set(ordinal);
+            if (!snapshot.hasAdmissions(id)) {
+                neverAdmitted.set(ordinal);
+            }
+        }
+        this.readmitted = of(snapshot.getReadmittedPatientIds());
+        this.multiStaff = of(snapshot.getMultiStaffPatientIds());
+    }
+
+    static PatientCohorts of(DatasetSnapshot snapshot) {
+        return new PatientCohorts(snapshot);
+    }
+
+    /**
+     * Cohorts of a snapshot with the same patients as this one's, where only the given
+     * patients may have changed cohort. The ordinals are shared and only those patients'
+     * bits are updated in copies of the fixed cohorts.
+     */
+    PatientCohorts patch(DatasetSnapshot snapshot, Set<Integer> affectedPatients) {
+        BitSet patchedNeverAdmitted = (BitSet) neverAdmitted.clone();
+        BitSet patchedReadmitted = (BitSet) readmitted.clone();
+        BitSet patchedMultiStaff = (BitSet) multiStaff.clone();
+        Set<Integer> readmittedIds = snapshot.getReadmittedPatientIds();
+        Set<Integer> multiStaffIds = snapshot.getMultiStaffPatientIds();
+        for (Integer patientId : affectedPatients) {
+            Integer ordinal = patientId != null ? ordinals.get(patientId) : null;
+            if (ordinal != null) {
+                patchedNeverAdmitted.set(ordinal, !snapshot.hasAdmissions(patientId));
+                patchedReadmitted.set(ordinal, readmittedIds.contains(patientId));
+                patchedMultiStaff.set(ordinal, multiStaffIds.contains(patientId));
+            }
+        }
+        return new PatientCohorts(this, patchedNeverAdmitted, patchedReadmitted, patchedMultiStaff);
+    }
+
+    int size() {
+        return patients.size();
+    }
+
+    BitSet all() {
+        return all;
+    }
+
+    /**
+     * F1: patients without any admission
+     */
+    BitSet neverAdmitted() {
+        return neverAdmitted;
+    }
+
+    /**
+     * F2: patients readmitted within 7 days of a discharge
+     */
+    BitSet readmitted() {
+        return readmitted;
+    }
+
+    /**
+     * F4: patients with an admission staffed by more than one employee
+     */
+    BitSet multiStaff() {
+        return multiStaff;
+    }
+
+    /**
+     * Bitmap of the given patient IDs; IDs of unknown patients are ignored
+     */
+    BitSet of(int[] patientIds) {
+        BitSet bits = new BitSet(patients.size());
+        for (int patientId : patientIds) {
+            set(bits, patientId);
+        }
+        return bits;
+    }
+
+    BitSet of(Set<Integer> patientIds) {
+        BitSet bits = new BitSet(patients.size());
+        for (Integer patientId : patientIds) {
+            set(bits, patientId);
+        }
+        return bits;
+    }
+
+    private void set(BitSet bits, Integer patientId) {
+        Integer ordinal = ordinals.get(patientId);
+        if (ordinal != null) {
+            bits.set(ordinal);
+        }
+    }
+
+    /**
+     * Patients in the bitmap, in snapshot order
+     */
+    List<Patient> patients(BitSet bits) {
+        List<Patient> result = new ArrayList<>(bits.cardinality());
+        for (int ordinal = bits.nextSetBit(0); ordinal >= 0; ordinal = bits.nextSetBit(ordinal + 1)) {
+            result.add(patients.get(ordinal));
+        }
+        return result;
+    }
+}
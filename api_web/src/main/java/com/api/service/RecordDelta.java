@@ -0,0 +1,95 @@
+package com.api.service;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Difference between the cached records of a collection and a freshly fetched copy,
+ * matched by ID and compared by record hash and equality.
+ */
+public final class RecordDelta<T> {
+
+    private final List<T> added;
+    private final List<T> removed;
+    private final List<T> changed;
+
+    private RecordDelta(List<T> added, List<T> removed, List<T> changed) {
+        this.added = added;
+        this.removed = removed;
+        this.changed = changed;
+    }
+
+    /**
+     * Diff the incoming records against the current ones. Costs one hash lookup and
+     * comparison per record, far less than rebuilding the indices they feed.
+     *
+     * @param current  records currently cached
+     * @param lookup   current record by ID
+     * @param incoming freshly fetched records
+     * @param idOf     ID of a record
+     */
+    public static <T> RecordDelta<T> diff(List<T> current, Function<Integer, T> lookup,
+                                          List<T> incoming, Function<T, Integer> idOf) {
+        List<T> added = new ArrayList<>();
+        List<T> changed = new ArrayList<>();
+        Set<Integer> incomingIds = new HashSet<>(incoming.size() * 2);
+        for (T record : incoming) {
+            Integer id = idOf.apply(record);
+            incomingIds.add(id);
+            T existing = lookup.apply(id);
+            if (existing == null) {
+                added.add(record);
+            } else if (existing.hashCode() != record.hashCode() || !existing.equals(record)) {
+                changed.add(record);
+            }
+        }
+
+        List<T> removed = new ArrayList<>();
+        if (incomingIds.size() - added.size() != current.size()) {
+            for (T record : current) {
+                if (!incomingIds.contains(idOf.apply(record))) {
+                    removed.add(record);
+                }
+            }
+        }
+        return new RecordDelta<>(added, removed, changed);
+    }
+
+    /**
+     * Records whose ID is not cached yet
+     */
+    public List<T> getAdded() {
+        return added;
+    }
+
+    /**
+     * Cached records whose ID is no longer present upstream
+     */
+    public List<T> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * New versions of cached records whose content differs
+     */
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    public int size() {
+        return added.size() + removed.size() + changed.size();
+    }
+
+    @Override
+    public String toString() {
+        return "RecordDelta{" +
+                "added=" + added.size() +
+                ", removed=" + removed.size() +
+                ", changed=" + changed.size() +
+                '}';
+    }
+}
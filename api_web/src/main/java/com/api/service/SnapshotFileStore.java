@@ -0,0 +1,342 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.Allocation;
+import com.api.model.Employee;
+import com.api.model.Patient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Persists the last fully loaded snapshot to a compact binary file so a restarted node
+ * can serve from it immediately. The file is written to a temporary sibling and moved
+ * into place, so a crash mid-write never leaves a truncated snapshot behind; it is read
+ * back in one pass and rejected if its checksum does not match.
+ * <p>
+ * The file holds patient records, so persistence is off unless enabled with an explicit
+ * path, and the file and any directories created for it are readable by the owner only.
+ * Snapshots are written on a background thread rather than the refreshing one; when
+ * several are published while a write is in progress only the newest is written next.
+ * <p>
+ * Layout: magic, format version, snapshot version, then the four collections as a
+ * record count followed by their fields, and a trailing CRC32 of everything before it.
+ * Strings are length-prefixed UTF-8 and integers carry a null marker.
+ */
+@Component
+public class SnapshotFileStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotFileStore.class);
+
+    private static final int MAGIC = 0x4D415453; // "MATS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int NULL_LENGTH = -1;
+
+    private static final String OWNER_ONLY_FILE = "rw-------";
+    private static final String OWNER_ONLY_DIRECTORY = "rwx------";
+
+    @Value("${cache.snapshot.enabled:false}")
+    private boolean enabled = false;
+
+    // No default: the file must go where only this service can read it
+    @Value("${cache.snapshot.path:}")
+    private String location = "";
+
+    private Path path;
+
+    // Version of the snapshot currently on disk, to skip rewriting an unchanged snapshot
+    private volatile long savedVersion = -1;
+
+    // Newest snapshot waiting to be written, null while none is
+    private final AtomicReference<DatasetSnapshot> pending = new AtomicReference<>();
+
+    // Writes the pending snapshot; only started when persistence is enabled with a path
+    private ExecutorService writer;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (location.isBlank()) {
+            log.warn("Snapshot persistence is enabled but cache.snapshot.path is not set; not persisting");
+            return;
+        }
+        path = Paths.get(location);
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Finish writing the newest published snapshot, then stop the writer
+     */
+    @PreDestroy
+    public void stop() {
+        if (!isEnabled()) {
+            return;
+        }
+        flush();
+        writer.shutdown();
+    }
+
+    /**
+     * Read the persisted snapshot, or empty if there is none or it cannot be used
+     */
+    public Optional<DatasetSnapshot> load() {
+        if (!isEnabled() || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try {
+            DatasetSnapshot snapshot = read(ByteBuffer.wrap(Files.readAllBytes(path)));
+            savedVersion = snapshot.getVersion();
+            log.info("Loaded persisted snapshot {} from {}", snapshot, path);
+            return Optional.of(snapshot);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring persisted snapshot {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Persist a fully loaded snapshot in the background, replacing the previous file atomically
+     */
+    public void save(DatasetSnapshot snapshot) {
+        if (!isEnabled() || !snapshot.isFullyLoaded()) {
+            return;
+        }
+        if (pending.getAndSet(snapshot) == null) {
+            writer.execute(() -> persist(pending.getAndSet(null)));
+        }
+    }
+
+    /**
+     * Wait until the snapshots saved so far have been written
+     */
+    void flush() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            writer.submit(() -> { }).get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+            log.warn("Waiting for the snapshot to be written failed: {}", e.toString());
+        }
+    }
+
+    private boolean isEnabled() {
+        return writer != null;
+    }
+
+    private void persist(DatasetSnapshot snapshot) {
+        if (snapshot == null || snapshot.getVersion() == savedVersion) {
+            return;
+        }
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory, ownerOnly(directory, OWNER_ONLY_DIRECTORY));
+            Path temp = Files.createTempFile(directory, "snapshot", ".tmp", ownerOnly(directory, OWNER_ONLY_FILE));
+            try {
+                try (OutputStream file = Files.newOutputStream(temp)) {
+                    write(snapshot, file);
+                }
+                moveIntoPlace(temp);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            savedVersion = snapshot.getVersion();
+            log.debug("Persisted snapshot {} to {}", snapshot, path);
+        } catch (IOException e) {
+            log.warn("Persisting snapshot to {} failed: {}", path, e.toString());
+        }
+    }
+
+    // POSIX permissions where the file system has them; elsewhere the platform default applies
+    private static FileAttribute<?>[] ownerOnly(Path directory, String permissions) {
+        if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return new FileAttribute<?>[0];
+        }
+        return new FileAttribute<?>[] { PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions)) };
+    }
+
+    private void moveIntoPlace(Path temp) throws IOException {
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static void write(DatasetSnapshot snapshot, OutputStream target) throws IOException {
+        CRC32 crc = new CRC32();
+        DataOutputStream out = new DataOutputStream(
+                new CheckedOutputStream(new BufferedOutputStream(target, 64 * 1024), crc));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(snapshot.getVersion());
+
+        out.writeInt(snapshot.getPatients().size());
+        for (Patient patient : snapshot.getPatients()) {
+            writeInteger(out, patient.getId());
+            writeString(out, patient.getSurname());
+            writeString(out, patient.getForename());
+            writeString(out, patient.getNhsNumber());
+        }
+        out.writeInt(snapshot.getAdmissions().size());
+        for (Admission admission : snapshot.getAdmissions()) {
+            writeInteger(out, admission.getId());
+            writeString(out, admission.getAdmissionDate());
+            writeString(out, admission.getDischargeDate());
+            writeInteger(out, admission.getPatientID());
+        }
+        out.writeInt(snapshot.getEmployees().size());
+        for (Employee employee : snapshot.getEmployees()) {
+            writeInteger(out, employee.getId());
+            writeString(out, employee.getSurname());
+            writeString(out, employee.getForename());
+        }
+        out.writeInt(snapshot.getAllocations().size());
+        for (Allocation allocation : snapshot.getAllocations()) {
+            writeInteger(out, allocation.getId());
+            writeInteger(out, allocation.getAdmissionID());
+            writeInteger(out, allocation.getEmployeeID());
+            writeString(out, allocation.getStartTime());
+            writeString(out, allocation.getEndTime());
+        }
+
+        // The checksum itself is written past the checked stream
+        out.flush();
+        DataOutputStream trailer = new DataOutputStream(target);
+        trailer.writeLong(crc.getValue());
+        trailer.flush();
+    }
+
+    static DatasetSnapshot read(ByteBuffer buffer) {
+        try {
+            int payloadLength = buffer.limit() - Long.BYTES;
+            CRC32 crc = new CRC32();
+            ByteBuffer payload = buffer.duplicate();
+            payload.limit(payloadLength);
+            crc.update(payload);
+            if (buffer.getLong(payloadLength) != crc.getValue()) {
+                throw new IllegalStateException("Checksum mismatch");
+            }
+            buffer.limit(payloadLength);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported snapshot format");
+            }
+            long version = buffer.getLong();
+
+            int patientCount = buffer.getInt();
+            List<Patient> patients = new ArrayList<>(patientCount);
+            for (int i = 0; i < patientCount; i++) {
+                Patient patient = new Patient();
+                patient.setId(readInteger(buffer));
+                patient.setSurname(readString(buffer));
+                patient.setForename(readString(buffer));
+                patient.setNhsNumber(readString(buffer));
+                patients.add(patient);
+            }
+            int admissionCount = buffer.getInt();
+            List<Admission> admissions = new ArrayList<>(admissionCount);
+            for (int i = 0; i < admissionCount; i++) {
+                Admission admission = new Admission();
+                admission.setId(readInteger(buffer));
+                admission.setAdmissionDate(readString(buffer));
+                admission.setDischargeDate(readString(buffer));
+                admission.setPatientID(readInteger(buffer));
+                admissions.add(admission);
+            }
+            int employeeCount = buffer.getInt();
+            List<Employee> employees = new ArrayList<>(employeeCount);
+            for (int i = 0; i < employeeCount; i++) {
+                Employee employee = new Employee();
+                employee.setId(readInteger(buffer));
+                employee.setSurname(readString(buffer));
+                employee.setForename(readString(buffer));
+                employees.add(employee);
+            }
+            int allocationCount = buffer.getInt();
+            List<Allocation> allocations = new ArrayList<>(allocationCount);
+            for (int i = 0; i < allocationCount; i++) {
+                Allocation allocation = new Allocation();
+                allocation.setId(readInteger(buffer));
+                allocation.setAdmissionID(readInteger(buffer));
+                allocation.setEmployeeID(readInteger(buffer));
+                allocation.setStartTime(readString(buffer));
+                allocation.setEndTime(readString(buffer));
+                allocations.add(allocation);
+            }
+
+            return DatasetSnapshot.builder(version)
+                    .patients(patients)
+                    .admissions(admissions)
+                    .employees(employees)
+                    .allocations(allocations)
+                    .build();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IllegalStateException("Truncated snapshot", e);
+        }
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(ByteBuffer buffer) {
+        return buffer.get() != 0 ? buffer.getInt() : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
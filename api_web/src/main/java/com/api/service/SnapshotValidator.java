@@ -0,0 +1,138 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.Allocation;
+import com.api.model.EpochSeconds;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Sanity checks a refreshed snapshot must pass before it replaces the last good one.
+ * Only collections that changed in the refresh are checked:
+ * <ul>
+ *     <li>record count: a loaded collection may not shrink by more than the allowed fraction</li>
+ *     <li>referential integrity: the fraction of admissions pointing at a known patient, and of
+ *     allocations pointing at a known admission and employee, must reach the minimum</li>
+ *     <li>parse errors: the fraction of admissions and allocations with unparseable dates must
+ *     stay within the budget</li>
+ * </ul>
+ */
+final class SnapshotValidator {
+
+    private final double maxShrink;
+    private final double minReferenceRatio;
+    private final double maxParseErrorRatio;
+
+    SnapshotValidator(double maxShrink, double minReferenceRatio, double maxParseErrorRatio) {
+        this.maxShrink = maxShrink;
+        this.minReferenceRatio = minReferenceRatio;
+        this.maxParseErrorRatio = maxParseErrorRatio;
+    }
+
+    /**
+     * Collections whose records differ between the two snapshots
+     */
+    static Set<DatasetCollection> changedCollections(DatasetSnapshot lastGood, DatasetSnapshot candidate) {
+        EnumSet<DatasetCollection> changed = EnumSet.noneOf(DatasetCollection.class);
+        for (DatasetCollection collection : DatasetCollection.values()) {
+            // Unchanged collections are carried over by reference
+            if (lastGood.isLoaded(collection) != candidate.isLoaded(collection)
+                    || recordsOf(lastGood, collection) != recordsOf(candidate, collection)) {
+                changed.add(collection);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Reasons to reject the candidate, empty when it may be published
+     */
+    List<String> validate(DatasetSnapshot lastGood, DatasetSnapshot candidate) {
+        List<String> problems = new ArrayList<>();
+        Set<DatasetCollection> changed = changedCollections(lastGood, candidate);
+
+        for (DatasetCollection collection : changed) {
+            if (!lastGood.isLoaded(collection) || !candidate.isLoaded(collection)) {
+                continue; // Nothing to compare a first load against
+            }
+            int before = recordsOf(lastGood, collection).size();
+            int after = recordsOf(candidate, collection).size();
+            if (after < before * (1 - maxShrink)) {
+                problems.add(collection + " shrank from " + before + " to " + after + " records");
+            }
+        }
+
+        if (changed.contains(DatasetCollection.ADMISSIONS) || changed.contains(DatasetCollection.PATIENTS)) {
+            checkReferences(problems, candidate, "admissions referencing a known patient",
+                    DatasetCollection.ADMISSIONS, DatasetCollection.PATIENTS, candidate.getAdmissions(),
+                    admission -> candidate.getPatient(admission.getPatientID()) != null);
+        }
+        if (changed.contains(DatasetCollection.ALLOCATIONS) || changed.contains(DatasetCollection.ADMISSIONS)) {
+            checkReferences(problems, candidate, "allocations referencing a known admission",
+                    DatasetCollection.ALLOCATIONS, DatasetCollection.ADMISSIONS, candidate.getAllocations(),
+                    allocation -> candidate.getAdmission(allocation.getAdmissionID()) != null);
+        }
+        if (changed.contains(DatasetCollection.ALLOCATIONS) || changed.contains(DatasetCollection.EMPLOYEES)) {
+            checkReferences(problems, candidate, "allocations referencing a known employee",
+                    DatasetCollection.ALLOCATIONS, DatasetCollection.EMPLOYEES, candidate.getAllocations(),
+                    allocation -> candidate.getEmployee(allocation.getEmployeeID()) != null);
+        }
+
+        if (changed.contains(DatasetCollection.ADMISSIONS)) {
+            checkParseErrors(problems, DatasetCollection.ADMISSIONS, candidate.getAdmissions(),
+                    (Admission admission) -> admission.getAdmissionEpoch() != EpochSeconds.INVALID
+                            && admission.getDischargeEpoch() != EpochSeconds.INVALID);
+        }
+        if (changed.contains(DatasetCollection.ALLOCATIONS)) {
+            checkParseErrors(problems, DatasetCollection.ALLOCATIONS, candidate.getAllocations(),
+                    (Allocation allocation) -> allocation.getStartEpoch() != EpochSeconds.INVALID
+                            && allocation.getEndEpoch() != EpochSeconds.INVALID);
+        }
+        return problems;
+    }
+
+    private <T> void checkReferences(List<String> problems, DatasetSnapshot candidate, String description,
+                                     DatasetCollection referencing, DatasetCollection referenced,
+                                     List<T> records, Predicate<T> resolves) {
+        if (!candidate.isLoaded(referencing) || !candidate.isLoaded(referenced) || records.isEmpty()) {
+            return;
+        }
+        long resolved = records.stream().filter(resolves).count();
+        double ratio = (double) resolved / records.size();
+        if (ratio < minReferenceRatio) {
+            problems.add(String.format("only %.1f%% of %s", ratio * 100, description));
+        }
+    }
+
+    private <T> void checkParseErrors(List<String> problems, DatasetCollection collection,
+                                      List<T> records, Predicate<T> parsesCleanly) {
+        if (records.isEmpty()) {
+            return;
+        }
+        long errors = records.stream().filter(parsesCleanly.negate()).count();
+        double ratio = (double) errors / records.size();
+        if (ratio > maxParseErrorRatio) {
+            problems.add(String.format("%d of %d %s records have unparseable dates",
+                    errors, records.size(), collection));
+        }
+    }
+
+    private static List<?> recordsOf(DatasetSnapshot snapshot, DatasetCollection collection) {
+        switch (collection) {
+            case PATIENTS:
+                return snapshot.getPatients();
+            case ADMISSIONS:
+                return snapshot.getAdmissions();
+            case EMPLOYEES:
+                return snapshot.getEmployees();
+            case ALLOCATIONS:
+                return snapshot.getAllocations();
+            default:
+                throw new IllegalArgumentException("Unknown collection: " + collection);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.api.service;
+
+import com.api.model.Allocation;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-employee occupancy curves over allocation [start, end) intervals, swept once when
+ * the allocations are loaded and patched per affected employee on a refresh. Caseload at a time and allocated hours over a period are
+ * each a binary search on the employee's curve; an allocation without an end is still
+ * in progress and keeps adding hours.
+ */
+final class StaffWorkload {
+
+    static final StaffWorkload EMPTY = new StaffWorkload(Collections.emptyMap());
+
+    private final Map<Integer, OccupancyCurve> byEmployee;
+    private final int[] employeeIds;
+
+    private StaffWorkload(Map<Integer, OccupancyCurve> byEmployee) {
+        this.byEmployee = byEmployee;
+        this.employeeIds = byEmployee.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    static StaffWorkload of(List<Allocation> allocations) {
+        Map<Integer, OccupancyCurve.Intervals> intervals = intervalsByEmployee(allocations);
+        Map<Integer, OccupancyCurve> byEmployee = new HashMap<>();
+        intervals.forEach((employeeId, employeeIntervals) -> byEmployee.put(employeeId, employeeIntervals.sweep()));
+        return new StaffWorkload(byEmployee);
+    }
+
+    /**
+     * Copy with the outgoing allocations taken out and the incoming ones put in. Only the
+     * curves of the employees they belong to are patched; the others are shared.
+     */
+    StaffWorkload patch(Collection<Allocation> outgoing, Collection<Allocation> incoming) {
+        Map<Integer, OccupancyCurve.Intervals> removed = intervalsByEmployee(outgoing);
+        Map<Integer, OccupancyCurve.Intervals> added = intervalsByEmployee(incoming);
+        Set<Integer> affected = new HashSet<>(removed.keySet());
+        affected.addAll(added.keySet());
+
+        Map<Integer, OccupancyCurve> patched = new HashMap<>(byEmployee);
+        OccupancyCurve.Intervals none = new OccupancyCurve.Intervals(0);
+        for (Integer employeeId : affected) {
+            OccupancyCurve curve = byEmployee.getOrDefault(employeeId, OccupancyCurve.EMPTY)
+                    .patch(removed.getOrDefault(employeeId, none), added.getOrDefault(employeeId, none));
+            if (curve.isEmpty()) {
+                patched.remove(employeeId);
+            } else {
+                patched.put(employeeId, curve);
+            }
+        }
+        return new StaffWorkload(patched);
+    }
+
+    private static Map<Integer, OccupancyCurve.Intervals> intervalsByEmployee(Collection<Allocation> allocations) {
+        Map<Integer, OccupancyCurve.Intervals> intervals = new HashMap<>();
+        for (Allocation allocation : allocations) {
+            if (allocation.getEmployeeID() != null) {
+                intervals.computeIfAbsent(allocation.getEmployeeID(), id -> new OccupancyCurve.Intervals(8))
+                        .add(allocation.getStartEpoch(), allocation.getEndEpoch());
+            }
+        }
+        return intervals;
+    }
+
+    /**
+     * Allocations of the employee in progress at the given time
+     */
+    int caseloadAt(int employeeId, long time) {
+        return byEmployee.getOrDefault(employeeId, OccupancyCurve.EMPTY).at(time);
+    }
+
+    /**
+     * Employees with at least one allocation in progress at the given time and how many,
+     * busiest first and by employee ID among equal caseloads
+     */
+    Map<Integer, Integer> caseloadsAt(long time) {
+        long[] ranked = new long[employeeIds.length];
+        int size = 0;
+        for (int i = 0; i < employeeIds.length; i++) {
+            int caseload = byEmployee.get(employeeIds[i]).at(time);
+            if (caseload > 0) {
+                // Descending caseload in the high half, index of the ascending ID in the low half
+                ranked[size++] = ((long) (Integer.MAX_VALUE - caseload) << 32) | i;
+            }
+        }
+        Arrays.sort(ranked, 0, size);
+        Map<Integer, Integer> result = new LinkedHashMap<>();
+        for (int r = 0; r < size; r++) {
+            int i = (int) ranked[r];
+            result.put(employeeIds[i], Integer.MAX_VALUE - (int) (ranked[r] >>> 32));
+        }
+        return result;
+    }
+
+    /**
+     * Seconds the employee was allocated between {@code from} and {@code to}, counting
+     * concurrent allocations separately
+     */
+    long allocatedSeconds(int employeeId, long from, long to) {
+        return byEmployee.getOrDefault(employeeId, OccupancyCurve.EMPTY).secondsBetween(from, to);
+    }
+
+    /**
+     * The k employees with the most allocated seconds between {@code from} and {@code to},
+     * busiest first and by employee ID among equal totals; employees without any are left out
+     */
+    Map<Integer, Long> busiest(int k, long from, long to) {
+        long[] seconds = new long[employeeIds.length];
+        Integer[] order = new Integer[employeeIds.length];
+        int size = 0;
+        for (int i = 0; i < employeeIds.length; i++) {
+            seconds[i] = byEmployee.get(employeeIds[i]).secondsBetween(from, to);
+            if (seconds[i] > 0) {
+                order[size++] = i;
+            }
+        }
+        Arrays.sort(order, 0, size, (a, b) -> Long.compare(seconds[b], seconds[a]));
+        Map<Integer, Long> result = new LinkedHashMap<>();
+        for (int r = 0; r < Math.min(k, size); r++) {
+            result.put(employeeIds[order[r]], seconds[order[r]]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package com.api.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Times given to the analytics endpoints as ISO dates or date-times, in epoch seconds
+ * of UTC like the epochs kept with the records. Malformed input is an
+ * IllegalArgumentException, answered with 400.
+ */
+final class TimeArguments {
+
+    private TimeArguments() {
+    }
+
+    /**
+     * Epoch seconds of a "from,to" range of ISO dates or date-times. The range includes
+     * {@code from} and excludes {@code to}, except that a plain date as {@code to}
+     * includes that whole day.
+     */
+    static long[] parseRange(String range) {
+        String[] bounds = range.split(",", -1);
+        if (bounds.length != 2) {
+            throw new IllegalArgumentException("Time range must be given as from,to: " + range);
+        }
+        return parseRange(bounds[0].trim(), bounds[1].trim());
+    }
+
+    static long[] parseRange(String fromText, String toText) {
+        long from = parseTime(fromText, false);
+        long to = parseTime(toText, true);
+        if (from > to) {
+            throw new IllegalArgumentException("Time range ends before it starts: " + fromText + "," + toText);
+        }
+        return new long[] { from, to };
+    }
+
+    /**
+     * Epoch seconds of an ISO date or date-time; a plain date is its start, or with
+     * {@code endOfDay} the start of the next day
+     */
+    static long parseTime(String text, boolean endOfDay) {
+        try {
+            if (text.length() == 10) {
+                LocalDate date = LocalDate.parse(text);
+                return (endOfDay ? date.plusDays(1) : date).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            }
+            return LocalDateTime.parse(text).toEpochSecond(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Unable to parse date: " + text);
+        }
+    }
+
+    static long parseTimeOrNow(String text) {
+        return text != null ? parseTime(text, false) : LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static String formatTime(long epochSecond) {
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+    }
+}
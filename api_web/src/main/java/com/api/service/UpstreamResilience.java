@@ -0,0 +1,143 @@
+package com.api.service;
+
+import com.api.exception.UpstreamUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Resilience policy for calls to the upstream API: a deadline per attempt and per call
+ * for single records, an idle timeout between the chunks of a streamed collection,
+ * retries with jittered exponential backoff, a circuit breaker shared by all calls that
+ * fails fast while upstream is down, and hedging of single-record lookups that take
+ * longer than the recent 95th percentile.
+ * <p>
+ * Only transport errors, timeouts and 5xx/429 responses count as upstream failures and
+ * are retried; other client errors are returned to the caller as they are.
+ */
+@Component
+public class UpstreamResilience {
+
+    @Value("${upstream.retry.max-attempts:2}")
+    private int retryMaxAttempts = 2;
+
+    @Value("${upstream.retry.backoff:200ms}")
+    private Duration retryBackoff = Duration.ofMillis(200);
+
+    // Longest wait for the next chunk of a collection download; the download as a whole is unbounded here
+    @Value("${upstream.bulk.idle-timeout:20s}")
+    private Duration bulkIdleTimeout = Duration.ofSeconds(20);
+
+    @Value("${upstream.by-id.attempt-timeout:2s}")
+    private Duration byIdAttemptTimeout = Duration.ofSeconds(2);
+
+    @Value("${upstream.by-id.deadline:5s}")
+    private Duration byIdDeadline = Duration.ofSeconds(5);
+
+    @Value("${upstream.hedge.enabled:true}")
+    private boolean hedgeEnabled = true;
+
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyTracker byIdLatency = new LatencyTracker(128, 20);
+
+    public UpstreamResilience(@Value("${upstream.breaker.failure-threshold:5}") int failureThreshold,
+                              @Value("${upstream.breaker.open-duration:30s}") Duration openDuration) {
+        this.circuitBreaker = new CircuitBreaker("upstream", failureThreshold, openDuration,
+                UpstreamResilience::isUpstreamFailure);
+    }
+
+    /**
+     * Defaults, for clients constructed outside the Spring context
+     */
+    public UpstreamResilience() {
+        this(5, Duration.ofSeconds(30));
+    }
+
+    /**
+     * Policy for downloading a whole collection. Not hedged: duplicating a multi-megabyte
+     * download would add load exactly when upstream is slow. Not bounded as a whole either,
+     * since a large collection streams for as long as it takes: the body is bounded by
+     * {@link #idle(Flux)}, the wait for the response by the transport's response timeout,
+     * and the whole refresh by the cache's per-source budget.
+     */
+    public <T> Mono<T> bulk(Mono<T> call) {
+        return retried(circuitBreaker.protect(call));
+    }
+
+    /**
+     * Fails a streamed response body with a TimeoutException, retried like any other, when
+     * no chunk arrives for the idle timeout
+     */
+    public <T> Flux<T> idle(Flux<T> body) {
+        return body.timeout(bulkIdleTimeout);
+    }
+
+    /**
+     * Policy for fetching a single record. When the call has not answered within the
+     * recent p95 latency, and the circuit breaker is closed, an identical request is sent
+     * and the first value wins. A failure of either request only fails the lookup once the
+     * other has failed too, in which case the first request's error is reported.
+     */
+    public <T> Mono<T> byId(Mono<T> call) {
+        Mono<T> timed = Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnSuccess(value -> byIdLatency.record(System.nanoTime() - start));
+        });
+        Mono<T> attempt = Mono.defer(() -> {
+            Duration p95 = hedgeEnabled ? byIdLatency.p95() : null;
+            Mono<T> protectedCall = circuitBreaker.protect(timed.timeout(byIdAttemptTimeout));
+            if (p95 == null || p95.compareTo(byIdAttemptTimeout) >= 0) {
+                return protectedCall;
+            }
+            // An empty answer (upstream does not know the ID) is a value too, so it wins like any other
+            Mono<Optional<T>> answer = protectedCall.map(Optional::of).defaultIfEmpty(Optional.empty());
+            // Not hedged while the breaker is open or half-open: the duplicate would only be rejected
+            Mono<Optional<T>> hedge = Mono.delay(p95).then(Mono.defer(() ->
+                    circuitBreaker.getState() == CircuitBreaker.State.CLOSED ? answer : Mono.<Optional<T>>empty()));
+            return Mono.firstWithValue(answer, hedge)
+                    .onErrorMap(NoSuchElementException.class, UpstreamResilience::primaryFailure)
+                    .flatMap(Mono::justOrEmpty);
+        });
+        return retried(attempt).timeout(byIdDeadline);
+    }
+
+    CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private <T> Mono<T> retried(Mono<T> attempt) {
+        return attempt
+                .retryWhen(Retry.backoff(retryMaxAttempts, retryBackoff)
+                        .jitter(0.5)
+                        .filter(UpstreamResilience::isUpstreamFailure)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    // firstWithValue fails with the errors of both requests, in order, as the cause
+    private static Throwable primaryFailure(NoSuchElementException e) {
+        List<Throwable> failures = Exceptions.unwrapMultiple(e.getCause());
+        return failures.isEmpty() ? e : failures.get(0);
+    }
+
+    static boolean isUpstreamFailure(Throwable e) {
+        if (e instanceof UpstreamUnavailableException) {
+            return false;
+        }
+        if (e instanceof WebClientResponseException) {
+            WebClientResponseException response = (WebClientResponseException) e;
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+}
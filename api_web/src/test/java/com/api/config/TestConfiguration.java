@@ -4,19 +4,22 @@ import com.api.model.Admission;
 import com.api.model.Allocation;
 import com.api.model.Employee;
 import com.api.model.Patient;
-import org.mockito.Mockito;
-import org.springframework.beans.factory.annotation.Qualifier;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
-
-import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @Profile("test")
@@ -64,30 +67,41 @@ public class TestConfiguration {
         allocation2.setAdmissionID(101);
         allocation2.setEmployeeID(302);
         
-        // Mock WebClient
-        WebClient webClientMock = Mockito.mock(WebClient.class);
-        WebClient.RequestHeadersUriSpec requestHeadersUriSpec = Mockito.mock(WebClient.RequestHeadersUriSpec.class);
-        WebClient.RequestHeadersSpec requestHeadersSpec = Mockito.mock(WebClient.RequestHeadersSpec.class);
-        WebClient.ResponseSpec responseSpec = Mockito.mock(WebClient.ResponseSpec.class);
-        
-        // Set up basic mock behavior
-        when(webClientMock.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        // Serve canned JSON through a real WebClient so conditional requests and headers behave as upstream
+        Map<String, Object> responses = new HashMap<>();
+        responses.put("/Patients", new Patient[]{patient1, patient2});
+        responses.put("/Admissions", new Admission[]{admission1, admission2});
+        responses.put("/Employees", new Employee[]{employee1, employee2});
+        responses.put("/Allocations", new Allocation[]{allocation1, allocation2});
         
-        // Mock API responses
-        when(responseSpec.bodyToMono(Patient[].class)).thenReturn(Mono.just(new Patient[]{patient1, patient2}));
-        when(responseSpec.bodyToMono(Admission[].class)).thenReturn(Mono.just(new Admission[]{admission1, admission2}));
-        when(responseSpec.bodyToMono(Employee[].class)).thenReturn(Mono.just(new Employee[]{employee1, employee2}));
-        when(responseSpec.bodyToMono(Allocation[].class)).thenReturn(Mono.just(new Allocation[]{allocation1, allocation2}));
+        // Single entity responses
+        responses.put("/Patients/", patient1);
+        responses.put("/Admissions/", admission1);
+        responses.put("/Employees/", employee1);
+        responses.put("/Allocations/", allocation1);
         
-        // Mock single entity responses
-        when(responseSpec.bodyToMono(Patient.class)).thenReturn(Mono.just(patient1));
-        when(responseSpec.bodyToMono(Admission.class)).thenReturn(Mono.just(admission1));
-        when(responseSpec.bodyToMono(Employee.class)).thenReturn(Mono.just(employee1));
-        when(responseSpec.bodyToMono(Allocation.class)).thenReturn(Mono.just(allocation1));
+        ObjectMapper objectMapper = new ObjectMapper();
+        ExchangeFunction exchangeFunction = request -> {
+            String path = request.url().getPath();
+            Object body = responses.containsKey(path)
+                    ? responses.get(path)
+                    : responses.get(path.substring(0, path.lastIndexOf('/') + 1));
+            if (body == null) {
+                return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+            }
+            try {
+                return Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(objectMapper.writeValueAsString(body))
+                        .build());
+            } catch (JsonProcessingException e) {
+                return Mono.error(e);
+            }
+        };
         
-        return webClientMock;
+        return WebClient.builder()
+                .baseUrl("http://localhost")
+                .exchangeFunction(exchangeFunction)
+                .build();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.api.config;
+
+import org.junit.jupiter.api.Test;
+import reactor.netty.resources.ConnectionPoolMetrics;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UpstreamPoolMetricsTest {
+
+    @Test
+    void getPools_shouldReportRegisteredPoolsAndSaturation() {
+        UpstreamPoolMetrics poolMetrics = new UpstreamPoolMetrics();
+        InetSocketAddress upstream = InetSocketAddress.createUnresolved("upstream.example", 443);
+
+        // A pool with every connection in use and two requests queued
+        poolMetrics.registerMetrics("upstream", "1", upstream, createMetrics(50, 0, 2, 50));
+
+        Map<String, Map<String, Object>> pools = poolMetrics.getPools();
+        assertEquals(1, pools.size());
+        Map<String, Object> pool = pools.values().iterator().next();
+        assertEquals(50, pool.get("acquired"));
+        assertEquals(2, pool.get("pendingAcquire"));
+        assertEquals(true, pool.get("saturated"));
+
+        poolMetrics.deRegisterMetrics("upstream", "1", upstream);
+        assertTrue(poolMetrics.getPools().isEmpty());
+    }
+
+    @Test
+    void isSaturated_shouldBeFalseWithSpareConnections() {
+        assertFalse(UpstreamPoolMetrics.isSaturated(createMetrics(3, 5, 0, 50)));
+    }
+
+    private ConnectionPoolMetrics createMetrics(int acquired, int idle, int pending, int max) {
+        return new ConnectionPoolMetrics() {
+            @Override
+            public int acquiredSize() {
+                return acquired;
+            }
+
+            @Override
+            public int allocatedSize() {
+                return acquired + idle;
+            }
+
+            @Override
+            public int idleSize() {
+                return idle;
+            }
+
+            @Override
+            public int pendingAcquireSize() {
+                return pending;
+            }
+
+            @Override
+            public int maxAllocatedSize() {
+                return max;
+            }
+
+            @Override
+            public int maxPendingAcquireSize() {
+                return 200;
+            }
+        };
+    }
+}
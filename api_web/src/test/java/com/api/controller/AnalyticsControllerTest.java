@@ -0,0 +1,120 @@
+package com.api.controller;
+
+import com.api.exception.GlobalExceptionHandler;
+import com.api.model.Admission;
+import com.api.model.Patient;
+import com.api.service.MaternityBusinessService;
+import com.api.service.OccupancyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AnalyticsControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private MaternityBusinessService businessService;
+
+    @Mock
+    private OccupancyService occupancyService;
+
+    @InjectMocks
+    private AnalyticsController controller;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void getPatientsReadmittedWithin_shouldPassWindowAndGaps() throws Exception {
+        // Set up mock behavior
+        when(businessService.getPatientsReadmittedWithin(14, 3, null))
+                .thenReturn(Collections.singletonList(createPatient(1, "Smith", "John")));
+
+        // Execute test and verify results
+        mockMvc.perform(get("/api/maternity/patients/readmitted-within/14").param("minGap", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(1)));
+    }
+
+    @Test
+    void getPatientsReadmittedWithin_shouldRejectNegativeWindow() throws Exception {
+        // Set up mock behavior
+        when(businessService.getPatientsReadmittedWithin(-1, null, null))
+                .thenThrow(new IllegalArgumentException("Days and gaps must not be negative"));
+
+        // Execute test and verify results
+        mockMvc.perform(get("/api/maternity/patients/readmitted-within/-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getTopMonths_shouldKeepBusiestFirst() throws Exception {
+        // Set up mock behavior
+        Map<String, Integer> months = new LinkedHashMap<>();
+        months.put("2024-03", 5);
+        months.put("2024-01", 4);
+        when(businessService.getTopMonths(2, true)).thenReturn(months);
+
+        // Execute test and verify results
+        mockMvc.perform(get("/api/maternity/admissions/months/top").param("k", "2").param("withTies", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.2024-03", is(5)))
+                .andExpect(jsonPath("$.2024-01", is(4)));
+    }
+
+    @Test
+    void getTopMonths_shouldRejectNonPositiveK() throws Exception {
+        // Set up mock behavior
+        when(businessService.getTopMonths(0, false))
+                .thenThrow(new IllegalArgumentException("k must be at least 1"));
+
+        // Execute test and verify results
+        mockMvc.perform(get("/api/maternity/admissions/months/top").param("k", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAdmissions_shouldPassOverlappingRange() throws Exception {
+        // Set up mock behavior
+        Admission admission = new Admission();
+        admission.setId(101);
+        when(businessService.getAdmissions("2024-01-01,2024-01-31", null))
+                .thenReturn(Collections.singletonList(admission));
+
+        // Execute test and verify results
+        mockMvc.perform(get("/api/maternity/admissions").param("overlapping", "2024-01-01,2024-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(101)));
+    }
+
+    // Helper methods to create test data
+    private Patient createPatient(int id, String surname, String forename) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setSurname(surname);
+        patient.setForename(forename);
+        return patient;
+    }
+}
@@ -0,0 +1,79 @@
+package com.api.controller;
+
+import com.api.exception.GlobalExceptionHandler;
+import com.api.exception.UpstreamUnavailableException;
+import com.api.model.Patient;
+import com.api.service.EntityLookupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EntityControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private EntityLookupService lookupService;
+
+    @InjectMocks
+    private EntityController controller;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void getPatient_shouldReturnPatient() throws Exception {
+        // Prepare test data
+        Patient patient = new Patient();
+        patient.setId(1);
+        patient.setSurname("Smith");
+
+        // Set up mock behavior
+        when(lookupService.getPatient(1)).thenReturn(patient);
+
+        // Execute test and verify results
+        mockMvc.perform(get("/api/maternity/patients/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.surname", is("Smith")));
+    }
+
+    @Test
+    void getPatient_shouldReturnNotFoundForUnknownId() throws Exception {
+        // Execute test and verify results
+        mockMvc.perform(get("/api/maternity/patients/999"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getPatient_shouldReturnServiceUnavailableWhenUpstreamIsDown() throws Exception {
+        // Set up mock behavior
+        when(lookupService.getPatient(1)).thenThrow(new UpstreamUnavailableException("circuit open"));
+
+        // Execute test and verify results
+        mockMvc.perform(get("/api/maternity/patients/1"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void getPatient_shouldRejectNonNumericId() throws Exception {
+        // Execute test and verify results
+        mockMvc.perform(get("/api/maternity/patients/abc"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,13 +1,16 @@
 package com.api.controller;
 
 import com.api.model.Patient;
-import com.api.service.MaternityBusinessService;
+import com.api.service.MaterializedResults;
+import com.api.service.MaterializedResultsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -24,7 +27,9 @@ public class MaternityControllerTest {
     private MockMvc mockMvc;
 
     @Mock
-    private MaternityBusinessService businessService;
+    private MaterializedResultsService resultsService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     @InjectMocks
     private MaternityController controller;
@@ -43,17 +48,18 @@ public class MaternityControllerTest {
         );
 
         // Set up mock behavior
-        when(businessService.getPatientsNeverAdmitted()).thenReturn(patients);
+        when(resultsService.getResults()).thenReturn(createResults(patients, null, null, null));
 
         // Execute test and verify results
         mockMvc.perform(get("/api/maternity/patients/never-admitted"))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].id", is(1)))
                 .andExpect(jsonPath("$[0].surname", is("Smith")))
                 .andExpect(jsonPath("$[1].id", is(2)));
 
-        verify(businessService, times(1)).getPatientsNeverAdmitted();
+        verify(resultsService, times(1)).getResults();
     }
 
     @Test
@@ -64,7 +70,7 @@ public class MaternityControllerTest {
         );
 
         // Set up mock behavior
-        when(businessService.getPatientsReadmittedWithin7Days()).thenReturn(patients);
+        when(resultsService.getResults()).thenReturn(createResults(null, patients, null, null));
 
         // Execute test and verify results
         mockMvc.perform(get("/api/maternity/patients/readmitted-within-7-days"))
@@ -73,7 +79,7 @@ public class MaternityControllerTest {
                 .andExpect(jsonPath("$[0].id", is(1)))
                 .andExpect(jsonPath("$[0].surname", is("Smith")));
 
-        verify(businessService, times(1)).getPatientsReadmittedWithin7Days();
+        verify(resultsService, times(1)).getResults();
     }
 
     @Test
@@ -83,14 +89,14 @@ public class MaternityControllerTest {
         monthData.put("2023-01", 10);
 
         // Set up mock behavior
-        when(businessService.getMonthWithMostAdmissions()).thenReturn(monthData);
+        when(resultsService.getResults()).thenReturn(createResults(null, null, monthData, null));
 
         // Execute test and verify results
         mockMvc.perform(get("/api/maternity/admissions/month-with-most"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.['2023-01']", is(10)));
 
-        verify(businessService, times(1)).getMonthWithMostAdmissions();
+        verify(resultsService, times(1)).getResults();
     }
 
     @Test
@@ -102,7 +108,7 @@ public class MaternityControllerTest {
         );
 
         // Set up mock behavior
-        when(businessService.getPatientsWithMultipleStaff()).thenReturn(patients);
+        when(resultsService.getResults()).thenReturn(createResults(null, null, null, patients));
 
         // Execute test and verify results
         mockMvc.perform(get("/api/maternity/patients/with-multiple-staff"))
@@ -111,10 +117,19 @@ public class MaternityControllerTest {
                 .andExpect(jsonPath("$[0].id", is(1)))
                 .andExpect(jsonPath("$[1].id", is(3)));
 
-        verify(businessService, times(1)).getPatientsWithMultipleStaff();
+        verify(resultsService, times(1)).getResults();
+    }
+
+    // Helper methods to create test data
+    private MaterializedResults createResults(Object neverAdmitted, Object readmitted,
+                                              Object monthData, Object multipleStaff) throws Exception {
+        return new MaterializedResults(1,
+                objectMapper.writeValueAsBytes(neverAdmitted),
+                objectMapper.writeValueAsBytes(readmitted),
+                objectMapper.writeValueAsBytes(monthData),
+                objectMapper.writeValueAsBytes(multipleStaff));
     }
 
-    // Helper method to create test data
     private Patient createPatient(int id, String surname, String forename) {
         Patient patient = new Patient();
         patient.setId(id);
@@ -0,0 +1,94 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.EpochSeconds;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionIntervalsTest {
+
+    private static final long DAY = 86_400;
+
+    @Test
+    void queries_shouldMatchScanningEveryAdmission() {
+        // Set up test data: stays of up to 30 days over 20 years, some open or undated
+        Random random = new Random(11);
+        List<Admission> admissions = new ArrayList<>();
+        for (int id = 1; id <= 5_000; id++) {
+            long start = random.nextInt(20 * 365) * DAY + random.nextInt((int) DAY);
+            long end = random.nextInt(20) == 0 ? EpochSeconds.OPEN : start + random.nextInt(30 * (int) DAY);
+            if (random.nextInt(50) == 0) {
+                start = EpochSeconds.UNKNOWN;
+            }
+            admissions.add(createAdmission(id, start, end));
+        }
+        AdmissionIntervals intervals = AdmissionIntervals.of(admissions);
+
+        for (int i = 0; i < 500; i++) {
+            long from = random.nextInt(21 * 365) * DAY - 180 * DAY;
+            long to = from + random.nextInt(60) * DAY;
+
+            // Execute test
+            List<Integer> overlapping = ids(intervals.overlapping(from, to));
+            List<Integer> admitted = ids(intervals.admittedBetween(from, to));
+
+            // Verify results
+            assertEquals(expected(admissions, a -> a.getAdmissionEpoch() < to && a.getDischargeEpoch() > from, from < to),
+                    overlapping);
+            assertEquals(expected(admissions, a -> a.getAdmissionEpoch() >= from && a.getAdmissionEpoch() < to, true),
+                    admitted);
+        }
+    }
+
+    @Test
+    void overlapping_shouldTreatRangesAndStaysAsHalfOpen() {
+        // Set up test data
+        AdmissionIntervals intervals = AdmissionIntervals.of(Arrays.asList(
+                createAdmission(1, 0, 10 * DAY),
+                createAdmission(2, 10 * DAY, EpochSeconds.OPEN),
+                createAdmission(3, 5 * DAY, EpochSeconds.INVALID)));
+
+        // Execute test and verify results
+        assertEquals(Arrays.asList(1), ids(intervals.overlapping(9 * DAY, 10 * DAY)));
+        assertEquals(Arrays.asList(2), ids(intervals.overlapping(10 * DAY, 11 * DAY)));
+        assertEquals(Arrays.asList(2), ids(intervals.overlapping(1_000 * DAY, 1_001 * DAY)));
+        assertEquals(Arrays.asList(3, 2), ids(intervals.admittedBetween(5 * DAY, 11 * DAY)));
+        assertTrue(intervals.overlapping(5 * DAY, 5 * DAY).isEmpty());
+        assertTrue(AdmissionIntervals.EMPTY.overlapping(0, DAY).isEmpty());
+    }
+
+    // Helper methods to create test data
+    private static List<Integer> expected(List<Admission> admissions,
+                                          Predicate<Admission> matches, boolean nonEmptyRange) {
+        if (!nonEmptyRange) {
+            return new ArrayList<>();
+        }
+        return admissions.stream()
+                .filter(a -> EpochSeconds.isKnown(a.getAdmissionEpoch()))
+                .filter(matches)
+                .sorted(Comparator.comparingLong(Admission::getAdmissionEpoch).thenComparing(Admission::getId))
+                .map(Admission::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Integer> ids(List<Admission> admissions) {
+        return admissions.stream().map(Admission::getId).collect(Collectors.toList());
+    }
+
+    private static Admission createAdmission(int id, long admissionEpoch, long dischargeEpoch) {
+        Admission admission = new Admission();
+        admission.setId(id);
+        admission.setAdmissionEpoch(admissionEpoch);
+        admission.setDischargeEpoch(dischargeEpoch);
+        return admission;
+    }
+}
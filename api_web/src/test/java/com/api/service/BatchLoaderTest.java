@@ -0,0 +1,85 @@
+package com.api.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchLoaderTest {
+
+    @Test
+    void load_shouldResolveKeysRequestedInOneWindowTogether() {
+        AtomicInteger calls = new AtomicInteger();
+        List<Set<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        BatchLoader<String> loader = new BatchLoader<>("test", Duration.ofMillis(50), 1000, keys -> {
+            calls.incrementAndGet();
+            batches.add(keys);
+            Map<Integer, BatchLoader.Outcome<String>> values = new HashMap<>();
+            keys.forEach(key -> values.put(key, BatchLoader.Outcome.of("value-" + key)));
+            return Mono.just(values);
+        });
+
+        // Ten callers, two of them asking for the same key
+        List<Integer> keys = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 1);
+        List<String> results = Flux.fromIterable(keys)
+                .flatMapSequential(loader::load)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(1, calls.get());
+        assertEquals(9, batches.get(0).size());
+        assertEquals("value-1", results.get(0));
+        assertEquals("value-9", results.get(8));
+        assertEquals("value-1", results.get(9));
+    }
+
+    @Test
+    void load_shouldDispatchFullBatchWithoutWaitingForWindow() {
+        AtomicInteger calls = new AtomicInteger();
+        BatchLoader<String> loader = new BatchLoader<>("test", Duration.ofSeconds(30), 2, keys -> {
+            calls.incrementAndGet();
+            return Mono.just(Collections.singletonMap(1, BatchLoader.Outcome.of("one")));
+        });
+
+        Mono<String> first = loader.load(1);
+        Mono<String> second = loader.load(2);
+
+        assertEquals("one", first.block(Duration.ofSeconds(5)));
+        // Keys missing from the batch result resolve empty
+        assertNull(second.block(Duration.ofSeconds(5)));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void load_shouldFailEveryWaiterWhenBatchFails() {
+        BatchLoader<String> loader = new BatchLoader<>("test", Duration.ofMillis(10), 100,
+                keys -> Mono.error(new IllegalStateException("upstream down")));
+
+        Mono<String> first = loader.load(1);
+        Mono<String> second = loader.load(2);
+
+        assertThrows(IllegalStateException.class, () -> first.block(Duration.ofSeconds(5)));
+        assertThrows(IllegalStateException.class, () -> second.block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void load_shouldFailOnlyWaitersOfFailedKey() {
+        BatchLoader<String> loader = new BatchLoader<>("test", Duration.ofMillis(10), 100, keys -> {
+            Map<Integer, BatchLoader.Outcome<String>> outcomes = new HashMap<>();
+            outcomes.put(1, BatchLoader.Outcome.failed(new IllegalStateException("upstream down")));
+            outcomes.put(2, BatchLoader.Outcome.of("two"));
+            return Mono.just(outcomes);
+        });
+
+        Mono<String> first = loader.load(1);
+        Mono<String> second = loader.load(2);
+
+        assertThrows(IllegalStateException.class, () -> first.block(Duration.ofSeconds(5)));
+        assertEquals("two", second.block(Duration.ofSeconds(5)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheRefreshSchedulerTest {
+
+    @Mock
+    private DataCacheService cacheService;
+
+    @InjectMocks
+    private CacheRefreshScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void tick_shouldRefreshOnlyStaleCollections() {
+        // Set up mock behavior
+        Set<DatasetCollection> stale = EnumSet.of(DatasetCollection.ALLOCATIONS);
+        when(cacheService.getStaleCollections()).thenReturn(stale);
+        when(cacheService.refreshAsync(stale)).thenReturn(Mono.just(DatasetSnapshot.empty()));
+
+        // Execute test
+        scheduler.tick();
+
+        // Verify results
+        verify(cacheService).refreshAsync(stale);
+    }
+
+    @Test
+    void tick_shouldNotRefreshWhenNothingIsStale() {
+        // Set up mock behavior
+        when(cacheService.getStaleCollections()).thenReturn(Collections.emptySet());
+
+        // Execute test
+        scheduler.tick();
+
+        // Verify results
+        verify(cacheService, never()).refreshAsync(any());
+    }
+}
@@ -0,0 +1,100 @@
+package com.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CohortExpressionTest {
+
+    @Test
+    void evaluate_shouldApplyPrecedenceAndParentheses() {
+        // Set up test data: a = {0, 1}, b = {1, 2}, c = {2, 3} over 5 patients
+        Map<String, BitSet> cohorts = new HashMap<>();
+        cohorts.put("a", bits(0, 1));
+        cohorts.put("b", bits(1, 2));
+        cohorts.put("c", bits(2, 3));
+
+        // Execute test and verify results
+        assertEquals(bits(1, 2, 3), evaluate("a AND b OR c", cohorts));
+        assertEquals(bits(1), evaluate("a and (b or c)", cohorts));
+        assertEquals(bits(0, 4), evaluate("NOT b AND NOT c", cohorts));
+        assertEquals(bits(0, 1, 4), evaluate("NOT (c)", cohorts));
+        assertEquals(bits(2, 3), evaluate("NOT NOT c", cohorts));
+    }
+
+    @Test
+    void evaluate_shouldNotModifyResolvedBitmaps() {
+        // Set up test data
+        Map<String, BitSet> cohorts = new HashMap<>();
+        cohorts.put("a", bits(0, 1));
+        cohorts.put("b", bits(1, 2));
+
+        // Execute test
+        evaluate("NOT a OR b AND a", cohorts);
+
+        // Verify results
+        assertEquals(bits(0, 1), cohorts.get("a"));
+        assertEquals(bits(1, 2), cohorts.get("b"));
+    }
+
+    @Test
+    void evaluate_shouldRejectMalformedExpressions() {
+        Map<String, BitSet> cohorts = new HashMap<>();
+        cohorts.put("a", bits(0));
+
+        // Execute test and verify results
+        assertThrows(IllegalArgumentException.class, () -> evaluate("", cohorts));
+        assertThrows(IllegalArgumentException.class, () -> evaluate("a AND", cohorts));
+        assertThrows(IllegalArgumentException.class, () -> evaluate("(a", cohorts));
+        assertThrows(IllegalArgumentException.class, () -> evaluate("a a", cohorts));
+        assertThrows(IllegalArgumentException.class, () -> evaluate("AND a", cohorts));
+    }
+
+    @Test
+    void evaluate_shouldRejectExpressionsNestedTooDeeply() {
+        Map<String, BitSet> cohorts = new HashMap<>();
+        cohorts.put("a", bits(0));
+        int limit = CohortExpression.MAX_DEPTH;
+
+        // Execute test and verify results: a few thousand levels must not overflow the stack
+        assertEquals(bits(0), evaluate("(".repeat(limit) + "a" + ")".repeat(limit), cohorts));
+        assertThrows(IllegalArgumentException.class,
+                () -> evaluate("(".repeat(limit + 1) + "a" + ")".repeat(limit + 1), cohorts));
+        assertThrows(IllegalArgumentException.class, () -> evaluate("(".repeat(5_000) + "a", cohorts));
+        assertThrows(IllegalArgumentException.class, () -> evaluate("NOT ".repeat(limit + 1) + "a", cohorts));
+    }
+
+    @Test
+    void evaluate_shouldRejectExpressionsWithTooManyTokens() {
+        Map<String, BitSet> cohorts = new HashMap<>();
+        cohorts.put("a", bits(0));
+        int pairs = CohortExpression.MAX_TOKENS / 2;
+
+        // Execute test and verify results: "a" followed by (pairs - 1) "OR a" is one token short of the limit
+        assertEquals(bits(0), evaluate("a" + " OR a".repeat(pairs - 1), cohorts));
+        assertThrows(IllegalArgumentException.class, () -> evaluate("a" + " OR a".repeat(pairs), cohorts));
+    }
+
+    // Helper methods to create test data
+    private static BitSet evaluate(String expression, Map<String, BitSet> cohorts) {
+        return CohortExpression.evaluate(expression, name -> {
+            BitSet cohort = cohorts.get(name);
+            if (cohort == null) {
+                throw new IllegalArgumentException("Unknown cohort: " + name);
+            }
+            return cohort;
+        }, 5);
+    }
+
+    private static BitSet bits(int... ordinals) {
+        BitSet bits = new BitSet();
+        for (int ordinal : ordinals) {
+            bits.set(ordinal);
+        }
+        return bits;
+    }
+}
@@ -10,9 +10,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,6 +34,9 @@ public class DataCacheServiceTest {
     @Mock
     private MaternityApiService apiService;
 
+    @Mock
+    private SnapshotFileStore snapshotStore;
+
     @InjectMocks
     private DataCacheService cacheService;
 
@@ -58,7 +72,7 @@ public class DataCacheServiceTest {
     @Test
     void getAllPatients_shouldRefreshCacheWhenEmpty() {
         // Set up mock behavior
-        when(apiService.getAllPatients()).thenReturn(mockPatients);
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
 
         // Execute test
         List<Patient> result = cacheService.getAllPatients();
@@ -70,18 +84,18 @@ public class DataCacheServiceTest {
         assertEquals(2, result.get(1).getId());
         
         // Verify API service was called only once
-        verify(apiService, times(1)).getAllPatients();
+        verify(apiService, times(1)).fetchAllPatients();
         
         // Second call should use cached data, not call API service again
         List<Patient> cachedResult = cacheService.getAllPatients();
         assertEquals(2, cachedResult.size());
-        verify(apiService, times(1)).getAllPatients(); // Total call count still 1
+        verify(apiService, times(1)).fetchAllPatients(); // Total call count still 1
     }
 
     @Test
     void getAllAdmissions_shouldRefreshCacheWhenEmpty() {
         // Set up mock behavior
-        when(apiService.getAllAdmissions()).thenReturn(mockAdmissions);
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
 
         // Execute test
         List<Admission> result = cacheService.getAllAdmissions();
@@ -93,18 +107,18 @@ public class DataCacheServiceTest {
         assertEquals(102, result.get(1).getId());
         
         // Verify API service was called only once
-        verify(apiService, times(1)).getAllAdmissions();
+        verify(apiService, times(1)).fetchAllAdmissions();
         
         // Second call should use cached data, not call API service again
         List<Admission> cachedResult = cacheService.getAllAdmissions();
         assertEquals(2, cachedResult.size());
-        verify(apiService, times(1)).getAllAdmissions(); // Total call count still 1
+        verify(apiService, times(1)).fetchAllAdmissions(); // Total call count still 1
     }
 
     @Test
     void getAllEmployees_shouldRefreshCacheWhenEmpty() {
         // Set up mock behavior
-        when(apiService.getAllEmployees()).thenReturn(mockEmployees);
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
 
         // Execute test
         List<Employee> result = cacheService.getAllEmployees();
@@ -116,18 +130,18 @@ public class DataCacheServiceTest {
         assertEquals(302, result.get(1).getId());
         
         // Verify API service was called only once
-        verify(apiService, times(1)).getAllEmployees();
+        verify(apiService, times(1)).fetchAllEmployees();
         
         // Second call should use cached data, not call API service again
         List<Employee> cachedResult = cacheService.getAllEmployees();
         assertEquals(2, cachedResult.size());
-        verify(apiService, times(1)).getAllEmployees(); // Total call count still 1
+        verify(apiService, times(1)).fetchAllEmployees(); // Total call count still 1
     }
 
     @Test
     void getAllAllocations_shouldRefreshCacheWhenEmpty() {
         // Set up mock behavior
-        when(apiService.getAllAllocations()).thenReturn(mockAllocations);
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
 
         // Execute test
         List<Allocation> result = cacheService.getAllAllocations();
@@ -139,30 +153,30 @@ public class DataCacheServiceTest {
         assertEquals(202, result.get(1).getId());
         
         // Verify API service was called only once
-        verify(apiService, times(1)).getAllAllocations();
+        verify(apiService, times(1)).fetchAllAllocations();
         
         // Second call should use cached data, not call API service again
         List<Allocation> cachedResult = cacheService.getAllAllocations();
         assertEquals(2, cachedResult.size());
-        verify(apiService, times(1)).getAllAllocations(); // Total call count still 1
+        verify(apiService, times(1)).fetchAllAllocations(); // Total call count still 1
     }
 
     @Test
     void refreshAllCaches_shouldRefreshAllCaches() {
         // Set up mock behavior
-        when(apiService.getAllPatients()).thenReturn(mockPatients);
-        when(apiService.getAllAdmissions()).thenReturn(mockAdmissions);
-        when(apiService.getAllEmployees()).thenReturn(mockEmployees);
-        when(apiService.getAllAllocations()).thenReturn(mockAllocations);
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
 
         // Execute test
         cacheService.refreshAllCaches();
 
         // Verify each API method was called once
-        verify(apiService, times(1)).getAllPatients();
-        verify(apiService, times(1)).getAllAdmissions();
-        verify(apiService, times(1)).getAllEmployees();
-        verify(apiService, times(1)).getAllAllocations();
+        verify(apiService, times(1)).fetchAllPatients();
+        verify(apiService, times(1)).fetchAllAdmissions();
+        verify(apiService, times(1)).fetchAllEmployees();
+        verify(apiService, times(1)).fetchAllAllocations();
         
         // Verify cache contains data
         assertNotNull(cacheService.getAllPatients());
@@ -171,6 +185,407 @@ public class DataCacheServiceTest {
         assertNotNull(cacheService.getAllAllocations());
     }
 
+    @Test
+    void refreshAllCaches_shouldFetchSourcesConcurrently() {
+        // Each source takes 300ms; sequential fetching would take over a second
+        Duration latency = Duration.ofMillis(300);
+        when(apiService.fetchAllPatients()).thenReturn(Mono.delay(latency).thenReturn(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.delay(latency).thenReturn(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.delay(latency).thenReturn(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.delay(latency).thenReturn(mockAllocations));
+
+        long startTime = System.currentTimeMillis();
+        cacheService.refreshAllCaches();
+        long elapsed = System.currentTimeMillis() - startTime;
+
+        assertTrue(elapsed < 1000, "Refresh should take about as long as the slowest source, took " + elapsed + "ms");
+        assertTrue(cacheService.getSnapshot().isFullyLoaded());
+    }
+
+    @Test
+    void refreshAllCaches_shouldKeepCachedDataForSourceThatTimesOut() {
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
+        cacheService.refreshAllCaches();
+
+        // Second refresh: admissions never answer within their budget
+        ReflectionTestUtils.setField(cacheService, "admissionsTimeout", Duration.ofMillis(100));
+        List<Patient> patients = new ArrayList<>(mockPatients);
+        patients.add(createPatient(3, "Brown", "David"));
+        when(apiService.fetchPatientsIfChanged()).thenReturn(Mono.just(FetchResult.modified(patients)));
+        when(apiService.fetchAdmissionsIfChanged()).thenReturn(Mono.never());
+        when(apiService.fetchEmployeesIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAllocationsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+
+        cacheService.refreshAllCaches();
+
+        DatasetSnapshot snapshot = cacheService.getSnapshot();
+        assertEquals(3, snapshot.getPatients().size());
+        assertEquals(2, snapshot.getAdmissions().size());
+    }
+
+    @Test
+    void refreshAllCaches_shouldRunRemainingListenersWhenOneFails() {
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
+        List<Long> published = new ArrayList<>();
+        cacheService.addSnapshotListener(snapshot -> {
+            throw new IllegalStateException("listener failed");
+        });
+        cacheService.addSnapshotListener(snapshot -> published.add(snapshot.getVersion()));
+
+        cacheService.refreshAllCaches();
+
+        assertTrue(cacheService.getSnapshot().isFullyLoaded());
+        assertEquals(List.of(cacheService.getSnapshot().getVersion()), published);
+    }
+
+    @Test
+    void refreshAllCaches_shouldSaveValidatorsOnlyOncePublished() {
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
+        cacheService.refreshAllCaches();
+        DatasetSnapshot first = cacheService.getSnapshot();
+
+        // An admission that breaks building the next snapshot
+        Admission broken = new Admission() {
+            @Override
+            public long getAdmissionEpoch() {
+                throw new IllegalStateException("cannot index");
+            }
+        };
+        broken.setId(103);
+        broken.setPatientID(1);
+        List<Admission> withBroken = new ArrayList<>(mockAdmissions);
+        withBroken.add(broken);
+        FetchResult<Admission> failing = FetchResult.modified(withBroken,
+                new CollectionValidators(new HttpHeaders(), new byte[] { 1 }));
+        when(apiService.fetchPatientsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAdmissionsIfChanged()).thenReturn(Mono.just(failing));
+        when(apiService.fetchEmployeesIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAllocationsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+
+        assertThrows(RuntimeException.class, () -> cacheService.refreshAllCaches());
+
+        // Not saved, so the next conditional fetch downloads the body in full again
+        assertSame(first, cacheService.getSnapshot());
+        verify(apiService, never()).saveValidators(eq(DatasetCollection.ADMISSIONS), same(failing));
+
+        List<Admission> withAdded = new ArrayList<>(mockAdmissions);
+        withAdded.add(createAdmission(103, 1));
+        FetchResult<Admission> succeeding = FetchResult.modified(withAdded,
+                new CollectionValidators(new HttpHeaders(), new byte[] { 2 }));
+        when(apiService.fetchAdmissionsIfChanged()).thenReturn(Mono.just(succeeding));
+
+        cacheService.refreshAllCaches();
+
+        assertEquals(3, cacheService.getSnapshot().getAdmissions().size());
+        verify(apiService).saveValidators(DatasetCollection.ADMISSIONS, succeeding);
+    }
+
+    @Test
+    void refreshAllCaches_shouldKeepSnapshotWhenNothingChanged() {
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
+        cacheService.refreshAllCaches();
+        DatasetSnapshot first = cacheService.getSnapshot();
+
+        // Once cached, collections are revalidated conditionally
+        when(apiService.fetchPatientsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAdmissionsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchEmployeesIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAllocationsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+
+        cacheService.refreshAllCaches();
+
+        assertSame(first, cacheService.getSnapshot());
+        verify(apiService, times(1)).fetchAllPatients();
+    }
+
+    @Test
+    void refreshAllCaches_shouldKeepSnapshotWhenRecordsAreIdentical() {
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
+        cacheService.refreshAllCaches();
+        DatasetSnapshot first = cacheService.getSnapshot();
+
+        // The payload changed (e.g. reordered) but every record is the same
+        List<Patient> reordered = Arrays.asList(createPatient(2, "Johnson", "Mary"), createPatient(1, "Smith", "John"));
+        when(apiService.fetchPatientsIfChanged()).thenReturn(Mono.just(FetchResult.modified(reordered)));
+        when(apiService.fetchAdmissionsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchEmployeesIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAllocationsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+
+        cacheService.refreshAllCaches();
+
+        assertSame(first, cacheService.getSnapshot());
+    }
+
+    @Test
+    void refreshAllCaches_shouldApplyChangedRecordsToSnapshot() {
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
+        cacheService.refreshAllCaches();
+
+        // Admission 102 moves from patient 2 to patient 1
+        List<Admission> changed = Arrays.asList(createAdmission(101, 1), createAdmission(102, 1));
+        when(apiService.fetchPatientsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAdmissionsIfChanged()).thenReturn(Mono.just(FetchResult.modified(changed)));
+        when(apiService.fetchEmployeesIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAllocationsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+
+        cacheService.refreshAllCaches();
+
+        DatasetSnapshot snapshot = cacheService.getSnapshot();
+        assertEquals(2, snapshot.getAdmissionsForPatient(1).size());
+        assertFalse(snapshot.hasAdmissions(2));
+    }
+
+    @Test
+    void refreshAllCaches_shouldRejectCollectionThatEmptiedAndKeepLastGoodSnapshot() {
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
+        cacheService.refreshAllCaches();
+        DatasetSnapshot lastGood = cacheService.getSnapshot();
+
+        // Upstream hiccup: the patients payload comes back empty
+        when(apiService.fetchPatientsIfChanged()).thenReturn(Mono.just(FetchResult.modified(Collections.emptyList())));
+        when(apiService.fetchAdmissionsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchEmployeesIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAllocationsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+
+        cacheService.refreshAllCaches();
+
+        // Verify the last good snapshot is kept and patients are refetched in full after a short backoff
+        assertSame(lastGood, cacheService.getSnapshot());
+        verify(apiService).resetValidators(DatasetCollection.PATIENTS);
+        assertTrue(cacheService.millisUntilNextRefresh() <= Duration.ofSeconds(30).toMillis());
+    }
+
+    @Test
+    void refreshAllCaches_shouldRejectAdmissionsWithDanglingPatientReferences() {
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
+        cacheService.refreshAllCaches();
+        DatasetSnapshot lastGood = cacheService.getSnapshot();
+
+        // Both admissions now point at patients nobody knows
+        List<Admission> dangling = Arrays.asList(createAdmission(101, 98), createAdmission(102, 99));
+        when(apiService.fetchPatientsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAdmissionsIfChanged()).thenReturn(Mono.just(FetchResult.modified(dangling)));
+        when(apiService.fetchEmployeesIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAllocationsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+
+        cacheService.refreshAllCaches();
+
+        assertSame(lastGood, cacheService.getSnapshot());
+        verify(apiService).resetValidators(DatasetCollection.ADMISSIONS);
+    }
+
+    @Test
+    void refreshAllCaches_shouldRejectAdmissionsOverParseErrorBudget() {
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
+        cacheService.refreshAllCaches();
+        DatasetSnapshot lastGood = cacheService.getSnapshot();
+
+        // Upstream switched to a date format we cannot read
+        List<Admission> unreadable = Arrays.asList(createAdmission(101, 1), createAdmission(102, 2));
+        unreadable.forEach(admission -> admission.setAdmissionDate("01/02/2024 10:00"));
+        when(apiService.fetchPatientsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAdmissionsIfChanged()).thenReturn(Mono.just(FetchResult.modified(unreadable)));
+        when(apiService.fetchEmployeesIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAllocationsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+
+        cacheService.refreshAllCaches();
+
+        assertSame(lastGood, cacheService.getSnapshot());
+    }
+
+    @Test
+    void getSnapshot_shouldCoalesceConcurrentColdLoads() throws Exception {
+        // Slow upstream so that every request arrives while the first load is in flight
+        Duration latency = Duration.ofMillis(300);
+        when(apiService.fetchAllPatients()).thenReturn(Mono.delay(latency).thenReturn(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.delay(latency).thenReturn(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.delay(latency).thenReturn(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.delay(latency).thenReturn(mockAllocations));
+
+        int numberOfRequests = 500;
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfRequests);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<DatasetSnapshot>> results = new ArrayList<>();
+        for (int i = 0; i < numberOfRequests; i++) {
+            results.add(executorService.submit(() -> {
+                start.await();
+                return cacheService.getSnapshot();
+            }));
+        }
+        start.countDown();
+
+        for (Future<DatasetSnapshot> result : results) {
+            assertTrue(result.get(10, TimeUnit.SECONDS).isFullyLoaded());
+        }
+        executorService.shutdown();
+
+        // Exactly one upstream call per collection
+        verify(apiService, times(1)).fetchAllPatients();
+        verify(apiService, times(1)).fetchAllAdmissions();
+        verify(apiService, times(1)).fetchAllEmployees();
+        verify(apiService, times(1)).fetchAllAllocations();
+    }
+
+    @Test
+    void getAllPatients_shouldReturnEmptyListWhenLoadExceedsWaitBudget() {
+        ReflectionTestUtils.setField(cacheService, "loadWaitBudget", Duration.ofMillis(100));
+        when(apiService.fetchAllPatients()).thenReturn(Mono.never());
+
+        List<Patient> result = cacheService.getAllPatients();
+
+        assertNotNull(result);
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void getSnapshot_shouldServeStaleSnapshotWhileRevalidating() throws Exception {
+        for (String ttl : new String[]{"patientsTtl", "admissionsTtl", "employeesTtl", "allocationsTtl"}) {
+            ReflectionTestUtils.setField(cacheService, ttl, Duration.ZERO);
+        }
+        ReflectionTestUtils.setField(cacheService, "ttlJitter", 0.0);
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
+        cacheService.refreshAllCaches();
+
+        // Every collection is now stale; the patients revalidation is slow
+        List<Patient> patients = new ArrayList<>(mockPatients);
+        patients.add(createPatient(3, "Brown", "David"));
+        when(apiService.fetchPatientsIfChanged()).thenReturn(Mono.delay(Duration.ofMillis(300))
+                .thenReturn(FetchResult.modified(patients)));
+        when(apiService.fetchAdmissionsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchEmployeesIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+        when(apiService.fetchAllocationsIfChanged()).thenReturn(Mono.just(FetchResult.notModified()));
+
+        long startTime = System.currentTimeMillis();
+        DatasetSnapshot stale = cacheService.getSnapshot();
+        long elapsed = System.currentTimeMillis() - startTime;
+
+        assertTrue(elapsed < 200, "Stale read should not wait for the revalidation, took " + elapsed + "ms");
+        assertEquals(2, stale.getPatients().size());
+
+        // The revalidated data is published in the background
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cacheService.getSnapshot().getPatients().size() != 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(3, cacheService.getSnapshot().getPatients().get(2).getId());
+    }
+
+    @Test
+    void getStaleCollections_shouldBeEmptyWithinTtl() {
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
+
+        assertEquals(4, cacheService.getStaleCollections().size());
+        cacheService.refreshAllCaches();
+
+        assertTrue(cacheService.getStaleCollections().isEmpty());
+        assertTrue(cacheService.millisUntilNextRefresh() > 0);
+    }
+
+    @Test
+    void refreshAsync_shouldNeverRunRefreshesConcurrently() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        AtomicInteger calls = new AtomicInteger();
+        Mono<List<Patient>> slowPatients = Mono.defer(() -> {
+            calls.incrementAndGet();
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            // Counted as finished before the result reaches the cache, which may start the next run straight away
+            return Mono.delay(Duration.ofMillis(200)).map(tick -> {
+                active.decrementAndGet();
+                return mockPatients;
+            });
+        });
+        when(apiService.fetchAllPatients()).thenReturn(slowPatients);
+        when(apiService.fetchPatientsIfChanged()).thenReturn(slowPatients.map(FetchResult::modified));
+
+        // Three refreshes requested at once: one runs, the other two are merged into the next run
+        Set<DatasetCollection> patients = EnumSet.of(DatasetCollection.PATIENTS);
+        Mono.when(cacheService.refreshAsync(patients), cacheService.refreshAsync(patients),
+                cacheService.refreshAsync(patients)).block(Duration.ofSeconds(5));
+
+        assertEquals(1, maxActive.get());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void init_shouldServePersistedSnapshotAndRevalidateInBackground() throws Exception {
+        // Set up mock behavior
+        DatasetSnapshot persisted = DatasetSnapshot.builder(7)
+                .patients(mockPatients)
+                .admissions(mockAdmissions)
+                .employees(mockEmployees)
+                .allocations(mockAllocations)
+                .build();
+        when(snapshotStore.load()).thenReturn(Optional.of(persisted));
+        Duration latency = Duration.ofMillis(300);
+        when(apiService.fetchPatientsIfChanged()).thenReturn(Mono.delay(latency).thenReturn(FetchResult.notModified()));
+        when(apiService.fetchAdmissionsIfChanged()).thenReturn(Mono.delay(latency).thenReturn(FetchResult.notModified()));
+        when(apiService.fetchEmployeesIfChanged()).thenReturn(Mono.delay(latency).thenReturn(FetchResult.notModified()));
+        when(apiService.fetchAllocationsIfChanged()).thenReturn(Mono.delay(latency).thenReturn(FetchResult.notModified()));
+
+        // Execute test
+        long startTime = System.currentTimeMillis();
+        cacheService.init();
+        long elapsed = System.currentTimeMillis() - startTime;
+
+        // Verify results
+        assertTrue(elapsed < 200, "Startup should not wait for upstream, took " + elapsed + "ms");
+        assertSame(persisted, cacheService.getSnapshot());
+        verify(apiService, timeout(5000)).fetchAllocationsIfChanged();
+        verify(apiService, never()).fetchAllPatients();
+    }
+
+    @Test
+    void init_shouldLoadFromUpstreamWithoutPersistedSnapshot() {
+        // Set up mock behavior
+        when(snapshotStore.load()).thenReturn(Optional.empty());
+        when(apiService.fetchAllPatients()).thenReturn(Mono.just(mockPatients));
+        when(apiService.fetchAllAdmissions()).thenReturn(Mono.just(mockAdmissions));
+        when(apiService.fetchAllEmployees()).thenReturn(Mono.just(mockEmployees));
+        when(apiService.fetchAllAllocations()).thenReturn(Mono.just(mockAllocations));
+
+        // Execute test
+        cacheService.init();
+
+        // Verify results
+        DatasetSnapshot snapshot = cacheService.getSnapshot();
+        assertTrue(snapshot.isFullyLoaded());
+        verify(snapshotStore).save(snapshot);
+    }
+
     // Helper methods to create test data
     private Patient createPatient(int id, String surname, String forename) {
         Patient patient = new Patient();
@@ -0,0 +1,291 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.Allocation;
+import com.api.model.Employee;
+import com.api.model.EpochSeconds;
+import com.api.model.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetSnapshotTest {
+
+    @Test
+    void empty_shouldHaveNothingLoaded() {
+        DatasetSnapshot snapshot = DatasetSnapshot.empty();
+
+        for (DatasetCollection collection : DatasetCollection.values()) {
+            assertFalse(snapshot.isLoaded(collection));
+        }
+        assertFalse(snapshot.isFullyLoaded());
+        assertTrue(snapshot.getAdmissionsForPatient(1).isEmpty());
+    }
+
+    @Test
+    void build_shouldIndexCollections() {
+        DatasetSnapshot snapshot = DatasetSnapshot.builder(1)
+                .patients(Arrays.asList(createPatient(1), createPatient(2)))
+                .admissions(Arrays.asList(
+                        createAdmission(102, 1, "2023-01-15T09:00:00"),
+                        createAdmission(101, 1, "2023-01-01T10:00:00")))
+                .employees(Collections.singletonList(createEmployee(301)))
+                .allocations(Arrays.asList(createAllocation(201, 101, 301), createAllocation(202, 101, 302)))
+                .build();
+
+        assertTrue(snapshot.isFullyLoaded());
+        assertEquals(2, snapshot.getPatient(2).getId());
+        assertEquals(101, snapshot.getAdmission(101).getId());
+        assertEquals(301, snapshot.getEmployee(301).getId());
+        assertTrue(snapshot.hasAdmissions(1));
+        assertFalse(snapshot.hasAdmissions(2));
+
+        // Admissions per patient are sorted by admission date
+        List<Admission> admissions = snapshot.getAdmissionsForPatient(1);
+        assertEquals(101, admissions.get(0).getId());
+        assertEquals(102, admissions.get(1).getId());
+
+        assertEquals(2, snapshot.getAllocationsForAdmission(101).size());
+        assertTrue(snapshot.getAllocationsForAdmission(102).isEmpty());
+    }
+
+    @Test
+    void toBuilder_shouldKeepUnchangedCollectionsAndBumpVersion() {
+        DatasetSnapshot first = DatasetSnapshot.builder(1)
+                .patients(Collections.singletonList(createPatient(1)))
+                .admissions(Collections.singletonList(createAdmission(101, 1, "2023-01-01T10:00:00")))
+                .build();
+
+        DatasetSnapshot second = first.toBuilder()
+                .patients(Arrays.asList(createPatient(1), createPatient(2)))
+                .build();
+
+        assertEquals(2, second.getVersion());
+        assertEquals(2, second.getPatients().size());
+        assertSame(first.getAdmissions(), second.getAdmissions());
+        assertTrue(second.hasAdmissions(1));
+
+        // The previous version is left untouched
+        assertEquals(1, first.getPatients().size());
+        assertNull(first.getPatient(2));
+    }
+
+    @Test
+    void deltaBuild_shouldMatchFullRebuild() {
+        List<Patient> patients = Arrays.asList(createPatient(1), createPatient(2), createPatient(3));
+        List<Admission> admissions = Arrays.asList(
+                createAdmission(101, 1, "2023-01-01T10:00:00", "2023-01-10T14:00:00"),
+                createAdmission(102, 1, "2023-01-15T09:00:00", "2023-01-20T16:00:00"),
+                createAdmission(103, 2, "2023-02-01T09:00:00", "2023-02-03T16:00:00"),
+                createAdmission(104, 3, "2023-03-01T09:00:00", "2023-03-02T16:00:00"));
+        List<Allocation> allocations = Arrays.asList(createAllocation(201, 101, 301),
+                createAllocation(202, 101, 302), createAllocation(203, 103, 301));
+        DatasetSnapshot base = DatasetSnapshot.builder(1)
+                .patients(patients)
+                .admissions(admissions)
+                .employees(Collections.singletonList(createEmployee(301)))
+                .allocations(allocations)
+                .build();
+
+        // Patient 1's second admission moves out of the readmission window, patient 2 is
+        // readmitted, patient 3's admission is dropped and admission 103 gains a second nurse
+        List<Admission> newAdmissions = Arrays.asList(
+                createAdmission(101, 1, "2023-01-01T10:00:00", "2023-01-10T14:00:00"),
+                createAdmission(102, 1, "2023-02-15T09:00:00", "2023-02-20T16:00:00"),
+                createAdmission(103, 2, "2023-02-01T09:00:00", "2023-02-03T16:00:00"),
+                createAdmission(105, 2, "2023-02-05T09:00:00", "2023-02-06T16:00:00"));
+        List<Allocation> newAllocations = Arrays.asList(createAllocation(201, 101, 301),
+                createAllocation(202, 101, 302), createAllocation(203, 103, 301), createAllocation(204, 103, 303));
+
+        DatasetSnapshot patched = base.toBuilder()
+                .admissions(newAdmissions, RecordDelta.diff(base.getAdmissions(), base::getAdmission,
+                        newAdmissions, Admission::getId))
+                .allocations(newAllocations, RecordDelta.diff(base.getAllocations(), base::getAllocation,
+                        newAllocations, Allocation::getId))
+                .build();
+        DatasetSnapshot rebuilt = DatasetSnapshot.builder(2)
+                .patients(patients)
+                .admissions(newAdmissions)
+                .employees(Collections.singletonList(createEmployee(301)))
+                .allocations(newAllocations)
+                .build();
+
+        for (int patientId = 1; patientId <= 3; patientId++) {
+            assertEquals(rebuilt.getAdmissionsForPatient(patientId), patched.getAdmissionsForPatient(patientId));
+        }
+        assertEquals(rebuilt.getAdmittedPatientIds(), patched.getAdmittedPatientIds());
+        assertNull(patched.getAdmission(104));
+        assertEquals(rebuilt.getReadmittedPatientIds(), patched.getReadmittedPatientIds());
+        assertEquals(rebuilt.getMultiStaffPatientIds(), patched.getMultiStaffPatientIds());
+        for (int minStaff = 1; minStaff <= 3; minStaff++) {
+            assertArrayEquals(rebuilt.getPatientsWithMinStaff(minStaff), patched.getPatientsWithMinStaff(minStaff));
+        }
+        assertEquals(0, patched.getStaffCount(104));
+        assertEquals(2, patched.getStaffCount(103));
+        assertEquals(rebuilt.getAdmissionsPerMonth().toMap(), patched.getAdmissionsPerMonth().toMap());
+        assertEquals(2, patched.getAllocationsForAdmission(103).size());
+
+        // Untouched entries keep their existing lists
+        assertSame(base.getAllocationsForAdmission(101), patched.getAllocationsForAdmission(101));
+    }
+
+    @Test
+    void deltaBuild_shouldPatchTimelinesAndCohortsLikeFullRebuild() {
+        // Set up test data: a year of stays and allocations, of which a few change
+        Random random = new Random(9);
+        List<Patient> patients = new ArrayList<>();
+        for (int id = 1; id <= 300; id++) {
+            patients.add(createPatient(id));
+        }
+        List<Admission> admissions = new ArrayList<>();
+        List<Allocation> allocations = new ArrayList<>();
+        for (int id = 1; id <= 600; id++) {
+            admissions.add(randomAdmission(id, random));
+            allocations.add(randomAllocation(id, random));
+        }
+        DatasetSnapshot base = DatasetSnapshot.builder(1)
+                .patients(patients)
+                .admissions(admissions)
+                .employees(Collections.singletonList(createEmployee(301)))
+                .allocations(allocations)
+                .build();
+
+        List<Admission> newAdmissions = new ArrayList<>();
+        List<Allocation> newAllocations = new ArrayList<>();
+        for (int id = 1; id <= 630; id++) {
+            if (id <= 600 && random.nextInt(20) == 0) {
+                continue; // Removed
+            }
+            boolean changed = id > 600 || random.nextInt(20) == 0;
+            newAdmissions.add(changed ? randomAdmission(id, random) : copy(admissions.get(id - 1)));
+            newAllocations.add(changed ? randomAllocation(id, random) : copy(allocations.get(id - 1)));
+        }
+
+        // Execute test
+        DatasetSnapshot patched = base.toBuilder()
+                .admissions(newAdmissions, RecordDelta.diff(base.getAdmissions(), base::getAdmission,
+                        newAdmissions, Admission::getId))
+                .allocations(newAllocations, RecordDelta.diff(base.getAllocations(), base::getAllocation,
+                        newAllocations, Allocation::getId))
+                .build();
+        DatasetSnapshot rebuilt = DatasetSnapshot.builder(2)
+                .patients(patients)
+                .admissions(newAdmissions.stream().map(DatasetSnapshotTest::copy).collect(Collectors.toList()))
+                .employees(Collections.singletonList(createEmployee(301)))
+                .allocations(newAllocations.stream().map(DatasetSnapshotTest::copy).collect(Collectors.toList()))
+                .build();
+
+        // Verify results
+        long from = LocalDateTime.of(2022, 12, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        long to = LocalDateTime.of(2024, 2, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        assertArrayEquals(rebuilt.getCensusSeries(from, to, 3_600), patched.getCensusSeries(from, to, 3_600));
+        for (long time = from; time < to; time += 7 * 86_400) {
+            assertEquals(ids(rebuilt.getAdmissionsOverlapping(time, time + 86_400)),
+                    ids(patched.getAdmissionsOverlapping(time, time + 86_400)));
+            assertEquals(ids(rebuilt.getAdmissionsAdmittedBetween(time, time + 86_400)),
+                    ids(patched.getAdmissionsAdmittedBetween(time, time + 86_400)));
+            assertEquals(rebuilt.getCaseloadsAt(time), patched.getCaseloadsAt(time));
+        }
+        assertEquals(rebuilt.getBusiestEmployees(10, from, to), patched.getBusiestEmployees(10, from, to));
+        assertArrayEquals(rebuilt.getPatientsReadmittedWithin(0, 30), patched.getPatientsReadmittedWithin(0, 30));
+        assertArrayEquals(rebuilt.getPatientsWithMinStaff(1), patched.getPatientsWithMinStaff(1));
+        assertEquals(rebuilt.getCohorts().neverAdmitted(), patched.getCohorts().neverAdmitted());
+        assertEquals(rebuilt.getCohorts().readmitted(), patched.getCohorts().readmitted());
+        assertEquals(rebuilt.getCohorts().multiStaff(), patched.getCohorts().multiStaff());
+    }
+
+    @Test
+    void build_shouldNormalizeTimestampsOnIngest() {
+        Admission discharged = createAdmission(101, 1, "2024-01-01T10:00:00", "2024-01-03T10:00:00.000Z");
+        Admission stillAdmitted = createAdmission(102, 1, "2024-02-01T10:00:00.000");
+        Admission unreadable = createAdmission(103, 2, "01/03/2024", null);
+        Admission undated = createAdmission(104, 2, null);
+
+        DatasetSnapshot.builder(1)
+                .admissions(Arrays.asList(discharged, stillAdmitted, unreadable, undated))
+                .build();
+
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0).toEpochSecond(ZoneOffset.UTC), discharged.getAdmissionEpoch());
+        assertEquals(LocalDateTime.of(2024, 1, 3, 10, 0).toEpochSecond(ZoneOffset.UTC), discharged.getDischargeEpoch());
+        assertEquals(EpochSeconds.OPEN, stillAdmitted.getDischargeEpoch());
+        assertEquals(EpochSeconds.INVALID, unreadable.getAdmissionEpoch());
+        assertEquals(EpochSeconds.UNKNOWN, undated.getAdmissionEpoch());
+    }
+
+    private static Admission randomAdmission(int id, Random random) {
+        LocalDateTime admitted = LocalDateTime.of(2023, 1, 1, 0, 0).plusHours(random.nextInt(365 * 24));
+        String discharged = random.nextInt(10) == 0 ? null : timestamp(admitted.plusHours(random.nextInt(14 * 24)));
+        return createAdmission(id, 1 + random.nextInt(250), timestamp(admitted), discharged);
+    }
+
+    private static Allocation randomAllocation(int id, Random random) {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0).plusHours(random.nextInt(365 * 24));
+        Allocation allocation = createAllocation(id, 1 + random.nextInt(600), 1 + random.nextInt(20));
+        allocation.setStartTime(timestamp(start));
+        allocation.setEndTime(random.nextInt(10) == 0 ? null : timestamp(start.plusHours(1 + random.nextInt(12))));
+        return allocation;
+    }
+
+    private static String timestamp(LocalDateTime time) {
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time);
+    }
+
+    private static Admission copy(Admission admission) {
+        return createAdmission(admission.getId(), admission.getPatientID(), admission.getAdmissionDate(),
+                admission.getDischargeDate());
+    }
+
+    private static Allocation copy(Allocation allocation) {
+        Allocation copy = createAllocation(allocation.getId(), allocation.getAdmissionID(), allocation.getEmployeeID());
+        copy.setStartTime(allocation.getStartTime());
+        copy.setEndTime(allocation.getEndTime());
+        return copy;
+    }
+
+    private static List<Integer> ids(List<Admission> admissions) {
+        return admissions.stream().map(Admission::getId).sorted().collect(Collectors.toList());
+    }
+
+    private static Patient createPatient(int id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        return patient;
+    }
+
+    private static Admission createAdmission(int id, int patientId, String admissionDate) {
+        return createAdmission(id, patientId, admissionDate, null);
+    }
+
+    private static Admission createAdmission(int id, int patientId, String admissionDate, String dischargeDate) {
+        Admission admission = new Admission();
+        admission.setId(id);
+        admission.setPatientID(patientId);
+        admission.setAdmissionDate(admissionDate);
+        admission.setDischargeDate(dischargeDate);
+        return admission;
+    }
+
+    private static Employee createEmployee(int id) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        return employee;
+    }
+
+    private static Allocation createAllocation(int id, int admissionId, int employeeId) {
+        Allocation allocation = new Allocation();
+        allocation.setId(id);
+        allocation.setAdmissionID(admissionId);
+        allocation.setEmployeeID(employeeId);
+        return allocation;
+    }
+}
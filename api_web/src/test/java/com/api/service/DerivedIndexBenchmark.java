@@ -0,0 +1,107 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.Allocation;
+import com.api.model.Employee;
+import com.api.model.Patient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latency and allocation of deriving F2–F4 with the dense-ordinal kernels against
+ * evaluating patient by patient through the snapshot's boxed indices. Defaults to 10M
+ * admissions, which needs a heap of around 12 GB; set {@code -Dbenchmarks.admissions} for
+ * a smaller run. Run with
+ * {@code mvn test -Dtest=DerivedIndexBenchmark -Dbenchmarks=true -DargLine=-Xmx12g}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class DerivedIndexBenchmark {
+
+    private static final int ADMISSIONS = Integer.getInteger("benchmarks.admissions", 10_000_000);
+
+    @Test
+    void compareWithPerPatientEvaluation() {
+        DatasetSnapshot snapshot = createSnapshot(new Random(17), ADMISSIONS);
+        Supplier<DerivedIndex> kernels = () -> DerivedIndex.compute(snapshot);
+        Supplier<DerivedIndex> perPatient = () -> DerivedIndex.EMPTY.patch(snapshot,
+                snapshot.getAdmittedPatientIds(), Collections.emptyList(), snapshot.getAdmissions());
+
+        // Warm up both paths
+        kernels.get();
+        perPatient.get();
+
+        long[] kernelCost = measure(kernels);
+        long[] perPatientCost = measure(perPatient);
+
+        assertEquals(perPatient.get().getReadmittedPatients(), kernels.get().getReadmittedPatients());
+        System.out.printf("%,d admissions: per patient %,d ms and %,d MB allocated, kernels %,d ms and %,d MB allocated%n",
+                ADMISSIONS, perPatientCost[0] / 1_000_000, perPatientCost[1] >> 20,
+                kernelCost[0] / 1_000_000, kernelCost[1] >> 20);
+    }
+
+    // Nanoseconds taken and bytes allocated by this thread
+    private static long[] measure(Supplier<DerivedIndex> derivation) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        derivation.get();
+        long nanos = System.nanoTime() - start;
+        return new long[] { nanos, threads.getThreadAllocatedBytes(thread) - allocatedBefore };
+    }
+
+    // Three admissions and six allocations per patient on average, timestamps shared between records
+    private static DatasetSnapshot createSnapshot(Random random, int admissionCount) {
+        String[] days = new String[3_650];
+        for (int day = 0; day < days.length; day++) {
+            days[day] = LocalDate.ofEpochDay(18_000 + day) + "T10:00:00";
+        }
+        int patientCount = admissionCount / 3;
+        List<Patient> patients = new ArrayList<>(patientCount);
+        for (int id = 1; id <= patientCount; id++) {
+            Patient patient = new Patient();
+            patient.setId(id);
+            patients.add(patient);
+        }
+        List<Admission> admissions = new ArrayList<>(admissionCount);
+        for (int id = 1; id <= admissionCount; id++) {
+            Admission admission = new Admission();
+            admission.setId(id);
+            admission.setPatientID(1 + random.nextInt(patientCount));
+            int day = random.nextInt(days.length - 10);
+            admission.setAdmissionDate(days[day]);
+            admission.setDischargeDate(days[day + random.nextInt(10)]);
+            admissions.add(admission);
+        }
+        List<Employee> employees = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            Employee employee = new Employee();
+            employee.setId(id);
+            employees.add(employee);
+        }
+        List<Allocation> allocations = new ArrayList<>(admissionCount * 2);
+        for (int id = 1; id <= admissionCount * 2; id++) {
+            Allocation allocation = new Allocation();
+            allocation.setId(id);
+            allocation.setAdmissionID(1 + random.nextInt(admissionCount));
+            allocation.setEmployeeID(1 + random.nextInt(employees.size()));
+            allocations.add(allocation);
+        }
+        return DatasetSnapshot.builder(1)
+                .patients(patients)
+                .admissions(admissions)
+                .employees(employees)
+                .allocations(allocations)
+                .build();
+    }
+}
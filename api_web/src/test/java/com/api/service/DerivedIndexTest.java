@@ -0,0 +1,167 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.Allocation;
+import com.api.model.Employee;
+import com.api.model.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DerivedIndexTest {
+
+    @Test
+    void compute_shouldMatchEvaluatingPatientByPatient() {
+        for (long seed = 1; seed <= 5; seed++) {
+            // Set up test data
+            DatasetSnapshot snapshot = randomSnapshot(new Random(seed), 500, 2_000, 4_000);
+
+            // Execute test: the dense-ordinal kernels against the per-patient path that patches use
+            DerivedIndex computed = DerivedIndex.compute(snapshot);
+            DerivedIndex evaluated = DerivedIndex.EMPTY.patch(snapshot, snapshot.getAdmittedPatientIds(),
+                    Collections.emptyList(), snapshot.getAdmissions());
+
+            // Verify results
+            assertEquals(evaluated.getReadmittedPatients(), computed.getReadmittedPatients());
+            assertEquals(evaluated.getReadmissionErrors(), computed.getReadmissionErrors());
+            assertArrayEquals(evaluated.getReadmissionGaps().idsWithin(0, Integer.MAX_VALUE),
+                    computed.getReadmissionGaps().idsWithin(0, Integer.MAX_VALUE));
+            assertEquals(evaluated.getMultiStaffPatients(), computed.getMultiStaffPatients());
+            assertEquals(evaluated.getStaffByAdmission(), computed.getStaffByAdmission());
+            assertArrayEquals(evaluated.getPatientsByStaff().idsWithin(0, Integer.MAX_VALUE),
+                    computed.getPatientsByStaff().idsWithin(0, Integer.MAX_VALUE));
+            assertEquals(evaluated.getAdmissionsPerMonth().toMap(), computed.getAdmissionsPerMonth().toMap());
+        }
+    }
+
+    @Test
+    void compute_shouldMatchSequentialWhenPartitionedAcrossPool() {
+        // Set up test data: enough patients for several partitions
+        DatasetSnapshot snapshot = randomSnapshot(new Random(7), 20_000, 60_000, 100_000);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            // Execute test
+            DerivedIndex sequential = DerivedIndex.compute(snapshot, pool, 0);
+            DerivedIndex parallel = DerivedIndex.compute(snapshot, pool, 1);
+
+            // Verify results
+            assertEquals(sequential.getReadmittedPatients(), parallel.getReadmittedPatients());
+            assertEquals(sequential.getReadmissionErrors(), parallel.getReadmissionErrors());
+            assertArrayEquals(sequential.getReadmissionGaps().idsWithin(0, Integer.MAX_VALUE),
+                    parallel.getReadmissionGaps().idsWithin(0, Integer.MAX_VALUE));
+            assertEquals(sequential.getMultiStaffPatients(), parallel.getMultiStaffPatients());
+            assertEquals(sequential.getStaffByAdmission(), parallel.getStaffByAdmission());
+            assertArrayEquals(sequential.getPatientsByStaff().idsWithin(0, Integer.MAX_VALUE),
+                    parallel.getPatientsByStaff().idsWithin(0, Integer.MAX_VALUE));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void compute_shouldSkipAdmissionsAndAllocationsWithoutPatient() {
+        // Set up test data: patient 1 readmitted with two staff, and the same for admissions without a patient
+        List<Admission> admissions = List.of(
+                admission(1, 1, "2023-01-01T10:00:00", "2023-01-05T10:00:00"),
+                admission(2, 1, "2023-01-08T10:00:00", "2023-01-09T10:00:00"),
+                admission(3, null, "2023-02-01T10:00:00", "2023-02-05T10:00:00"),
+                admission(4, null, "2023-02-07T10:00:00", "2023-02-09T10:00:00"));
+        List<Allocation> allocations = List.of(allocation(1, 1, 1), allocation(2, 1, 2),
+                allocation(3, 3, 1), allocation(4, 3, 2));
+
+        // Execute test: building the snapshot derives the index
+        DatasetSnapshot snapshot = DatasetSnapshot.builder(1)
+                .patients(Collections.emptyList())
+                .admissions(admissions)
+                .employees(Collections.emptyList())
+                .allocations(allocations)
+                .build();
+        DerivedIndex computed = DerivedIndex.compute(snapshot);
+        DerivedIndex evaluated = DerivedIndex.EMPTY.patch(snapshot, snapshot.getAdmittedPatientIds(),
+                Collections.emptyList(), admissions);
+
+        // Verify results
+        for (DerivedIndex index : List.of(computed, evaluated)) {
+            assertEquals(Set.of(1), index.getReadmittedPatients());
+            assertEquals(Set.of(1), index.getMultiStaffPatients());
+            assertArrayEquals(new int[] { 1 }, index.getReadmissionGaps().idsWithin(0, Integer.MAX_VALUE));
+            assertArrayEquals(new int[] { 1 }, index.getPatientsByStaff().idsWithin(0, Integer.MAX_VALUE));
+            assertEquals(2, index.getAdmissionsPerMonth().getMaxCount());
+        }
+    }
+
+    private static Admission admission(int id, Integer patientId, String admissionDate, String dischargeDate) {
+        Admission admission = new Admission();
+        admission.setId(id);
+        admission.setPatientID(patientId);
+        admission.setAdmissionDate(admissionDate);
+        admission.setDischargeDate(dischargeDate);
+        return admission;
+    }
+
+    private static Allocation allocation(int id, int admissionId, int employeeId) {
+        Allocation allocation = new Allocation();
+        allocation.setId(id);
+        allocation.setAdmissionID(admissionId);
+        allocation.setEmployeeID(employeeId);
+        return allocation;
+    }
+
+    /**
+     * Admissions with open, missing and unparseable dates, and allocations with repeated
+     * or missing employees and unknown admissions
+     */
+    static DatasetSnapshot randomSnapshot(Random random, int patientCount, int admissionCount, int allocationCount) {
+        List<Patient> patients = new ArrayList<>();
+        for (int id = 1; id <= patientCount; id++) {
+            Patient patient = new Patient();
+            patient.setId(id);
+            patients.add(patient);
+        }
+        List<Admission> admissions = new ArrayList<>();
+        for (int id = 1; id <= admissionCount; id++) {
+            Admission admission = new Admission();
+            admission.setId(id);
+            admission.setPatientID(1 + random.nextInt(patientCount));
+            int day = random.nextInt(365);
+            admission.setAdmissionDate(random.nextInt(100) == 0 ? null : timestamp(day, random));
+            admission.setDischargeDate(random.nextInt(10) == 0 ? null
+                    : random.nextInt(200) == 0 ? "not a date" : timestamp(day + random.nextInt(10), random));
+            admissions.add(admission);
+        }
+        List<Employee> employees = new ArrayList<>();
+        for (int id = 1; id <= 20; id++) {
+            Employee employee = new Employee();
+            employee.setId(id);
+            employees.add(employee);
+        }
+        List<Allocation> allocations = new ArrayList<>();
+        for (int id = 1; id <= allocationCount; id++) {
+            Allocation allocation = new Allocation();
+            allocation.setId(id);
+            allocation.setAdmissionID(1 + random.nextInt(admissionCount + 50));
+            allocation.setEmployeeID(random.nextInt(100) == 0 ? null : 1 + random.nextInt(employees.size()));
+            allocations.add(allocation);
+        }
+        return DatasetSnapshot.builder(1)
+                .patients(patients)
+                .admissions(admissions)
+                .employees(employees)
+                .allocations(allocations)
+                .build();
+    }
+
+    private static String timestamp(int dayOfYear, Random random) {
+        LocalDate date = LocalDate.ofYearDay(2023, 1 + dayOfYear % 365);
+        return String.format("%sT%02d:%02d:%02d", date, random.nextInt(24), random.nextInt(60), random.nextInt(60));
+    }
+}
@@ -0,0 +1,187 @@
+package com.api.service;
+
+import com.api.exception.UpstreamUnavailableException;
+import com.api.model.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EntityLookupServiceTest {
+
+    @Mock
+    private DataCacheService cacheService;
+
+    @Mock
+    private MaternityApiService apiService;
+
+    @InjectMocks
+    private EntityLookupService lookupService;
+
+    @BeforeEach
+    void setUp() {
+        lookupService.init();
+    }
+
+    @Test
+    void getPatient_shouldAnswerFromLoadedSnapshot() {
+        // Set up mock behavior
+        when(cacheService.getCurrentSnapshot()).thenReturn(DatasetSnapshot.builder(1)
+                .patients(Collections.singletonList(createPatient(1)))
+                .build());
+
+        // Execute test
+        Patient found = lookupService.getPatient(1);
+        Patient missing = lookupService.getPatient(999);
+
+        // Verify results: neither the hit nor the miss goes upstream
+        assertEquals(1, found.getId());
+        assertNull(missing);
+        verifyNoInteractions(apiService);
+    }
+
+    @Test
+    void getPatient_shouldReadThroughWhileNotLoaded() {
+        // Set up mock behavior
+        when(cacheService.getCurrentSnapshot()).thenReturn(DatasetSnapshot.empty());
+        when(apiService.fetchPatientById(1)).thenReturn(Mono.just(createPatient(1)));
+
+        // Execute test
+        Patient result = lookupService.getPatient(1);
+
+        // Verify results
+        assertEquals(1, result.getId());
+        verify(apiService).fetchPatientById(1);
+    }
+
+    @Test
+    void getPatient_shouldRememberIdsUpstreamDoesNotKnow() {
+        // Set up mock behavior
+        when(cacheService.getCurrentSnapshot()).thenReturn(DatasetSnapshot.empty());
+        when(apiService.fetchPatientById(999)).thenReturn(Mono.empty());
+
+        // Execute test
+        assertNull(lookupService.getPatient(999));
+        assertNull(lookupService.getPatient(999));
+
+        // Verify results
+        verify(apiService, times(1)).fetchPatientById(999);
+    }
+
+    @Test
+    void getPatient_shouldNotCacheUpstreamFailures() {
+        // Set up mock behavior
+        when(cacheService.getCurrentSnapshot()).thenReturn(DatasetSnapshot.empty());
+        when(apiService.fetchPatientById(1)).thenReturn(Mono.error(new IllegalStateException("unavailable")));
+
+        // Execute test and verify results: reported as unavailable, not as a missing patient
+        assertThrows(UpstreamUnavailableException.class, () -> lookupService.getPatient(1));
+        assertThrows(UpstreamUnavailableException.class, () -> lookupService.getPatient(1));
+        verify(apiService, times(2)).fetchPatientById(1);
+    }
+
+    @Test
+    void getPatient_shouldResolveOtherIdsWhenOneFails() throws Exception {
+        // A window wide enough for both callers to join the same batch
+        ReflectionTestUtils.setField(lookupService, "batchWindow", Duration.ofMillis(500));
+        lookupService.init();
+
+        // Set up mock behavior
+        when(cacheService.getCurrentSnapshot()).thenReturn(DatasetSnapshot.empty());
+        when(apiService.fetchPatientById(1)).thenReturn(Mono.error(new IllegalStateException("unavailable")));
+        when(apiService.fetchPatientById(2)).thenReturn(Mono.just(createPatient(2)));
+
+        // Execute test
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        Future<Patient> failing = executorService.submit(() -> lookupService.getPatient(1));
+        Future<Patient> resolving = executorService.submit(() -> lookupService.getPatient(2));
+
+        // Verify results: only the caller of the failed ID misses out
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(UpstreamUnavailableException.class, error.getCause());
+        assertEquals(2, resolving.get(10, TimeUnit.SECONDS).getId());
+        executorService.shutdown();
+    }
+
+    @Test
+    void getPatient_shouldPropagateUnavailableUpstream() {
+        // Set up mock behavior: the circuit breaker is open
+        when(cacheService.getCurrentSnapshot()).thenReturn(DatasetSnapshot.empty());
+        when(apiService.fetchPatientById(1)).thenReturn(Mono.error(new UpstreamUnavailableException("circuit open")));
+
+        // Execute test and verify results: reported as unavailable, not as a missing patient
+        assertThrows(UpstreamUnavailableException.class, () -> lookupService.getPatient(1));
+        assertThrows(UpstreamUnavailableException.class, () -> lookupService.getPatient(1));
+        verify(apiService, times(2)).fetchPatientById(1);
+    }
+
+    @Test
+    void getPatient_shouldStopWaitingForABatchThatNeverCompletes() {
+        ReflectionTestUtils.setField(lookupService, "lookupWaitBudget", Duration.ofMillis(200));
+
+        // Set up mock behavior: upstream never answers
+        when(cacheService.getCurrentSnapshot()).thenReturn(DatasetSnapshot.empty());
+        when(apiService.fetchPatientById(1)).thenReturn(Mono.never());
+
+        // Execute test and verify results: the caller is released as unavailable, not left hanging
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(UpstreamUnavailableException.class, () -> lookupService.getPatient(1)));
+    }
+
+    @Test
+    void getPatient_shouldResolveConcurrentColdLookupsWithOneBulkLoad() throws Exception {
+        // A window wide enough for every caller to join the same batch
+        ReflectionTestUtils.setField(lookupService, "batchWindow", Duration.ofMillis(500));
+        lookupService.init();
+
+        // Set up mock behavior
+        List<Patient> patients = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            patients.add(createPatient(id));
+        }
+        when(cacheService.getCurrentSnapshot()).thenReturn(DatasetSnapshot.empty());
+        when(cacheService.loadAsync(DatasetCollection.PATIENTS))
+                .thenReturn(Mono.just(DatasetSnapshot.builder(1).patients(patients).build()));
+
+        // Execute test: 100 callers, e.g. one per allocation of a ward, each asking for one patient
+        ExecutorService executorService = Executors.newFixedThreadPool(100);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Patient>> results = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            int patientId = id;
+            results.add(executorService.submit(() -> {
+                start.await();
+                return lookupService.getPatient(patientId);
+            }));
+        }
+        start.countDown();
+
+        // Verify results
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1, results.get(i).get(10, TimeUnit.SECONDS).getId());
+        }
+        executorService.shutdown();
+        verify(cacheService, times(1)).loadAsync(DatasetCollection.PATIENTS);
+        verify(apiService, never()).fetchPatientById(any());
+    }
+
+    private Patient createPatient(int id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        return patient;
+    }
+}
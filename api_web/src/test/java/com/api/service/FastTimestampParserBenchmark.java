@@ -0,0 +1,64 @@
+package com.api.service;
+
+import com.api.model.EpochSeconds;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-record cost of the fast parser against the formatter loop it replaced, on 10M
+ * upstream-style timestamps. Run with {@code mvn test -Dtest=FastTimestampParserBenchmark -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class FastTimestampParserBenchmark {
+
+    private static final int RECORDS = 10_000_000;
+    private static final int DISTINCT = 100_000;
+
+    @Test
+    void compareWithFormatterParsing() {
+        // Upstream sends the millisecond "Z" format, which the formatter loop only reaches after a failed attempt
+        Random random = new Random(7);
+        String[] timestamps = new String[DISTINCT];
+        for (int i = 0; i < DISTINCT; i++) {
+            timestamps[i] = FastTimestampParserTest.randomTimestamp(random).substring(0, 19)
+                    + String.format(".%03dZ", random.nextInt(1000));
+        }
+
+        // Warm up both paths
+        run(new FastTimestampParser(), timestamps, RECORDS / 10);
+        runReference(timestamps, RECORDS / 100);
+
+        long start = System.nanoTime();
+        long fastChecksum = run(new FastTimestampParser(), timestamps, RECORDS);
+        long fastNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long referenceChecksum = runReference(timestamps, RECORDS);
+        long referenceNanos = System.nanoTime() - start;
+
+        assertEquals(referenceChecksum, fastChecksum);
+        System.out.printf("%,d timestamps: formatters %.1f ns/record, fast parser %.1f ns/record (%.0fx)%n",
+                RECORDS, (double) referenceNanos / RECORDS, (double) fastNanos / RECORDS,
+                (double) referenceNanos / fastNanos);
+    }
+
+    private static long run(FastTimestampParser parser, String[] timestamps, int count) {
+        long checksum = 0;
+        for (int i = 0; i < count; i++) {
+            checksum += parser.toEpochSecond(timestamps[i % timestamps.length], EpochSeconds.UNKNOWN);
+        }
+        return checksum;
+    }
+
+    private static long runReference(String[] timestamps, int count) {
+        long checksum = 0;
+        for (int i = 0; i < count; i++) {
+            checksum += FastTimestampParserTest.referenceEpochSecond(timestamps[i % timestamps.length]);
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,93 @@
+package com.api.service;
+
+import com.api.model.EpochSeconds;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FastTimestampParserTest {
+
+    // The formatter-based parsing the fast parser replaces
+    private static final DateTimeFormatter[] FORMATTERS = {
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS")
+    };
+
+    @Test
+    void toEpochSecond_shouldMatchFormatterParsing() {
+        List<String> samples = Arrays.asList(
+                "2024-01-01T10:00:00", "2024-01-01T10:00:00.123", "2024-01-01T10:00:00.999Z",
+                "1970-01-01T00:00:00", "1969-12-31T23:59:59", "2000-02-29T12:30:45",
+                "2023-02-29T12:30:45", "2023-04-31T00:00:00", "1900-03-01T00:00:00",
+                "2024-13-01T00:00:00", "2024-00-10T00:00:00", "2024-01-32T00:00:00",
+                "2024-01-01T24:00:00", "2024-01-01T10:60:00", "2024-01-01T10:00:60",
+                "2024-01-01 10:00:00", "2024-01-01T10:00:00Z", "2024-01-01T10:00:00.12Z",
+                "2024-1-01T10:00:00", "20x4-01-01T10:00:00", "01/02/2024 10:00", "garbage");
+        FastTimestampParser parser = new FastTimestampParser();
+        for (String sample : samples) {
+            assertEquals(referenceEpochSecond(sample), parser.toEpochSecond(sample, EpochSeconds.UNKNOWN), sample);
+        }
+
+        // Random valid timestamps across all formats
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            String sample = randomTimestamp(random);
+            assertEquals(referenceEpochSecond(sample), parser.toEpochSecond(sample, EpochSeconds.UNKNOWN), sample);
+        }
+    }
+
+    @Test
+    void toEpochSecond_shouldReturnAbsentValueForMissingTimestamps() {
+        FastTimestampParser parser = new FastTimestampParser();
+
+        assertEquals(EpochSeconds.OPEN, parser.toEpochSecond(null, EpochSeconds.OPEN));
+        assertEquals(EpochSeconds.UNKNOWN, parser.toEpochSecond("", EpochSeconds.UNKNOWN));
+    }
+
+    @Test
+    void toEpochSecond_shouldLearnTheFormatOfItsSource() {
+        FastTimestampParser parser = new FastTimestampParser();
+        assertEquals(FastTimestampParser.Format.PLAIN, parser.getLearnedFormat());
+
+        parser.toEpochSecond("2024-01-01T10:00:00.000Z", EpochSeconds.UNKNOWN);
+        assertEquals(FastTimestampParser.Format.MILLIS_UTC, parser.getLearnedFormat());
+
+        // An unparseable value does not change what was learned
+        parser.toEpochSecond("2024-01-01T10:00:00.abc", EpochSeconds.UNKNOWN);
+        assertEquals(FastTimestampParser.Format.MILLIS_UTC, parser.getLearnedFormat());
+    }
+
+    static long referenceEpochSecond(String text) {
+        for (DateTimeFormatter formatter : FORMATTERS) {
+            try {
+                return LocalDateTime.parse(text, formatter).toEpochSecond(ZoneOffset.UTC);
+            } catch (DateTimeParseException e) {
+                // Try the next format
+            }
+        }
+        return EpochSeconds.INVALID;
+    }
+
+    static String randomTimestamp(Random random) {
+        String base = String.format("%04d-%02d-%02dT%02d:%02d:%02d",
+                1900 + random.nextInt(200), 1 + random.nextInt(12), 1 + random.nextInt(31),
+                random.nextInt(24), random.nextInt(60), random.nextInt(60));
+        switch (random.nextInt(3)) {
+            case 0:
+                return base;
+            case 1:
+                return base + String.format(".%03d", random.nextInt(1000));
+            default:
+                return base + String.format(".%03dZ", random.nextInt(1000));
+        }
+    }
+}
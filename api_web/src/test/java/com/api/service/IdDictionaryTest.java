@@ -0,0 +1,53 @@
+package com.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdDictionaryTest {
+
+    @Test
+    void add_shouldAssignDenseOrdinalsInOrderOfFirstAppearance() {
+        // Set up test data, sized too small so the table has to grow
+        IdDictionary dictionary = new IdDictionary(2);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(13);
+
+        // Execute test
+        for (int i = 0; i < 50_000; i++) {
+            int id = random.nextInt(20_000) - 10_000;
+            int ordinal = dictionary.add(id);
+            expected.putIfAbsent(id, expected.size());
+
+            // Verify results
+            assertEquals(expected.get(id), ordinal);
+        }
+        assertEquals(expected.size(), dictionary.size());
+        expected.forEach((id, ordinal) -> {
+            assertEquals(ordinal, dictionary.ordinalOf(id));
+            assertEquals(id, dictionary.idOf(ordinal));
+        });
+        assertEquals(-1, dictionary.ordinalOf(20_000));
+    }
+
+    @Test
+    void add_shouldGiveNullAnOrdinalOfItsOwn() {
+        // Set up test data
+        IdDictionary dictionary = new IdDictionary(4);
+
+        // Execute test
+        int zero = dictionary.add(0);
+        int none = dictionary.add(null);
+
+        // Verify results
+        assertNotEquals(zero, none);
+        assertEquals(none, dictionary.add(null));
+        assertEquals(none, dictionary.ordinalOf(null));
+        assertNull(dictionary.idOf(none));
+        assertEquals(0, dictionary.idOf(zero));
+    }
+}
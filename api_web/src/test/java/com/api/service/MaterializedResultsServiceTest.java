@@ -0,0 +1,175 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.Allocation;
+import com.api.model.Patient;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MaterializedResultsServiceTest {
+
+    @Mock
+    private DataCacheService cacheService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MaterializedResultsService resultsService;
+
+    @BeforeEach
+    void setUp() {
+        MaternityBusinessService businessService = new MaternityBusinessService(cacheService);
+        resultsService = new MaterializedResultsService(cacheService, businessService, objectMapper);
+    }
+
+    @Test
+    void getResults_shouldSerializeAllFourAnswers() throws Exception {
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot(1));
+
+        MaterializedResults results = resultsService.getResults();
+
+        List<Patient> neverAdmitted = objectMapper.readValue(results.getPatientsNeverAdmitted(),
+                new TypeReference<List<Patient>>() {});
+        List<Patient> readmitted = objectMapper.readValue(results.getPatientsReadmittedWithin7Days(),
+                new TypeReference<List<Patient>>() {});
+        Map<String, Integer> month = objectMapper.readValue(results.getMonthWithMostAdmissions(),
+                new TypeReference<Map<String, Integer>>() {});
+        List<Patient> multipleStaff = objectMapper.readValue(results.getPatientsWithMultipleStaff(),
+                new TypeReference<List<Patient>>() {});
+
+        assertEquals(1, results.getSnapshotVersion());
+        assertEquals(1, neverAdmitted.size());
+        assertEquals(2, neverAdmitted.get(0).getId());
+        assertEquals(1, readmitted.size());
+        assertEquals(2, month.get("2023-01"));
+        assertEquals(1, multipleStaff.size());
+    }
+
+    @Test
+    void getResults_shouldReuseResultsForSameSnapshotVersion() {
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot(1));
+
+        MaterializedResults first = resultsService.getResults();
+        MaterializedResults second = resultsService.getResults();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void getResults_shouldRematerializeWhenSnapshotChanges() {
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot(1), createSnapshot(2));
+
+        MaterializedResults first = resultsService.getResults();
+        MaterializedResults second = resultsService.getResults();
+
+        assertEquals(1, first.getSnapshotVersion());
+        assertEquals(2, second.getSnapshotVersion());
+    }
+
+    @Test
+    void getResults_shouldMaterializeOnceForConcurrentRequests() throws Exception {
+        // The first materialization is slow, so every request arrives while it is in progress
+        MaternityBusinessService businessService = spy(new MaternityBusinessService(cacheService));
+        doAnswer(invocation -> {
+            Thread.sleep(200);
+            return invocation.callRealMethod();
+        }).when(businessService).getPatientsNeverAdmitted(any(DatasetSnapshot.class));
+        resultsService = new MaterializedResultsService(cacheService, businessService, objectMapper);
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot(1));
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MaterializedResults>> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(executorService.submit(() -> {
+                start.await();
+                return resultsService.getResults();
+            }));
+        }
+        start.countDown();
+
+        MaterializedResults first = requests.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<MaterializedResults> request : requests) {
+            assertSame(first, request.get(10, TimeUnit.SECONDS));
+        }
+        verify(businessService, times(1)).getPatientsNeverAdmitted(any(DatasetSnapshot.class));
+        executorService.shutdown();
+    }
+
+    @Test
+    void getResults_shouldKeepOtherAnswersWhenReadmissionsFail() throws Exception {
+        DatasetSnapshot snapshot = DatasetSnapshot.builder(1)
+                .patients(Arrays.asList(createPatient(1), createPatient(2)))
+                .admissions(Arrays.asList(
+                        createAdmission(101, 1, "2023-01-01T10:00:00", "2023-01-10T14:00:00"),
+                        createAdmission(102, 1, "not-a-date", "2023-01-20T16:00:00")))
+                .employees(Collections.emptyList())
+                .allocations(Arrays.asList(createAllocation(201, 101, 301), createAllocation(202, 101, 302)))
+                .build();
+        when(cacheService.getSnapshot()).thenReturn(snapshot);
+
+        MaterializedResults first = resultsService.getResults();
+        MaterializedResults second = resultsService.getResults();
+
+        assertSame(first, second);
+        assertThrows(IllegalArgumentException.class, second::getPatientsReadmittedWithin7Days);
+        List<Patient> neverAdmitted = objectMapper.readValue(second.getPatientsNeverAdmitted(),
+                new TypeReference<List<Patient>>() {});
+        Map<String, Integer> month = objectMapper.readValue(second.getMonthWithMostAdmissions(),
+                new TypeReference<Map<String, Integer>>() {});
+        List<Patient> multipleStaff = objectMapper.readValue(second.getPatientsWithMultipleStaff(),
+                new TypeReference<List<Patient>>() {});
+        assertEquals(1, neverAdmitted.size());
+        assertEquals(1, month.get("2023-01"));
+        assertEquals(1, multipleStaff.size());
+    }
+
+    private DatasetSnapshot createSnapshot(long version) {
+        return DatasetSnapshot.builder(version)
+                .patients(Arrays.asList(createPatient(1), createPatient(2)))
+                .admissions(Arrays.asList(
+                        createAdmission(101, 1, "2023-01-01T10:00:00", "2023-01-10T14:00:00"),
+                        createAdmission(102, 1, "2023-01-15T09:00:00", "2023-01-20T16:00:00")))
+                .employees(Collections.emptyList())
+                .allocations(Arrays.asList(createAllocation(201, 101, 301), createAllocation(202, 101, 302)))
+                .build();
+    }
+
+    private Patient createPatient(int id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        return patient;
+    }
+
+    private Admission createAdmission(int id, int patientId, String admissionDate, String dischargeDate) {
+        Admission admission = new Admission();
+        admission.setId(id);
+        admission.setPatientID(patientId);
+        admission.setAdmissionDate(admissionDate);
+        admission.setDischargeDate(dischargeDate);
+        return admission;
+    }
+
+    private Allocation createAllocation(int id, int admissionId, int employeeId) {
+        Allocation allocation = new Allocation();
+        allocation.setId(id);
+        allocation.setAdmissionID(admissionId);
+        allocation.setEmployeeID(employeeId);
+        return allocation;
+    }
+}
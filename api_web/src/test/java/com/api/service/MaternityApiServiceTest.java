@@ -4,55 +4,53 @@ import com.api.model.Admission;
 import com.api.model.Allocation;
 import com.api.model.Employee;
 import com.api.model.Patient;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.mockito.junit.jupiter.MockitoSettings;
-import org.mockito.quality.Strictness;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
-@MockitoSettings(strictness = Strictness.LENIENT)
 public class MaternityApiServiceTest {
 
-    @Mock
-    private WebClient webClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
-    @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
+    // Canned upstream responses by request path, and the requests that were sent
+    private final Map<String, Supplier<ClientResponse>> responses = new HashMap<>();
+    private final List<ClientRequest> requests = new ArrayList<>();
 
-    @Mock
-    private WebClient.RequestHeadersSpec requestHeadersSpec;
-
-    @Mock
-    private WebClient.ResponseSpec responseSpec;
-
-    @InjectMocks
     private MaternityApiService apiService;
 
     @BeforeEach
     void setUp() {
-        // Set up basic WebClient mock behavior
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        // Set up a WebClient backed by the canned responses
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://localhost")
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    Supplier<ClientResponse> response = responses.get(request.url().getPath());
+                    return Mono.just(response != null
+                            ? response.get()
+                            : ClientResponse.create(HttpStatus.NOT_FOUND).build());
+                })
+                .build();
+        apiService = new MaternityApiService(webClient);
     }
 
     @Test
-    void getAllPatients_shouldReturnListOfPatients() {
+    void getAllPatients_shouldReturnListOfPatients() throws Exception {
         // Prepare test data
         Patient patient1 = new Patient();
         patient1.setId(1);
@@ -67,7 +65,7 @@ public class MaternityApiServiceTest {
         Patient[] patients = {patient1, patient2};
 
         // Set up mock behavior
-        when(responseSpec.bodyToMono(Patient[].class)).thenReturn(Mono.just(patients));
+        respondWith("/Patients", patients);
 
         // Execute test
         List<Patient> result = apiService.getAllPatients();
@@ -82,7 +80,7 @@ public class MaternityApiServiceTest {
     }
 
     @Test
-    void getPatientById_shouldReturnPatientWhenExists() {
+    void getPatientById_shouldReturnPatientWhenExists() throws Exception {
         // Prepare test data
         Patient patient = new Patient();
         patient.setId(1);
@@ -90,7 +88,7 @@ public class MaternityApiServiceTest {
         patient.setForename("John");
 
         // Set up mock behavior
-        when(responseSpec.bodyToMono(Patient.class)).thenReturn(Mono.just(patient));
+        respondWith("/Patients/1", patient);
 
         // Execute test
         Patient result = apiService.getPatientById(1);
@@ -102,7 +100,7 @@ public class MaternityApiServiceTest {
     }
 
     @Test
-    void getAllAdmissions_shouldReturnListOfAdmissions() {
+    void getAllAdmissions_shouldReturnListOfAdmissions() throws Exception {
         // Prepare test data
         Admission admission1 = new Admission();
         admission1.setId(101);
@@ -115,7 +113,7 @@ public class MaternityApiServiceTest {
         Admission[] admissions = {admission1, admission2};
 
         // Set up mock behavior
-        when(responseSpec.bodyToMono(Admission[].class)).thenReturn(Mono.just(admissions));
+        respondWith("/Admissions", admissions);
 
         // Execute test
         List<Admission> result = apiService.getAllAdmissions();
@@ -129,50 +127,50 @@ public class MaternityApiServiceTest {
     }
 
     @Test
-    void getAllEmployees_shouldReturnListOfEmployees() {
+    void getAllEmployees_shouldReturnListOfEmployees() throws Exception {
         // Prepare test data
         Employee employee1 = new Employee();
         employee1.setId(301);
-        
+
         Employee employee2 = new Employee();
         employee2.setId(302);
-        
+
         Employee[] employees = {employee1, employee2};
-        
+
         // Set up mock behavior
-        when(responseSpec.bodyToMono(Employee[].class)).thenReturn(Mono.just(employees));
-        
+        respondWith("/Employees", employees);
+
         // Execute test
         List<Employee> result = apiService.getAllEmployees();
-        
+
         // Verify results
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals(301, result.get(0).getId());
         assertEquals(302, result.get(1).getId());
     }
-    
+
     @Test
-    void getAllAllocations_shouldReturnListOfAllocations() {
+    void getAllAllocations_shouldReturnListOfAllocations() throws Exception {
         // Prepare test data
         Allocation allocation1 = new Allocation();
         allocation1.setId(201);
         allocation1.setAdmissionID(101);
         allocation1.setEmployeeID(301);
-        
+
         Allocation allocation2 = new Allocation();
         allocation2.setId(202);
         allocation2.setAdmissionID(102);
         allocation2.setEmployeeID(302);
-        
+
         Allocation[] allocations = {allocation1, allocation2};
-        
+
         // Set up mock behavior
-        when(responseSpec.bodyToMono(Allocation[].class)).thenReturn(Mono.just(allocations));
-        
+        respondWith("/Allocations", allocations);
+
         // Execute test
         List<Allocation> result = apiService.getAllAllocations();
-        
+
         // Verify results
         assertNotNull(result);
         assertEquals(2, result.size());
@@ -181,37 +179,144 @@ public class MaternityApiServiceTest {
         assertEquals(301, result.get(0).getEmployeeID());
         assertEquals(202, result.get(1).getId());
     }
-    
+
     @Test
-    void getAllocationsById_shouldReturnAllocationWhenExists() {
+    void getAllocationsById_shouldReturnAllocationWhenExists() throws Exception {
         // Prepare test data
         Allocation allocation = new Allocation();
         allocation.setId(201);
         allocation.setAdmissionID(101);
         allocation.setEmployeeID(301);
-        
+
         // Set up mock behavior
-        when(responseSpec.bodyToMono(Allocation.class)).thenReturn(Mono.just(allocation));
-        
+        respondWith("/Allocations/201", allocation);
+
         // Execute test
         Allocation result = apiService.getAllocationById(201);
-        
+
         // Verify results
         assertNotNull(result);
         assertEquals(201, result.getId());
         assertEquals(101, result.getAdmissionID());
         assertEquals(301, result.getEmployeeID());
     }
-    
+
     @Test
     void getPatientById_shouldReturnNullWhenNotExists() {
-        // Set up mock behavior
-        when(responseSpec.bodyToMono(Patient.class)).thenReturn(Mono.error(new RuntimeException("Not found")));
-        
+        // No canned response: upstream answers 404
+
         // Execute test
         Patient result = apiService.getPatientById(999);
-        
+
         // Verify results
         assertNull(result);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void fetchPatientsIfChanged_shouldSendValidatorsAndSkipParsingOn304() throws Exception {
+        String json = objectMapper.writeValueAsString(new Patient[]{createPatient(1)});
+        responses.put("/Patients", () -> ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ETAG, "\"v1\"")
+                .body(json)
+                .build());
+
+        FetchResult<Patient> first = apiService.fetchPatientsIfChanged().block();
+        assertTrue(first.isModified());
+        assertEquals(1, first.getRecords().size());
+        apiService.saveValidators(DatasetCollection.PATIENTS, first);
+
+        // Upstream now reports the collection as unchanged
+        responses.put("/Patients", () -> ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+        FetchResult<Patient> second = apiService.fetchPatientsIfChanged().block();
+        assertFalse(second.isModified());
+        assertNull(second.getRecords());
+        assertEquals("\"v1\"", requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void fetchPatientsIfChanged_shouldTreatIdenticalBodyAsNotModified() throws Exception {
+        // Upstream without ETag or Last-Modified support
+        respondWith("/Patients", new Patient[]{createPatient(1)});
+
+        FetchResult<Patient> first = apiService.fetchPatientsIfChanged().block();
+        assertTrue(first.isModified());
+        apiService.saveValidators(DatasetCollection.PATIENTS, first);
+        assertFalse(apiService.fetchPatientsIfChanged().block().isModified());
+
+        // A changed body is parsed again
+        respondWith("/Patients", new Patient[]{createPatient(1), createPatient(2)});
+        FetchResult<Patient> changed = apiService.fetchPatientsIfChanged().block();
+        assertTrue(changed.isModified());
+        assertEquals(2, changed.getRecords().size());
+    }
+
+    @Test
+    void fetchPatientsIfChanged_shouldDownloadInFullUntilValidatorsAreSaved() throws Exception {
+        String json = objectMapper.writeValueAsString(new Patient[]{createPatient(1)});
+        responses.put("/Patients", () -> ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ETAG, "\"v1\"")
+                .body(json)
+                .build());
+
+        // The first result is never saved, as when publishing its records failed
+        assertTrue(apiService.fetchPatientsIfChanged().block().isModified());
+        FetchResult<Patient> second = apiService.fetchPatientsIfChanged().block();
+
+        assertTrue(second.isModified());
+        assertEquals(1, second.getRecords().size());
+        assertNull(requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void resetValidators_shouldForceFullFetch() throws Exception {
+        respondWith("/Patients", new Patient[]{createPatient(1)});
+        apiService.saveValidators(DatasetCollection.PATIENTS, apiService.fetchPatientsIfChanged().block());
+
+        apiService.resetValidators(DatasetCollection.PATIENTS);
+
+        assertTrue(apiService.fetchPatientsIfChanged().block().isModified());
+    }
+
+    @Test
+    void fetchAllPatients_shouldPropagateUpstreamErrors() {
+        responses.put("/Patients", () -> ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+
+        assertThrows(Exception.class, () -> apiService.fetchAllPatients().block());
+        assertTrue(apiService.getAllPatients().isEmpty());
+    }
+
+    @Test
+    void fetchAllPatients_shouldStreamPayloadsLargerThanCodecLimit() throws Exception {
+        // About 2MB of JSON, well above the 256KB default in-memory limit for a buffered body
+        int count = 20_000;
+        Patient[] patients = new Patient[count];
+        for (int i = 0; i < count; i++) {
+            patients[i] = createPatient(i);
+            patients[i].setSurname("Surname-" + i + "-" + "x".repeat(60));
+        }
+        respondWith("/Patients", patients);
+
+        List<Patient> result = apiService.fetchAllPatients().block();
+
+        assertEquals(count, result.size());
+        assertEquals(count - 1, result.get(count - 1).getId());
+    }
+
+    // Helper methods to create test data
+    private void respondWith(String path, Object body) throws Exception {
+        String json = objectMapper.writeValueAsString(body);
+        responses.put(path, () -> ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(json)
+                .build());
+    }
+
+    private Patient createPatient(int id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        return patient;
+    }
+}
@@ -9,10 +9,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,9 +24,6 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class MaternityBusinessServiceTest {
 
-    @Mock
-    private MaternityApiService apiService;
-
     @Mock
     private DataCacheService cacheService;
 
@@ -60,8 +61,7 @@ public class MaternityBusinessServiceTest {
     @Test
     void getPatientsNeverAdmitted_shouldReturnPatientsWithNoAdmissions() {
         // Set up mock behavior
-        when(cacheService.getAllPatients()).thenReturn(mockPatients);
-        when(cacheService.getAllAdmissions()).thenReturn(mockAdmissions);
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot());
 
         // Execute test
         List<Patient> result = businessService.getPatientsNeverAdmitted();
@@ -69,15 +69,13 @@ public class MaternityBusinessServiceTest {
         // Verify results
         assertEquals(1, result.size());
         assertEquals(3, result.get(0).getId());
-        verify(cacheService, times(1)).getAllPatients();
-        verify(cacheService, times(1)).getAllAdmissions();
+        verify(cacheService, times(1)).getSnapshot();
     }
 
     @Test
     void getPatientsReadmittedWithin7Days_shouldReturnPatientsReadmittedWithin7Days() {
         // Set up mock behavior
-        when(cacheService.getAllAdmissions()).thenReturn(mockAdmissions);
-        when(cacheService.getAllPatients()).thenReturn(mockPatients);
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot());
 
         // Execute test
         List<Patient> result = businessService.getPatientsReadmittedWithin7Days();
@@ -85,14 +83,13 @@ public class MaternityBusinessServiceTest {
         // Verify results
         assertEquals(1, result.size());
         assertEquals(1, result.get(0).getId());
-        verify(cacheService, times(1)).getAllAdmissions();
-        verify(cacheService, times(1)).getAllPatients();
+        verify(cacheService, times(1)).getSnapshot();
     }
 
     @Test
     void getMonthWithMostAdmissions_shouldReturnMonthWithHighestAdmissions() {
         // Set up mock behavior
-        when(cacheService.getAllAdmissions()).thenReturn(mockAdmissions);
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot());
 
         // Execute test
         Map<String, Integer> result = businessService.getMonthWithMostAdmissions();
@@ -100,15 +97,13 @@ public class MaternityBusinessServiceTest {
         // Verify results
         assertFalse(result.isEmpty());
         assertEquals(2, result.get("2023-01")); // January has 2 admissions
-        verify(cacheService, times(1)).getAllAdmissions();
+        verify(cacheService, times(1)).getSnapshot();
     }
 
     @Test
     void getPatientsWithMultipleStaff_shouldReturnPatientsWithMoreThanOneStaffAssigned() {
         // Set up mock behavior
-        when(cacheService.getAllAdmissions()).thenReturn(mockAdmissions);
-        when(cacheService.getAllPatients()).thenReturn(mockPatients);
-        when(cacheService.getAllAllocations()).thenReturn(mockAllocations);
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot());
 
         // Execute test
         List<Patient> result = businessService.getPatientsWithMultipleStaff();
@@ -116,12 +111,120 @@ public class MaternityBusinessServiceTest {
         // Verify results
         assertEquals(1, result.size());
         assertEquals(1, result.get(0).getId()); // Patient 1 has multiple staff
-        verify(cacheService, times(1)).getAllAdmissions();
-        verify(cacheService, times(1)).getAllPatients();
-        verify(cacheService, times(1)).getAllAllocations();
+        verify(cacheService, times(1)).getSnapshot();
+    }
+
+    @Test
+    void getPatientsReadmittedWithin_shouldAnswerArbitraryWindowsSmallestGapFirst() {
+        // Patient 2 is readmitted 12 days after discharge, patient 1 after 4 days
+        mockAdmissions = Arrays.asList(
+                mockAdmissions.get(0), mockAdmissions.get(1), mockAdmissions.get(2),
+                createAdmission(104, 2, "2023-02-28T10:00:00", null));
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot());
+
+        // Execute test
+        List<Patient> within3 = businessService.getPatientsReadmittedWithin(3, null, null);
+        List<Patient> within14 = businessService.getPatientsReadmittedWithin(14, null, null);
+        List<Patient> between5And30 = businessService.getPatientsReadmittedWithin(30, 5, null);
+
+        // Verify results
+        assertTrue(within3.isEmpty());
+        assertEquals(Arrays.asList(1, 2), within14.stream().map(Patient::getId).collect(Collectors.toList()));
+        assertEquals(1, between5And30.size());
+        assertEquals(2, between5And30.get(0).getId());
+        assertThrows(IllegalArgumentException.class, () -> businessService.getPatientsReadmittedWithin(-1, null, null));
+    }
+
+    @Test
+    void getAdmissions_shouldFilterByOverlapOrAdmissionDate() {
+        // Set up mock behavior
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot());
+
+        // Execute test
+        List<Admission> overlapping = businessService.getAdmissions("2023-01-08,2023-01-14", null);
+        List<Admission> admitted = businessService.getAdmissions(null, "2023-01-15,2023-02-05");
+        List<Admission> all = businessService.getAdmissions(null, null);
+
+        // Verify results
+        assertEquals(Arrays.asList(101), overlapping.stream().map(Admission::getId).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(102, 103), admitted.stream().map(Admission::getId).collect(Collectors.toList()));
+        assertEquals(3, all.size());
+        assertThrows(IllegalArgumentException.class, () -> businessService.getAdmissions("2023-01-08", null));
+        assertThrows(IllegalArgumentException.class, () -> businessService.getAdmissions("2023-02-01,2023-01-01", null));
+        assertThrows(IllegalArgumentException.class, () -> businessService.getAdmissions("a,b", "a,b"));
+    }
+
+    @Test
+    void getPatientsWithMinStaff_shouldAnswerAnyThresholdAndWindow() {
+        // Patient 1's first admission has two staff, patient 2's admission one
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot());
+
+        // Execute test
+        List<Patient> atLeastOne = businessService.getPatientsWithMinStaff(1, null, null);
+        List<Patient> atLeastTwo = businessService.getPatientsWithMinStaff(2, null, null);
+        List<Patient> atLeastTwoInFebruary = businessService.getPatientsWithMinStaff(2, "2023-02-01", "2023-02-28");
+        List<Patient> atLeastOneInFebruary = businessService.getPatientsWithMinStaff(1, "2023-02-01", "2023-02-28");
+
+        // Verify results
+        assertEquals(Arrays.asList(1, 2), atLeastOne.stream().map(Patient::getId).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(1), atLeastTwo.stream().map(Patient::getId).collect(Collectors.toList()));
+        assertEquals(businessService.getPatientsWithMultipleStaff(), atLeastTwo);
+        assertTrue(atLeastTwoInFebruary.isEmpty());
+        assertEquals(Arrays.asList(2), atLeastOneInFebruary.stream().map(Patient::getId).collect(Collectors.toList()));
+        assertTrue(businessService.getPatientsWithMinStaff(3, null, null).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> businessService.getPatientsWithMinStaff(0, null, null));
+        assertThrows(IllegalArgumentException.class, () -> businessService.getPatientsWithMinStaff(2, "2023-02-01", null));
+    }
+
+    @Test
+    void getCohort_shouldCombineTheAnalyticsCohorts() {
+        // Set up mock behavior
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot());
+
+        // Execute test
+        List<Patient> readmittedAndMultiStaff = businessService.getCohort("readmitted AND multi-staff");
+        List<Patient> notAdmittedInFebruary = businessService.getCohort("NOT admitted-in:2023-02 AND NOT never-admitted");
+        List<Patient> staffedOrNeverAdmitted = businessService.getCohort("(never-admitted OR min-staff:1) and not readmitted-within:7");
+
+        // Verify results
+        assertEquals(Arrays.asList(1), readmittedAndMultiStaff.stream().map(Patient::getId).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(1), notAdmittedInFebruary.stream().map(Patient::getId).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(2, 3), staffedOrNeverAdmitted.stream().map(Patient::getId).collect(Collectors.toList()));
+        assertEquals(businessService.getPatientsNeverAdmitted(), businessService.getCohort("never-admitted"));
+        assertThrows(IllegalArgumentException.class, () -> businessService.getCohort("admitted-in:March"));
+        assertThrows(IllegalArgumentException.class, () -> businessService.getCohort("unknown"));
+    }
+
+    @Test
+    void parallelMode_shouldGiveTheSameResultsAsSequential() {
+        // Set up mock behavior
+        DatasetSnapshot snapshot = createSnapshot();
+        List<Patient> neverAdmitted = businessService.getPatientsNeverAdmitted(snapshot);
+        List<Patient> readmitted = businessService.getPatientsReadmittedWithin7Days(snapshot);
+        List<Patient> multiStaff = businessService.getPatientsWithMultipleStaff(snapshot);
+        ReflectionTestUtils.setField(businessService, "parallelThreshold", 1);
+        ReflectionTestUtils.setField(businessService, "parallelPoolSize", 2);
+
+        try {
+            // Execute test and verify results
+            assertEquals(neverAdmitted, businessService.getPatientsNeverAdmitted(snapshot));
+            assertEquals(readmitted, businessService.getPatientsReadmittedWithin7Days(snapshot));
+            assertEquals(multiStaff, businessService.getPatientsWithMultipleStaff(snapshot));
+        } finally {
+            businessService.stop();
+        }
     }
 
     // Helper methods to create test data
+    private DatasetSnapshot createSnapshot() {
+        return DatasetSnapshot.builder(1)
+                .patients(mockPatients)
+                .admissions(mockAdmissions)
+                .employees(Collections.emptyList())
+                .allocations(mockAllocations)
+                .build();
+    }
+
     private Patient createPatient(int id, String surname, String forename) {
         Patient patient = new Patient();
         patient.setId(id);
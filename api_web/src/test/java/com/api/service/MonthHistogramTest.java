@@ -0,0 +1,94 @@
+package com.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonthHistogramTest {
+
+    @Test
+    void monthOrdinal_shouldMatchJavaTime() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            // Execute test
+            long epochSecond = LocalDateTime.of(1, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC)
+                    + (long) (random.nextDouble() * 9999L * 365 * 86_400);
+            YearMonth expected = YearMonth.from(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+
+            // Verify results
+            assertEquals(MonthHistogram.ordinal(expected), MonthHistogram.monthOrdinal(epochSecond), "at " + epochSecond);
+        }
+    }
+
+    @Test
+    void build_shouldTrimEmptyMonthsAtTheEdgesOnly() {
+        // Set up test data
+        MonthHistogram.Counter counter = new MonthHistogram.Counter();
+        counter.add(ordinal("2024-03"), 2);
+        counter.add(ordinal("2023-12"), 1);
+        counter.add(ordinal("2024-05"), 1);
+        counter.add(ordinal("2024-05"), -1);
+
+        // Execute test
+        MonthHistogram histogram = counter.build();
+
+        // Verify results
+        assertEquals(Arrays.asList(YearMonth.parse("2023-12"), YearMonth.parse("2024-01"),
+                YearMonth.parse("2024-02"), YearMonth.parse("2024-03")), new ArrayList<>(histogram.toMap().keySet()));
+        assertEquals(0, histogram.getCount(YearMonth.parse("2024-01")));
+        assertEquals(2, histogram.toNonEmptyMap().size());
+        assertEquals(2, histogram.getMaxCount());
+    }
+
+    @Test
+    void top_shouldRankByCountThenMonthAndExtendTies() {
+        // Set up test data
+        MonthHistogram.Counter counter = new MonthHistogram.Counter();
+        counter.add(ordinal("2024-01"), 3);
+        counter.add(ordinal("2024-02"), 5);
+        counter.add(ordinal("2024-03"), 3);
+        counter.add(ordinal("2024-04"), 1);
+        MonthHistogram histogram = counter.build();
+
+        // Execute test
+        Map<YearMonth, Integer> top = histogram.top(2, false);
+        Map<YearMonth, Integer> topWithTies = histogram.top(2, true);
+
+        // Verify results
+        assertEquals(Arrays.asList(YearMonth.parse("2024-02"), YearMonth.parse("2024-01")),
+                new ArrayList<>(top.keySet()));
+        assertEquals(Arrays.asList(YearMonth.parse("2024-02"), YearMonth.parse("2024-01"), YearMonth.parse("2024-03")),
+                new ArrayList<>(topWithTies.keySet()));
+        assertEquals(4, histogram.top(10, false).size());
+        assertEquals(Arrays.asList(YearMonth.parse("2024-02")), histogram.getBusiestMonths());
+    }
+
+    @Test
+    void build_shouldReturnEmptyWhenAllCountsCancel() {
+        // Set up test data
+        MonthHistogram.Counter counter = new MonthHistogram.Counter();
+        counter.add(ordinal("2024-01"), 1);
+        counter.add(ordinal("2024-01"), -1);
+
+        // Execute test
+        MonthHistogram histogram = counter.build();
+
+        // Verify results
+        assertTrue(histogram.isEmpty());
+        assertTrue(histogram.getBusiestMonths().isEmpty());
+        assertTrue(histogram.top(3, true).isEmpty());
+    }
+
+    // Helper methods to create test data
+    private static int ordinal(String month) {
+        return MonthHistogram.ordinal(YearMonth.parse(month));
+    }
+}
@@ -0,0 +1,75 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.EpochSeconds;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OccupancyCurveTest {
+
+    private static final long HOUR = 3_600;
+
+    @Test
+    void at_shouldMatchCountingEveryStay() {
+        // Set up test data: stays of up to two weeks over a year, some still open
+        Random random = new Random(5);
+        List<Admission> admissions = new ArrayList<>();
+        for (int id = 1; id <= 2_000; id++) {
+            long admit = random.nextInt(365 * 24) * HOUR;
+            long discharge = random.nextInt(10) == 0 ? EpochSeconds.OPEN : admit + random.nextInt(14 * 24) * HOUR;
+            admissions.add(createAdmission(id, admit, discharge));
+        }
+        OccupancyCurve curve = OccupancyCurve.of(admissions);
+
+        long from = -24 * HOUR;
+        long to = 380 * 24 * HOUR;
+        int[] series = curve.series(from, to, HOUR);
+        for (int i = 0; i < series.length; i++) {
+            long time = from + i * HOUR;
+
+            // Execute test
+            long expected = admissions.stream()
+                    .filter(a -> a.getAdmissionEpoch() <= time && time < a.getDischargeEpoch())
+                    .count();
+
+            // Verify results
+            assertEquals(expected, curve.at(time), "at " + time);
+            assertEquals(expected, series[i], "series at " + time);
+        }
+    }
+
+    @Test
+    void of_shouldSkipUndatedAndEmptyStays() {
+        // Set up test data
+        OccupancyCurve curve = OccupancyCurve.of(Arrays.asList(
+                createAdmission(1, 0, 10 * HOUR),
+                createAdmission(2, 5 * HOUR, EpochSeconds.OPEN),
+                createAdmission(3, EpochSeconds.UNKNOWN, 8 * HOUR),
+                createAdmission(4, 2 * HOUR, EpochSeconds.INVALID),
+                createAdmission(5, 6 * HOUR, 6 * HOUR)));
+
+        // Execute test and verify results
+        assertEquals(0, curve.at(-1));
+        assertEquals(1, curve.at(0));
+        assertEquals(2, curve.at(6 * HOUR));
+        assertEquals(1, curve.at(10 * HOUR));
+        assertArrayEquals(new int[] { 1, 2, 1 }, curve.series(0, 15 * HOUR, 5 * HOUR));
+        assertEquals(0, curve.series(HOUR, HOUR, HOUR).length);
+        assertEquals(0, OccupancyCurve.EMPTY.at(0));
+    }
+
+    // Helper methods to create test data
+    private static Admission createAdmission(int id, long admissionEpoch, long dischargeEpoch) {
+        Admission admission = new Admission();
+        admission.setId(id);
+        admission.setAdmissionEpoch(admissionEpoch);
+        admission.setDischargeEpoch(dischargeEpoch);
+        return admission;
+    }
+}
@@ -0,0 +1,141 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.Allocation;
+import com.api.model.Employee;
+import com.api.model.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OccupancyServiceTest {
+
+    @Mock
+    private DataCacheService cacheService;
+
+    @InjectMocks
+    private OccupancyService occupancyService;
+
+    private List<Patient> mockPatients;
+    private List<Admission> mockAdmissions;
+    private List<Allocation> mockAllocations;
+
+    @BeforeEach
+    void setUp() {
+        // Prepare test data
+        mockPatients = Arrays.asList(
+                createPatient(1, "Smith", "John"),
+                createPatient(2, "Johnson", "Mary"),
+                createPatient(3, "Brown", "David")
+        );
+
+        mockAdmissions = Arrays.asList(
+                createAdmission(101, 1, "2023-01-01T10:00:00", "2023-01-10T14:00:00"),
+                createAdmission(102, 1, "2023-01-15T09:00:00", "2023-01-20T16:00:00"),
+                createAdmission(103, 2, "2023-02-05T08:00:00", "2023-02-15T11:00:00")
+        );
+
+        mockAllocations = Collections.emptyList();
+    }
+
+    @Test
+    void getCensusSeries_shouldCountPatientsOnTheWardAtEachStep() {
+        // Set up mock behavior
+        when(cacheService.getSnapshot()).thenReturn(createSnapshot());
+
+        // Execute test
+        Map<String, Integer> daily = occupancyService.getCensusSeries("2023-01-09T12:00:00", "2023-01-17T00:00:00", "P2D");
+        Map<String, Object> census = occupancyService.getCensus("2023-02-10");
+
+        // Verify results
+        assertEquals(Arrays.asList(1, 0, 0, 1), new ArrayList<>(daily.values()));
+        assertEquals("2023-01-09T12:00:00", daily.keySet().iterator().next());
+        assertEquals(1, census.get("patients"));
+        assertThrows(IllegalArgumentException.class, () -> occupancyService.getCensusSeries("2023-01-01", "2023-01-02", "PT0S"));
+        assertThrows(IllegalArgumentException.class, () -> occupancyService.getCensusSeries("2000-01-01", "2023-01-02", "PT1S"));
+    }
+
+    @Test
+    void getWeeklyHours_shouldSplitAllocationsAtMondays() {
+        // Staff 301 works Sunday 20:00 to Monday 04:00, then 6 hours on Wednesday
+        mockAllocations = Arrays.asList(
+                createAllocation(201, 101, 301, "2023-01-01T20:00:00", "2023-01-02T04:00:00"),
+                createAllocation(202, 101, 301, "2023-01-04T08:00:00", "2023-01-04T14:00:00"),
+                createAllocation(203, 102, 302, "2023-01-04T08:00:00", "2023-01-04T10:00:00"));
+        DatasetSnapshot snapshot = DatasetSnapshot.builder(1)
+                .patients(mockPatients)
+                .admissions(mockAdmissions)
+                .employees(Arrays.asList(createEmployee(301), createEmployee(302)))
+                .allocations(mockAllocations)
+                .build();
+        when(cacheService.getSnapshot()).thenReturn(snapshot);
+
+        // Execute test
+        Map<String, Double> weekly = occupancyService.getWeeklyHours(301, "2023-01-01", "2023-01-08");
+        Map<Integer, Double> busiest = occupancyService.getBusiestEmployees(5, "2023-01-02", "2023-01-08");
+
+        // Verify results
+        assertEquals(Arrays.asList("2022-12-26", "2023-01-02"), new ArrayList<>(weekly.keySet()));
+        assertEquals(Arrays.asList(4.0, 10.0), new ArrayList<>(weekly.values()));
+        assertEquals(Arrays.asList(301, 302), new ArrayList<>(busiest.keySet()));
+        assertEquals(10.0, busiest.get(301));
+        assertNull(occupancyService.getWeeklyHours(999, "2023-01-01", "2023-01-08"));
+        assertThrows(IllegalArgumentException.class, () -> occupancyService.getBusiestEmployees(0, "2023-01-01", "2023-01-08"));
+    }
+
+    // Helper methods to create test data
+    private DatasetSnapshot createSnapshot() {
+        return DatasetSnapshot.builder(1)
+                .patients(mockPatients)
+                .admissions(mockAdmissions)
+                .employees(Collections.emptyList())
+                .allocations(mockAllocations)
+                .build();
+    }
+
+    private Patient createPatient(int id, String surname, String forename) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setSurname(surname);
+        patient.setForename(forename);
+        return patient;
+    }
+
+    private Admission createAdmission(int id, int patientId, String admissionDate, String dischargeDate) {
+        Admission admission = new Admission();
+        admission.setId(id);
+        admission.setPatientID(patientId);
+        admission.setAdmissionDate(admissionDate);
+        admission.setDischargeDate(dischargeDate);
+        return admission;
+    }
+
+    private Allocation createAllocation(int id, int admissionId, int employeeId, String startTime, String endTime) {
+        Allocation allocation = new Allocation();
+        allocation.setId(id);
+        allocation.setAdmissionID(admissionId);
+        allocation.setEmployeeID(employeeId);
+        allocation.setStartTime(startTime);
+        allocation.setEndTime(endTime);
+        return allocation;
+    }
+
+    private Employee createEmployee(int id) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        return employee;
+    }
+}
@@ -0,0 +1,33 @@
+package com.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedFilterTest {
+
+    @Test
+    void filter_shouldMatchSequentialFilteringAboveTheThreshold() {
+        // Set up test data
+        List<Integer> records = IntStream.range(0, 200_000).boxed().collect(Collectors.toList());
+        Predicate<Integer> keep = value -> Integer.bitCount(value) % 3 == 0;
+        List<Integer> expected = records.stream().filter(keep).collect(Collectors.toList());
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            // Execute test and verify results
+            assertEquals(expected, PartitionedFilter.filter(records, keep, 1_000, pool));
+            assertEquals(expected, PartitionedFilter.filter(records, keep, 0, pool));
+            assertEquals(expected, PartitionedFilter.filter(records, keep, 1_000_000, pool));
+            assertEquals(expected, PartitionedFilter.filter(records, keep, 1_000, ForkJoinPool.commonPool()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.api.service;
+
+import com.api.model.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecordDeltaTest {
+
+    @Test
+    void diff_shouldFindAddedRemovedAndChangedRecords() {
+        List<Patient> current = Arrays.asList(createPatient(1, "Smith"), createPatient(2, "Johnson"),
+                createPatient(3, "Brown"));
+        List<Patient> incoming = Arrays.asList(createPatient(1, "Smith"), createPatient(2, "Jones"),
+                createPatient(4, "Taylor"));
+
+        RecordDelta<Patient> delta = RecordDelta.diff(current, byId(current), incoming, Patient::getId);
+
+        assertEquals(1, delta.getAdded().size());
+        assertEquals(4, delta.getAdded().get(0).getId());
+        assertEquals(1, delta.getRemoved().size());
+        assertEquals(3, delta.getRemoved().get(0).getId());
+        assertEquals(1, delta.getChanged().size());
+        assertEquals("Jones", delta.getChanged().get(0).getSurname());
+        assertEquals(3, delta.size());
+    }
+
+    @Test
+    void diff_shouldBeEmptyForIdenticalRecords() {
+        List<Patient> current = Arrays.asList(createPatient(1, "Smith"), createPatient(2, "Johnson"));
+        // Equal content in new instances, as after decoding the same payload again
+        List<Patient> incoming = Arrays.asList(createPatient(2, "Johnson"), createPatient(1, "Smith"));
+
+        RecordDelta<Patient> delta = RecordDelta.diff(current, byId(current), incoming, Patient::getId);
+
+        assertTrue(delta.isEmpty());
+    }
+
+    private Function<Integer, Patient> byId(List<Patient> patients) {
+        Map<Integer, Patient> index = patients.stream().collect(Collectors.toMap(Patient::getId, p -> p));
+        return index::get;
+    }
+
+    private Patient createPatient(int id, String surname) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setSurname(surname);
+        return patient;
+    }
+}
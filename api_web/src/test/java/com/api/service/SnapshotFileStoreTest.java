@@ -0,0 +1,177 @@
+package com.api.service;
+
+import com.api.model.Admission;
+import com.api.model.Allocation;
+import com.api.model.Employee;
+import com.api.model.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotFileStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private SnapshotFileStore store;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("snapshot.bin");
+        store = open(file);
+    }
+
+    @Test
+    void saveAndLoad_shouldRoundTripSnapshot() {
+        DatasetSnapshot original = createSnapshot(5);
+
+        store.save(original);
+        store.flush();
+        Optional<DatasetSnapshot> loaded = reopen().load();
+
+        assertTrue(loaded.isPresent());
+        DatasetSnapshot snapshot = loaded.get();
+        assertEquals(5, snapshot.getVersion());
+        assertTrue(snapshot.isFullyLoaded());
+        assertEquals("Smith", snapshot.getPatient(1).getSurname());
+        assertNull(snapshot.getPatient(2).getNhsNumber());
+        assertEquals("2023-01-01T10:00:00", snapshot.getAdmission(101).getAdmissionDate());
+        assertNull(snapshot.getAdmission(101).getDischargeDate());
+        assertEquals(2, snapshot.getAllocationsForAdmission(101).size());
+        assertEquals("Jones", snapshot.getEmployee(301).getSurname());
+    }
+
+    @Test
+    void save_shouldSkipSnapshotsThatAreNotFullyLoaded() {
+        store.save(DatasetSnapshot.builder(1).patients(Collections.emptyList()).build());
+        store.flush();
+
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void load_shouldIgnoreCorruptFile() throws Exception {
+        store.save(createSnapshot(5));
+        store.flush();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(file, bytes);
+
+        assertFalse(reopen().load().isPresent());
+    }
+
+    @Test
+    void load_shouldIgnoreTruncatedFile() throws Exception {
+        Files.write(file, new byte[]{1, 2, 3});
+
+        assertFalse(store.load().isPresent());
+    }
+
+    @Test
+    void save_shouldWriteFileReadableByOwnerOnly() throws Exception {
+        store = open(tempDir.resolve("private").resolve("snapshot.bin"));
+
+        store.save(createSnapshot(5));
+        store.flush();
+
+        Path written = tempDir.resolve("private").resolve("snapshot.bin");
+        assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(written));
+        assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(written.getParent()));
+    }
+
+    @Test
+    void save_shouldWriteNewestOfSnapshotsSavedTogether() {
+        for (long version = 1; version <= 20; version++) {
+            store.save(createSnapshot(version));
+        }
+        store.flush();
+
+        assertEquals(20, reopen().load().get().getVersion());
+    }
+
+    @Test
+    void save_shouldDoNothingWithoutExplicitPath() {
+        SnapshotFileStore unconfigured = new SnapshotFileStore();
+        ReflectionTestUtils.setField(unconfigured, "enabled", true);
+        unconfigured.init();
+
+        unconfigured.save(createSnapshot(5));
+        unconfigured.flush();
+
+        assertFalse(unconfigured.load().isPresent());
+    }
+
+    @Test
+    void init_shouldNotStartWriterWhenDisabled() {
+        SnapshotFileStore disabled = new SnapshotFileStore();
+        ReflectionTestUtils.setField(disabled, "location", file.toString());
+        disabled.init();
+
+        disabled.save(createSnapshot(5));
+        disabled.flush();
+        disabled.stop();
+
+        assertNull(ReflectionTestUtils.getField(disabled, "writer"));
+        assertFalse(Files.exists(file));
+    }
+
+    // A fresh store pointing at the same file, as after a restart
+    private SnapshotFileStore reopen() {
+        return open(file);
+    }
+
+    private SnapshotFileStore open(Path location) {
+        SnapshotFileStore opened = new SnapshotFileStore();
+        ReflectionTestUtils.setField(opened, "enabled", true);
+        ReflectionTestUtils.setField(opened, "location", location.toString());
+        opened.init();
+        return opened;
+    }
+
+    // Helper methods to create test data
+    private DatasetSnapshot createSnapshot(long version) {
+        Patient smith = new Patient();
+        smith.setId(1);
+        smith.setSurname("Smith");
+        smith.setForename("John");
+        smith.setNhsNumber("1234567890");
+        Patient unnamed = new Patient();
+        unnamed.setId(2);
+
+        Admission admission = new Admission();
+        admission.setId(101);
+        admission.setPatientID(1);
+        admission.setAdmissionDate("2023-01-01T10:00:00");
+
+        Employee employee = new Employee();
+        employee.setId(301);
+        employee.setSurname("Jones");
+
+        return DatasetSnapshot.builder(version)
+                .patients(Arrays.asList(smith, unnamed))
+                .admissions(Collections.singletonList(admission))
+                .employees(Collections.singletonList(employee))
+                .allocations(Arrays.asList(createAllocation(201, 101, 301), createAllocation(202, 101, 302)))
+                .build();
+    }
+
+    private Allocation createAllocation(int id, int admissionId, int employeeId) {
+        Allocation allocation = new Allocation();
+        allocation.setId(id);
+        allocation.setAdmissionID(admissionId);
+        allocation.setEmployeeID(employeeId);
+        allocation.setStartTime("2023-01-01T10:00:00");
+        return allocation;
+    }
+}
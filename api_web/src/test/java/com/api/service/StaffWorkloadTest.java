@@ -0,0 +1,87 @@
+package com.api.service;
+
+import com.api.model.Allocation;
+import com.api.model.EpochSeconds;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StaffWorkloadTest {
+
+    private static final long HOUR = 3_600;
+
+    @Test
+    void queries_shouldMatchScanningEveryAllocation() {
+        // Set up test data: shifts of up to 12 hours for 20 employees over 90 days, some open
+        Random random = new Random(3);
+        List<Allocation> allocations = new ArrayList<>();
+        for (int id = 1; id <= 3_000; id++) {
+            long start = random.nextInt(90 * 24) * HOUR + random.nextInt(60) * 60;
+            long end = random.nextInt(50) == 0 ? EpochSeconds.OPEN : start + random.nextInt(12 * 60) * 60;
+            allocations.add(createAllocation(id, 1 + random.nextInt(20), start, end));
+        }
+        StaffWorkload workload = StaffWorkload.of(allocations);
+
+        for (int i = 0; i < 200; i++) {
+            long from = random.nextInt(100 * 24) * HOUR - 5 * 24 * HOUR;
+            long to = from + random.nextInt(14 * 24) * HOUR;
+            int employeeId = 1 + random.nextInt(20);
+
+            // Execute test
+            long expectedCaseload = allocations.stream()
+                    .filter(a -> a.getEmployeeID() == employeeId)
+                    .filter(a -> a.getStartEpoch() <= from && from < a.getEndEpoch() && a.getStartEpoch() < a.getEndEpoch())
+                    .count();
+            long expectedSeconds = allocations.stream()
+                    .filter(a -> a.getEmployeeID() == employeeId)
+                    .mapToLong(a -> Math.max(0, Math.min(to, a.getEndEpoch()) - Math.max(from, a.getStartEpoch())))
+                    .sum();
+
+            // Verify results
+            assertEquals(expectedCaseload, workload.caseloadAt(employeeId, from));
+            assertEquals(expectedSeconds, workload.allocatedSeconds(employeeId, from, to));
+            assertEquals((Integer) (int) expectedCaseload,
+                    workload.caseloadsAt(from).getOrDefault(employeeId, 0));
+        }
+    }
+
+    @Test
+    void busiest_shouldRankByAllocatedTimeThenEmployeeId() {
+        // Set up test data
+        StaffWorkload workload = StaffWorkload.of(Arrays.asList(
+                createAllocation(1, 301, 0, 8 * HOUR),
+                createAllocation(2, 302, 0, 4 * HOUR),
+                createAllocation(3, 302, 2 * HOUR, 6 * HOUR),
+                createAllocation(4, 303, 0, 2 * HOUR),
+                createAllocation(5, 304, 20 * HOUR, 30 * HOUR)));
+
+        // Execute test
+        Map<Integer, Long> top2 = workload.busiest(2, 0, 10 * HOUR);
+        Map<Integer, Integer> caseloads = workload.caseloadsAt(3 * HOUR);
+
+        // Verify results
+        assertEquals(Arrays.asList(301, 302), new ArrayList<>(top2.keySet()));
+        assertEquals(8 * HOUR, top2.get(301));
+        assertEquals(8 * HOUR, top2.get(302));
+        assertEquals(3, workload.busiest(5, 0, 10 * HOUR).size());
+        assertEquals(Arrays.asList(302, 301), new ArrayList<>(caseloads.keySet()));
+        assertEquals(2, caseloads.get(302));
+        assertEquals(0, workload.caseloadAt(999, 0));
+    }
+
+    // Helper methods to create test data
+    private static Allocation createAllocation(int id, int employeeId, long startEpoch, long endEpoch) {
+        Allocation allocation = new Allocation();
+        allocation.setId(id);
+        allocation.setEmployeeID(employeeId);
+        allocation.setStartEpoch(startEpoch);
+        allocation.setEndEpoch(endEpoch);
+        return allocation;
+    }
+}
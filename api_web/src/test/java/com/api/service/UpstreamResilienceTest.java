@@ -0,0 +1,203 @@
+package com.api.service;
+
+import com.api.exception.UpstreamUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UpstreamResilienceTest {
+
+    private UpstreamResilience resilience;
+
+    @BeforeEach
+    void setUp() {
+        resilience = new UpstreamResilience(3, Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(resilience, "retryBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(resilience, "byIdAttemptTimeout", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(resilience, "byIdDeadline", Duration.ofSeconds(1));
+    }
+
+    @Test
+    void byId_shouldRetryServerErrors() {
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> calls.incrementAndGet() < 3
+                ? Mono.error(serverError())
+                : Mono.just("record"));
+
+        assertEquals("record", resilience.byId(call).block(Duration.ofSeconds(5)));
+        assertEquals(3, calls.get());
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.getCircuitState());
+    }
+
+    @Test
+    void byId_shouldNotRetryClientErrors() {
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(
+                    HttpStatus.BAD_REQUEST.value(), "Bad Request", null, null, null));
+        });
+
+        assertThrows(WebClientResponseException.class, () -> resilience.byId(call).block(Duration.ofSeconds(5)));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void byId_shouldBoundSlowCallsByTheAttemptTimeout() {
+        Mono<String> call = Mono.<String>never();
+
+        long start = System.nanoTime();
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> resilience.byId(call).block(Duration.ofSeconds(5)));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(error.getCause() instanceof TimeoutException, error.toString());
+        assertTrue(elapsedMillis < 2000, "took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void circuitBreaker_shouldFailFastOnceOpen() {
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(serverError());
+        });
+
+        // The first call and its two retries reach the threshold of three failures
+        assertThrows(WebClientResponseException.class, () -> resilience.bulk(call).block(Duration.ofSeconds(5)));
+        assertEquals(CircuitBreaker.State.OPEN, resilience.getCircuitState());
+
+        assertThrows(UpstreamUnavailableException.class, () -> resilience.bulk(call).block(Duration.ofSeconds(5)));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void circuitBreaker_shouldCloseAfterSuccessfulTrial() {
+        resilience = new UpstreamResilience(1, Duration.ofMillis(50));
+        ReflectionTestUtils.setField(resilience, "retryMaxAttempts", 0);
+
+        assertThrows(WebClientResponseException.class,
+                () -> resilience.bulk(Mono.error(serverError())).block(Duration.ofSeconds(5)));
+        assertEquals(CircuitBreaker.State.OPEN, resilience.getCircuitState());
+
+        Mono.delay(Duration.ofMillis(100)).block();
+        assertEquals("ok", resilience.bulk(Mono.just("ok")).block(Duration.ofSeconds(5)));
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.getCircuitState());
+    }
+
+    @Test
+    void byId_shouldHedgeCallsSlowerThanP95() {
+        // Establish a fast latency profile
+        for (int i = 0; i < 20; i++) {
+            resilience.byId(Mono.just("warm-up")).block(Duration.ofSeconds(5));
+        }
+
+        // The first request stalls; the hedged duplicate answers
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> calls.incrementAndGet() == 1
+                ? Mono.<String>never()
+                : Mono.just("hedged"));
+
+        long start = System.nanoTime();
+        String result = resilience.byId(call).block(Duration.ofSeconds(5));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("hedged", result);
+        assertEquals(2, calls.get());
+        assertTrue(elapsedMillis < 200, "took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void byId_shouldNotFailWhenTheHedgeIsRejectedDuringTrial() {
+        resilience = new UpstreamResilience(1, Duration.ofMillis(50));
+        ReflectionTestUtils.setField(resilience, "retryMaxAttempts", 0);
+        for (int i = 0; i < 20; i++) {
+            resilience.byId(Mono.just("warm-up")).block(Duration.ofSeconds(5));
+        }
+        assertThrows(WebClientResponseException.class,
+                () -> resilience.byId(Mono.error(serverError())).block(Duration.ofSeconds(5)));
+        assertEquals(CircuitBreaker.State.OPEN, resilience.getCircuitState());
+        Mono.delay(Duration.ofMillis(100)).block();
+
+        // The half-open trial is slower than p95 but answers; the breaker admits no hedge meanwhile
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(100)).thenReturn("trial");
+        });
+
+        assertEquals("trial", resilience.byId(call).block(Duration.ofSeconds(5)));
+        assertEquals(1, calls.get());
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.getCircuitState());
+    }
+
+    @Test
+    void byId_shouldLetTheHedgeAnswerWhenTheFirstRequestFails() {
+        for (int i = 0; i < 20; i++) {
+            resilience.byId(Mono.just("warm-up")).block(Duration.ofSeconds(5));
+        }
+
+        // The first request fails after the hedge was sent; the hedge answers later
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(50)).then(Mono.<String>error(serverError()))
+                : Mono.delay(Duration.ofMillis(100)).thenReturn("hedged"));
+
+        assertEquals("hedged", resilience.byId(call).block(Duration.ofSeconds(5)));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void byId_shouldAnswerEmptyWithoutWaitingForTheHedge() {
+        for (int i = 0; i < 20; i++) {
+            resilience.byId(Mono.just("warm-up")).block(Duration.ofSeconds(5));
+        }
+
+        // Upstream does not know the ID: the first request answers empty after the hedge was sent
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.defer(() -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(50)).then(Mono.<String>empty())
+                : Mono.<String>never());
+
+        assertNull(resilience.byId(call).block(Duration.ofSeconds(5)));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void idle_shouldAllowSlowDownloadsThatKeepStreaming() {
+        ReflectionTestUtils.setField(resilience, "bulkIdleTimeout", Duration.ofMillis(200));
+        // Ten chunks 100ms apart: longer than the idle timeout in total, never idle that long
+        Flux<Long> body = Flux.interval(Duration.ofMillis(100)).take(10);
+
+        Long chunks = resilience.bulk(resilience.idle(body).count()).block(Duration.ofSeconds(5));
+
+        assertEquals(10, chunks);
+    }
+
+    @Test
+    void idle_shouldFailStalledDownloads() {
+        ReflectionTestUtils.setField(resilience, "bulkIdleTimeout", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(resilience, "retryMaxAttempts", 0);
+        Flux<Long> body = Flux.concat(Flux.just(1L), Flux.never());
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> resilience.bulk(resilience.idle(body).count()).block(Duration.ofSeconds(5)));
+
+        assertTrue(error.getCause() instanceof TimeoutException, error.toString());
+    }
+
+    private WebClientResponseException serverError() {
+        return WebClientResponseException.create(
+                HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable", null, null, null);
+    }
+}